@@ -0,0 +1,83 @@
+package org.main;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares keeping a shortest path tree up to date with {@link DynamicShortestPathTree} against recomputing it from
+ * scratch after every change. Each operation toggles one random flight between its original distance and a longer
+ * one, so half of the changes lengthen an edge and half shorten it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DynamicShortestPathBenchmark {
+    private static final int UPDATE_COUNT = 1024;
+
+    @Param({"RANDOM_SPARSE", "GRID", "SCALE_FREE"})
+    public GraphGenerator.Shape shape;
+
+    @Param({"10000", "100000"})
+    public int vertices;
+
+    private GraphGenerator.EdgeList edges;
+
+    /**
+     * A system with a tracked tree, which is updated incrementally by every change.
+     */
+    private AirportSystem tracked;
+
+    /**
+     * A system without a tracked tree, whose tree is recomputed by hand after every change.
+     */
+    private AirportSystem untracked;
+    private DynamicShortestPathTree recomputedTree;
+
+    private int[] updates;
+    private boolean[] trackedLengthened;
+    private boolean[] untrackedLengthened;
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void load() {
+        edges = GraphGenerator.generate(shape, vertices, 42);
+        tracked = edges.load();
+        tracked.trackShortestPaths(edges.names()[0]);
+
+        untracked = edges.load();
+        recomputedTree = untracked.trackShortestPaths(edges.names()[0]);
+        untracked.untrackShortestPaths(recomputedTree);
+
+        Random random = new Random(7);
+        updates = new int[UPDATE_COUNT];
+        for (int i = 0; i < UPDATE_COUNT; i++)
+            updates[i] = random.nextInt(edges.edgeCount());
+        trackedLengthened = new boolean[edges.edgeCount()];
+        untrackedLengthened = new boolean[edges.edgeCount()];
+    }
+
+    @Benchmark
+    public boolean incrementalUpdate() {
+        return toggle(tracked, trackedLengthened);
+    }
+
+    @Benchmark
+    public int fullRecompute() {
+        toggle(untracked, untrackedLengthened);
+        recomputedTree.recompute();
+        return recomputedTree.lastUpdateSize();
+    }
+
+    private boolean toggle(AirportSystem system, boolean[] lengthened) {
+        int edge = updates[next++ & (UPDATE_COUNT - 1)];
+        int weight = edges.weights()[edge];
+        lengthened[edge] = !lengthened[edge];
+        return system.updateEdge(edges.names()[edges.sources()[edge]], edges.names()[edges.destinations()[edge]],
+                lengthened[edge] ? weight * 2 + 1 : weight);
+    }
+}
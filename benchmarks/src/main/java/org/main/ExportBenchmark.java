@@ -0,0 +1,84 @@
+package org.main;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures exporting a whole network with {@link GraphWriter} in each {@link GraphFormat}, to a writer that discards
+ * the text (the cost of formatting alone) and to a file channel in UTF-8. {@code toStringDump} builds the same text as
+ * the adjacency list format in memory for comparison, and its allocation rate shows what streaming saves. With a
+ * million airports the networks have about three million flights.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class ExportBenchmark {
+    @Param({"RANDOM_SPARSE", "SCALE_FREE"})
+    public GraphGenerator.Shape shape;
+
+    @Param({"100000", "1000000"})
+    public int vertices;
+
+    @Param({"ADJACENCY_LIST", "DOT", "CSV"})
+    public GraphFormat format;
+
+    private AirportSystem system;
+    private GraphWriter writer;
+    private GraphWriter neighbourhoodWriter;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        system = GraphGenerator.generate(shape, vertices, 42).load();
+        writer = new GraphWriter(format);
+        BreadthFirstResult nearby = system.hopLevels(system.getConnections().get(0).getId(), 2);
+        neighbourhoodWriter = new GraphWriter(format, city -> nearby.level(city) != AirportSystem.UNREACHABLE);
+        file = Files.createTempFile("export", ".txt");
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void toWriter() throws IOException {
+        writer.write(system, Writer.nullWriter());
+    }
+
+    @Benchmark
+    public long toFileChannel() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writer.write(system, channel);
+            return channel.size();
+        }
+    }
+
+    /**
+     * The airports within two connections of the first one, which still means testing every airport against the
+     * filter.
+     */
+    @Benchmark
+    public void neighbourhoodToWriter() throws IOException {
+        neighbourhoodWriter.write(system, Writer.nullWriter());
+    }
+
+    /**
+     * Does not depend on the format, which only repeats it.
+     */
+    @Benchmark
+    public int toStringDump() {
+        return system.toString().length();
+    }
+}
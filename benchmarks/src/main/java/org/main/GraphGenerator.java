@@ -0,0 +1,163 @@
+package org.main;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Synthetic airport networks for benchmarking. Every generated network is connected, and the same shape, size and
+ * seed always give the same network.
+ */
+public final class GraphGenerator {
+    private GraphGenerator() {}
+
+    /**
+     * The kinds of network that can be generated.
+     */
+    public enum Shape {
+        /**
+         * A random spanning tree plus random extra flights, for an average of about six flights per airport.
+         */
+        RANDOM_SPARSE,
+
+        /**
+         * A square grid where each airport has flights to its horizontal and vertical neighbours, like a road network.
+         */
+        GRID,
+
+        /**
+         * A preferential attachment (Barabási–Albert) network, where new airports tend to connect to airports that
+         * already have many flights. This gives a few huge hubs and many small spokes like real airline networks.
+         */
+        SCALE_FREE
+    }
+
+    /**
+     * A generated network as parallel arrays of flights, so that loading it can be timed without the generation.
+     *
+     * @param names The id of each airport.
+     * @param sources The index of the first airport of each flight.
+     * @param destinations The index of the second airport of each flight.
+     * @param weights The distance of each flight.
+     */
+    public record EdgeList(String[] names, int[] sources, int[] destinations, int[] weights) {
+        public int vertexCount() {
+            return names.length;
+        }
+
+        public int edgeCount() {
+            return sources.length;
+        }
+
+        /**
+         * Add every flight to a new airport system.
+         *
+         * @return The loaded airport system.
+         */
+        public AirportSystem load() {
+            AirportSystem system = new AirportSystem();
+            for (int i = 0; i < sources.length; i++)
+                system.addEdge(names[sources[i]], names[destinations[i]], weights[i]);
+            return system;
+        }
+    }
+
+    /**
+     * Generate a network.
+     *
+     * @param shape The kind of network.
+     * @param vertexCount The number of airports.
+     * @param seed The seed for the random number generator.
+     * @return The flights of the network.
+     */
+    public static EdgeList generate(Shape shape, int vertexCount, long seed) {
+        Random random = new Random(seed);
+        Builder builder = new Builder(vertexCount);
+        switch (shape) {
+            case RANDOM_SPARSE -> {
+                // Join a random permutation into a path so that the network is connected
+                int[] order = new int[vertexCount];
+                for (int i = 0; i < vertexCount; i++) {
+                    int j = random.nextInt(i + 1);
+                    order[i] = order[j];
+                    order[j] = i;
+                }
+                for (int i = 1; i < vertexCount; i++)
+                    builder.add(order[i - 1], order[i], 1 + random.nextInt(2000));
+                for (int i = 0; i < vertexCount * 2; i++) {
+                    int a = random.nextInt(vertexCount);
+                    int b = random.nextInt(vertexCount);
+                    if (a != b)
+                        builder.add(a, b, 1 + random.nextInt(2000));
+                }
+            }
+            case GRID -> {
+                int side = (int) Math.ceil(Math.sqrt(vertexCount));
+                for (int v = 0; v < vertexCount; v++) {
+                    if ((v + 1) % side != 0 && v + 1 < vertexCount)
+                        builder.add(v, v + 1, 50 + random.nextInt(100));
+                    if (v + side < vertexCount)
+                        builder.add(v, v + side, 50 + random.nextInt(100));
+                }
+            }
+            case SCALE_FREE -> {
+                // Every flight endpoint is recorded, so picking a random endpoint picks airports by their degree
+                int linksPerAirport = 2;
+                int[] endpoints = new int[vertexCount * linksPerAirport * 2 + 2];
+                int endpointCount = 0;
+                if (vertexCount > 1) {
+                    builder.add(0, 1, 1 + random.nextInt(2000));
+                    endpoints[endpointCount++] = 0;
+                    endpoints[endpointCount++] = 1;
+                }
+                for (int v = 2; v < vertexCount; v++) {
+                    int first = -1;
+                    for (int link = 0; link < linksPerAirport; link++) {
+                        int hub = endpoints[random.nextInt(endpointCount)];
+                        if (hub == first)
+                            continue;
+                        builder.add(v, hub, 1 + random.nextInt(2000));
+                        endpoints[endpointCount++] = v;
+                        endpoints[endpointCount++] = hub;
+                        first = hub;
+                    }
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static final class Builder {
+        private final String[] names;
+        private int[] sources = new int[16];
+        private int[] destinations = new int[16];
+        private int[] weights = new int[16];
+        private int size = 0;
+
+        Builder(int vertexCount) {
+            names = new String[vertexCount];
+            for (int i = 0; i < vertexCount; i++)
+                names[i] = "A" + i;
+        }
+
+        void add(int source, int destination, int weight) {
+            if (size == sources.length) {
+                sources = Arrays.copyOf(sources, size * 2);
+                destinations = Arrays.copyOf(destinations, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            sources[size] = source;
+            destinations[size] = destination;
+            weights[size] = weight;
+            size++;
+        }
+
+        EdgeList build() {
+            return new EdgeList(
+                    names,
+                    Arrays.copyOf(sources, size),
+                    Arrays.copyOf(destinations, size),
+                    Arrays.copyOf(weights, size)
+            );
+        }
+    }
+}
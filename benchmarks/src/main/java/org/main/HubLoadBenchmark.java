@@ -0,0 +1,120 @@
+package org.main;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures bulk loading a hub-heavy schedule with {@link AirportSystem#addEdge(String, String, int)}, where every
+ * flight is listed from its hub, as in a per-airline route file. Each spoke is served by three hubs, so most flights
+ * are added to a hub that already has tens of thousands of flights, and checking them for duplicates by scanning the
+ * hub's flights made loading quadratic.
+ * <p>
+ * {@code hasEdge} looks flights up through the hubs' neighbour indexes, and {@code linearScan} finds the same flights
+ * by scanning the hubs' edge lists as {@code addEdge} used to, for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HubLoadBenchmark {
+    private static final int HUBS_PER_SPOKE = 3;
+    private static final int LOOKUP_COUNT = 1024;
+
+    @Param({"10", "100"})
+    public int hubs;
+
+    @Param({"10000", "100000"})
+    public int spokes;
+
+    private String[] sources;
+    private String[] destinations;
+    private int[] weights;
+    private AirportSystem loaded;
+    private int[] lookups;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        Random random = new Random(42);
+        int flightCount = spokes * HUBS_PER_SPOKE;
+        sources = new String[flightCount];
+        destinations = new String[flightCount];
+        weights = new int[flightCount];
+
+        // Each round gives every spoke one more hub, so from the second round on both ends already exist
+        int[][] spokeHubs = new int[spokes][HUBS_PER_SPOKE];
+        for (int round = 0; round < HUBS_PER_SPOKE; round++) {
+            for (int spoke = 0; spoke < spokes; spoke++) {
+                int hub;
+                do {
+                    hub = random.nextInt(hubs);
+                } while (served(spokeHubs[spoke], round, hub));
+                spokeHubs[spoke][round] = hub;
+
+                int flight = round * spokes + spoke;
+                sources[flight] = "H" + hub;
+                destinations[flight] = "S" + spoke;
+                weights[flight] = 1 + random.nextInt(2000);
+            }
+        }
+
+        loaded = addEdge();
+        lookups = new int[LOOKUP_COUNT];
+        for (int i = 0; i < LOOKUP_COUNT; i++)
+            lookups[i] = random.nextInt(flightCount);
+    }
+
+    private static boolean served(int[] hubs, int count, int hub) {
+        for (int i = 0; i < count; i++)
+            if (hubs[i] == hub)
+                return true;
+        return false;
+    }
+
+    @Benchmark
+    public AirportSystem addEdge() {
+        AirportSystem system = new AirportSystem();
+        for (int i = 0; i < sources.length; i++)
+            system.addEdge(sources[i], destinations[i], weights[i]);
+        return system;
+    }
+
+    /**
+     * Adding every flight again, which is rejected as a duplicate each time.
+     */
+    @Benchmark
+    public int addDuplicates() {
+        int rejected = 0;
+        for (int i = 0; i < sources.length; i++)
+            if (!loaded.addEdge(sources[i], destinations[i], weights[i]))
+                rejected++;
+        return rejected;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void hasEdge(Blackhole blackhole) {
+        for (int flight : lookups)
+            blackhole.consume(loaded.hasEdge(sources[flight], destinations[flight]));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void linearScan(Blackhole blackhole) {
+        for (int flight : lookups) {
+            AirportSystem.Vertex destination = loaded.getConnection(destinations[flight]);
+            boolean found = false;
+            for (AirportSystem.Edge edge : loaded.getConnection(sources[flight]).getEdges()) {
+                if (edge.getDestination() == destination) {
+                    found = true;
+                    break;
+                }
+            }
+            blackhole.consume(found);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.main;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures bulk loading a whole network, both through {@link AirportSystem#addEdge(String, String, int)} and from an
+ * edge list file with {@link EdgeListLoader}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoadBenchmark {
+    @Param({"RANDOM_SPARSE", "GRID", "SCALE_FREE"})
+    public GraphGenerator.Shape shape;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int vertices;
+
+    private GraphGenerator.EdgeList edges;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        edges = GraphGenerator.generate(shape, vertices, 42);
+
+        file = Files.createTempFile("edges", ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < edges.edgeCount(); i++) {
+                writer.write(edges.names()[edges.sources()[i]] + "," + edges.names()[edges.destinations()[i]] + ","
+                        + edges.weights()[i]);
+                writer.newLine();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public AirportSystem addEdge() {
+        return edges.load();
+    }
+
+    /**
+     * Reading the file line by line and calling addEdge, which is what the edge list loader replaces.
+     */
+    @Benchmark
+    public AirportSystem readLinesAndAddEdge() throws IOException {
+        AirportSystem system = new AirportSystem();
+        try (var lines = Files.lines(file)) {
+            lines.forEach(line -> {
+                String[] fields = line.split(",");
+                system.addEdge(fields[0], fields[1], Integer.parseInt(fields[2]));
+            });
+        }
+        return system;
+    }
+
+    @Benchmark
+    public CompactGraph edgeListLoader() throws IOException {
+        return new EdgeListLoader().load(file).graph();
+    }
+
+    @Benchmark
+    public CompactGraph edgeListLoaderParallel() throws IOException {
+        return new EdgeListLoader().load(file, ForkJoinPool.commonPool()).graph();
+    }
+}
@@ -0,0 +1,84 @@
+package org.main;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what metrics cost by running the instrumented queries of {@link AirportSystem} with a
+ * {@link MetricsRegistry} attached and without one. With metrics off the results should match {@link QueryBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsBenchmark {
+    private static final int QUERY_COUNT = 1024;
+
+    @Param({"RANDOM_SPARSE", "SCALE_FREE"})
+    public GraphGenerator.Shape shape;
+
+    @Param({"10000", "100000"})
+    public int vertices;
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private AirportSystem system;
+    private String[] origins;
+    private String[] destinations;
+
+    /**
+     * Existing flights, which addEdge rejects without changing the graph.
+     */
+    private String[][] duplicates;
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void load() {
+        GraphGenerator.EdgeList edges = GraphGenerator.generate(shape, vertices, 42);
+        system = edges.load();
+        if (metrics)
+            system.setQueryListener(new MetricsRegistry());
+
+        Random random = new Random(7);
+        origins = new String[QUERY_COUNT];
+        destinations = new String[QUERY_COUNT];
+        duplicates = new String[QUERY_COUNT][];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            origins[i] = edges.names()[random.nextInt(vertices)];
+            destinations[i] = edges.names()[random.nextInt(vertices)];
+            int edge = random.nextInt(edges.edgeCount());
+            duplicates[i] = new String[] {
+                    edges.names()[edges.sources()[edge]], edges.names()[edges.destinations()[edge]]
+            };
+        }
+        system.shortestDistance(origins[0], destinations[0]);
+    }
+
+    @Benchmark
+    public int shortestDistance() {
+        int query = next++ & (QUERY_COUNT - 1);
+        return system.shortestDistance(origins[query], destinations[query]);
+    }
+
+    @Benchmark
+    public List<String> breadthFirstSearch() {
+        return system.breadthFirstSearch(origins[next++ & (QUERY_COUNT - 1)]);
+    }
+
+    @Benchmark
+    public List<AirportSystem.Edge> minimumSpanningTree() {
+        return system.minimumSpanningTree(origins[next++ & (QUERY_COUNT - 1)]);
+    }
+
+    @Benchmark
+    public boolean addDuplicateEdge() {
+        String[] duplicate = duplicates[next++ & (QUERY_COUNT - 1)];
+        return system.addEdge(duplicate[0], duplicate[1], 1);
+    }
+}
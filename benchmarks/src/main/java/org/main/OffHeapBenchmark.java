@@ -0,0 +1,75 @@
+package org.main;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares queries on an {@link OffHeapGraph} with the same queries on the {@link CompactGraph} it was copied from,
+ * which shows what reading through direct byte buffers costs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OffHeapBenchmark {
+    private static final int QUERY_COUNT = 1024;
+
+    @Param({"RANDOM_SPARSE", "GRID", "SCALE_FREE"})
+    public GraphGenerator.Shape shape;
+
+    @Param({"100000", "1000000"})
+    public int vertices;
+
+    private CompactGraph compact;
+    private OffHeapGraph offHeap;
+    private String[] origins;
+    private String[] destinations;
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void load() {
+        GraphGenerator.EdgeList edges = GraphGenerator.generate(shape, vertices, 42);
+        compact = edges.load().compact();
+        offHeap = OffHeapGraph.of(compact);
+
+        Random random = new Random(7);
+        origins = new String[QUERY_COUNT];
+        destinations = new String[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            origins[i] = edges.names()[random.nextInt(vertices)];
+            destinations[i] = edges.names()[random.nextInt(vertices)];
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        offHeap.close();
+    }
+
+    @Benchmark
+    public int heapShortestDistance() {
+        int query = next++ & (QUERY_COUNT - 1);
+        return compact.shortestDistance(origins[query], destinations[query]);
+    }
+
+    @Benchmark
+    public int offHeapShortestDistance() {
+        int query = next++ & (QUERY_COUNT - 1);
+        return offHeap.shortestDistance(origins[query], destinations[query]);
+    }
+
+    @Benchmark
+    public List<String> heapBreadthFirstSearch() {
+        return compact.breadthFirstSearch(origins[next++ & (QUERY_COUNT - 1)]);
+    }
+
+    @Benchmark
+    public List<String> offHeapBreadthFirstSearch() {
+        return offHeap.breadthFirstSearch(origins[next++ & (QUERY_COUNT - 1)]);
+    }
+}
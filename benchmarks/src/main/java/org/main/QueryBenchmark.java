@@ -0,0 +1,122 @@
+package org.main;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the queries of {@link AirportSystem} on synthetic networks. Point queries cycle through a fixed set of
+ * random airports so that every run measures the same work.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryBenchmark {
+    private static final int QUERY_COUNT = 1024;
+
+    @Param({"RANDOM_SPARSE", "GRID", "SCALE_FREE"})
+    public GraphGenerator.Shape shape;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int vertices;
+
+    private AirportSystem system;
+    private AirportSystem.Vertex[] origins;
+    private AirportSystem.Vertex[] destinations;
+
+    @Setup(Level.Trial)
+    public void load() {
+        GraphGenerator.EdgeList edges = GraphGenerator.generate(shape, vertices, 42);
+        system = edges.load();
+
+        Random random = new Random(7);
+        origins = new AirportSystem.Vertex[QUERY_COUNT];
+        destinations = new AirportSystem.Vertex[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            origins[i] = system.getConnection(edges.names()[random.nextInt(vertices)]);
+            destinations[i] = system.getConnection(edges.names()[random.nextInt(vertices)]);
+        }
+
+        // Build anything that is built lazily on the first query, so that it is not counted in the first iteration
+        system.shortestDistance(origins[0], destinations[0]);
+    }
+
+    /**
+     * Which of the random queries each thread runs next.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next = 0;
+
+        int next() {
+            return next++ & (QUERY_COUNT - 1);
+        }
+    }
+
+    @Benchmark
+    public int shortestDistance(Cursor cursor) {
+        int query = cursor.next();
+        return system.shortestDistance(origins[query], destinations[query]);
+    }
+
+    @Benchmark
+    public List<String> breadthFirstSearch(Cursor cursor) {
+        return system.breadthFirstSearch(origins[cursor.next()].getId());
+    }
+
+    @Benchmark
+    public Itinerary shortestItinerary(Cursor cursor) {
+        int query = cursor.next();
+        return system.shortestItinerary(origins[query].getId(), destinations[query].getId());
+    }
+
+    @Benchmark
+    public List<Itinerary> fiveAlternativeItineraries(Cursor cursor) {
+        int query = cursor.next();
+        return system.alternativeItineraries(origins[query].getId(), destinations[query].getId(), 5, 1.5);
+    }
+
+    @Benchmark
+    public List<Visit> closestFifty(Cursor cursor) {
+        return system.closestFirst(origins[cursor.next()].getId()).limit(50).toList();
+    }
+
+    @Benchmark
+    public BreadthFirstResult hopLevels(Cursor cursor) {
+        return system.hopLevels(origins[cursor.next()].getId());
+    }
+
+    @Benchmark
+    public List<AirportSystem.Edge> minimumSpanningTree(Cursor cursor) {
+        return system.minimumSpanningTree(origins[cursor.next()]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public SpanningForest primForest() {
+        return system.minimumSpanningForest(SpanningTreeAlgorithm.PRIM);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public SpanningForest kruskalForest() {
+        return system.minimumSpanningForest(SpanningTreeAlgorithm.KRUSKAL);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public SpanningForest boruvkaForest() {
+        return system.minimumSpanningForest(SpanningTreeAlgorithm.BORUVKA);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public String toStringDump() {
+        return system.toString();
+    }
+}
@@ -0,0 +1,129 @@
+package org.main;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the throughput and latency of a {@link QueryServer} on localhost with a closed loop of clients, each on its
+ * own virtual thread, that send a shortest distance request as soon as their last one is answered.
+ * <p>
+ * Requests start from a limited number of cities so that concurrent requests share searches, and the ratio of
+ * requests to searches shows how much batching helped. Options are given as {@code name=value}:
+ * <pre>
+ *     shape=SCALE_FREE  vertices=100000  clients=256  seconds=10  sources=64  admitted=1024  port=0
+ * </pre>
+ * With {@code port=0} an in-process server is started on the generated network. Otherwise requests go to a server
+ * already running on that port, which must have been loaded with the same shape and size. The in-process server
+ * turns off Nagle's algorithm with {@code sun.net.httpserver.nodelay}, since otherwise small responses wait for
+ * delayed acknowledgements and every request takes tens of milliseconds.
+ * <p>
+ * For example: {@code java -cp target/benchmarks.jar org.main.QueryServerLoadGenerator clients=512}
+ */
+public final class QueryServerLoadGenerator {
+    private QueryServerLoadGenerator() {}
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(Map.of(
+                "shape", "SCALE_FREE", "vertices", "100000", "clients", "256", "seconds", "10",
+                "sources", "64", "admitted", "1024", "port", "0"
+        ));
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals == -1 || !options.containsKey(arg.substring(0, equals)))
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            options.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+
+        GraphGenerator.Shape shape = GraphGenerator.Shape.valueOf(options.get("shape"));
+        int vertices = Integer.parseInt(options.get("vertices"));
+        int clients = Integer.parseInt(options.get("clients"));
+        long seconds = Long.parseLong(options.get("seconds"));
+        int sources = Integer.parseInt(options.get("sources"));
+        int port = Integer.parseInt(options.get("port"));
+
+        GraphGenerator.EdgeList edges = GraphGenerator.generate(shape, vertices, 42);
+        QueryServer server = null;
+        if (port == 0) {
+            if (System.getProperty("sun.net.httpserver.nodelay") == null)
+                System.setProperty("sun.net.httpserver.nodelay", "true");
+            ConcurrentAirportSystem system = new ConcurrentAirportSystem();
+            ConcurrentAirportSystem.Route[] routes = new ConcurrentAirportSystem.Route[edges.edgeCount()];
+            for (int i = 0; i < routes.length; i++)
+                routes[i] = new ConcurrentAirportSystem.Route(edges.names()[edges.sources()[i]],
+                        edges.names()[edges.destinations()[i]], edges.weights()[i]);
+            system.addEdges(List.of(routes));
+            server = new QueryServer(system, new InetSocketAddress("localhost", 0),
+                    Integer.parseInt(options.get("admitted")));
+            port = server.port();
+        }
+
+        Random random = new Random(7);
+        String[] origins = new String[sources];
+        for (int i = 0; i < sources; i++)
+            origins[i] = edges.names()[random.nextInt(vertices)];
+
+        LatencyHistogram latencies = new LatencyHistogram();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        String base = "http://localhost:" + port + "/distance?from=";
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+
+        // The client is closed last, once every thread using it has finished
+        try (HttpClient client = HttpClient.newHttpClient();
+             ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                long seed = c;
+                threads.submit(() -> {
+                    Random clientRandom = new Random(seed);
+                    while (System.nanoTime() < deadline) {
+                        String origin = origins[clientRandom.nextInt(origins.length)];
+                        String destination = edges.names()[clientRandom.nextInt(edges.vertexCount())];
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(base + encode(origin) + "&to="
+                                + encode(destination))).build();
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<String> response = client.send(request,
+                                    HttpResponse.BodyHandlers.ofString());
+                            if (response.statusCode() == 503)
+                                rejected.incrementAndGet();
+                            else if (response.statusCode() != 200)
+                                failed.incrementAndGet();
+                            else
+                                latencies.record(System.nanoTime() - start);
+                        } catch (Exception exception) {
+                            failed.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+
+        System.out.printf("%d clients, %d seconds, %s with %d airports%n", clients, seconds, shape, vertices);
+        System.out.printf("throughput: %.0f requests/s%n", latencies.count() / (double) seconds);
+        System.out.printf("latency ms: p50 %.2f, p99 %.2f, p99.9 %.2f, max %.2f%n",
+                latencies.valueAtPercentile(50) / 1e6, latencies.valueAtPercentile(99) / 1e6,
+                latencies.valueAtPercentile(99.9) / 1e6, latencies.max() / 1e6);
+        System.out.printf("rejected: %d, failed: %d%n", rejected.get(), failed.get());
+        if (server != null) {
+            System.out.printf("requests per search: %.2f%n", latencies.count() / (double) server.searchCount());
+            server.close();
+        }
+    }
+
+    private static String encode(String id) {
+        return URLEncoder.encode(id, StandardCharsets.UTF_8);
+    }
+}
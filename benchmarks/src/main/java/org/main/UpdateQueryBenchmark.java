@@ -0,0 +1,83 @@
+package org.main;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a schedule that changes between queries, where each operation changes the distance of one random flight
+ * and then asks for the shortest distance between two random airports. {@code changeThenQuery} lets
+ * {@link AirportSystem#shortestDistance(String, String)} search the edge lists while the compact graph is stale, and
+ * {@code changeThenRebuild} rebuilds the compact graph before every query as it used to. {@code queryOnly} is the
+ * same query on a schedule that does not change, for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UpdateQueryBenchmark {
+    private static final int OPERATION_COUNT = 1024;
+
+    @Param({"RANDOM_SPARSE", "GRID", "SCALE_FREE"})
+    public GraphGenerator.Shape shape;
+
+    @Param({"10000", "100000"})
+    public int vertices;
+
+    private GraphGenerator.EdgeList edges;
+    private AirportSystem system;
+    private int[] updates;
+    private String[] from;
+    private String[] to;
+    private boolean[] lengthened;
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void load() {
+        edges = GraphGenerator.generate(shape, vertices, 42);
+        system = edges.load();
+
+        Random random = new Random(7);
+        updates = new int[OPERATION_COUNT];
+        from = new String[OPERATION_COUNT];
+        to = new String[OPERATION_COUNT];
+        for (int i = 0; i < OPERATION_COUNT; i++) {
+            updates[i] = random.nextInt(edges.edgeCount());
+            from[i] = edges.names()[random.nextInt(vertices)];
+            to[i] = edges.names()[random.nextInt(vertices)];
+        }
+        lengthened = new boolean[edges.edgeCount()];
+    }
+
+    @Benchmark
+    public int changeThenQuery() {
+        int operation = next++ & (OPERATION_COUNT - 1);
+        toggle(operation);
+        return system.shortestDistance(from[operation], to[operation]);
+    }
+
+    @Benchmark
+    public int changeThenRebuild() {
+        int operation = next++ & (OPERATION_COUNT - 1);
+        toggle(operation);
+        system.compact();
+        return system.shortestDistance(from[operation], to[operation]);
+    }
+
+    @Benchmark
+    public int queryOnly() {
+        int operation = next++ & (OPERATION_COUNT - 1);
+        return system.shortestDistance(from[operation], to[operation]);
+    }
+
+    private void toggle(int operation) {
+        int edge = updates[operation];
+        int weight = edges.weights()[edge];
+        lengthened[edge] = !lengthened[edge];
+        system.updateEdge(edges.names()[edges.sources()[edge]], edges.names()[edges.destinations()[edge]],
+                lengthened[edge] ? weight * 2 + 1 : weight);
+    }
+}
@@ -1,18 +1,90 @@
 package org.main;
 
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 
 public class AirportSystem {
+    /**
+     * The distance returned by {@link #shortestDistance(Vertex, Vertex)} when there is no route between two cities.
+     * Real distances are never negative, so this can not be mistaken for one.
+     */
+    public static final int UNREACHABLE = -1;
+
     private final Map<String, Vertex> connections = new HashMap<>();
 
+    /**
+     * Every vertex indexed by its position of creation, so that vertex {@code i} has {@code index == i}. These indexes
+     * are the dense int ids used by the primitive graph representations such as {@link CompactGraph}.
+     */
+    private final List<Vertex> vertices = new ArrayList<>();
+
+    /**
+     * The number of undirected edges in the airport system.
+     */
+    private int edgeCount = 0;
+
+    /**
+     * Incremented every time the graph changes, so that derived data such as {@link #compact()} can tell that it is
+     * out of date.
+     */
+    private int version = 0;
+
+    /**
+     * The compact form of the graph as of {@link #compactVersion}, or null if it has not been built yet.
+     */
+    private CompactGraph compact;
+
+    private int compactVersion = -1;
+
+    /**
+     * The edges relaxed by searches of the edge lists since the graph last changed, and the version they were counted
+     * for. See {@link #searchShortestDistance(Vertex, Vertex, SearchMode)}.
+     */
+    private long staleSearchWork;
+    private int staleSearchVersion = -1;
+
+    /**
+     * The cache of query results, or null if caching is not enabled.
+     */
+    private QueryCache cache;
+
+    /**
+     * The shortest path trees kept up to date after every change, see {@link #trackShortestPaths(String)}.
+     */
+    private final List<DynamicShortestPathTree> trackedTrees = new ArrayList<>();
+
+    /**
+     * The listener that measured queries are reported to, or null if metrics are off.
+     */
+    private QueryListener queryListener;
+
+    /**
+     * The statistics of the most recent measured query.
+     */
+    private QueryStats lastQueryStats;
+
+    /**
+     * The work done by the most recent query, recorded by every query whether or not metrics are on since plain
+     * counters cost next to nothing.
+     */
+    private int lastSettled;
+    private long lastRelaxed;
+    private int lastHeapPeak;
+
     /**
      * The adjacency list of the cities. Each node is a city, and each connecting line indicates a flight between two
      * cities. The inner List<Edge> represents a vertex.
      *
-     * @return The adjacency list of cities.
+     * @return An unmodifiable view of the cities, in the order they were added.
      */
     public List<Vertex> getConnections() {
-        return connections.values().stream().toList();
+        return Collections.unmodifiableList(vertices);
     }
 
     /**
@@ -28,7 +100,35 @@ public class AirportSystem {
      * @return Number of vertexes in the airport system.
      */
     public int size () {
-        return getConnections().size();
+        return vertices.size();
+    }
+
+    /**
+     * Whether there is a direct flight between two cities.
+     *
+     * @param source One end of the flight.
+     * @param destination The other end of the flight.
+     * @return True if the flight exists.
+     */
+    public boolean hasEdge(String source, String destination) {
+        return getDistance(source, destination) != UNREACHABLE;
+    }
+
+    /**
+     * The length of the direct flight between two cities, found without a search.
+     *
+     * @param source One end of the flight.
+     * @param destination The other end of the flight.
+     * @return The length of the flight, or {@link #UNREACHABLE} if there is no direct flight or either city does not
+     * exist.
+     */
+    public int getDistance(String source, String destination) {
+        Vertex sourceVertex = connections.get(source);
+        Vertex destinationVertex = connections.get(destination);
+        if (sourceVertex == null || destinationVertex == null)
+            return UNREACHABLE;
+        Edge edge = sourceVertex.edgeTo(destinationVertex);
+        return edge == null ? UNREACHABLE : edge.distance;
     }
 
     /**
@@ -41,136 +141,677 @@ public class AirportSystem {
      * added.
      */
     public boolean addEdge (String source, String destination, int weight) {
+        if (queryListener == null)
+            return computeAddEdge(source, destination, weight);
+
+        long start = System.nanoTime();
+        long allocated = QueryStats.threadAllocatedBytes();
+        boolean added = computeAddEdge(source, destination, weight);
+        report(QueryStats.Operation.ADD_EDGE, source + " - " + destination, start, allocated);
+        return added;
+    }
+
+    private boolean computeAddEdge(String source, String destination, int weight) {
+        count(0, 0, 0);
         if (weight < 0 || source.equals(destination))
             return false;
 
-        Vertex sourceVertex;
-        Vertex destinationVertex;
+        Vertex sourceVertex = connections.get(source);
+        Vertex destinationVertex = connections.get(destination);
 
-        // Use existing source vertex if it already exists, otherwise make a new one
-        if (connections.containsKey(source))
-            sourceVertex = connections.get(source);
-        else
-            sourceVertex = new Vertex(source);
-
-        // Use existing destination vertex if it already exists, otherwise make a new one
-        if (connections.containsKey(destination))
-            destinationVertex = connections.get(destination);
-        else
-            destinationVertex = new Vertex(destination);
-        
         // Check if the sourceVertex already has a connection to the destinationVertex
-        for (Edge edge : sourceVertex.edges)
-            if (edge.destination == destinationVertex)
+        if (sourceVertex != null && destinationVertex != null) {
+            Edge existing = sourceVertex.edgeTo(destinationVertex);
+            // An indexed vertex looks the edge up once, otherwise its edges are scanned up to the match
+            lastRelaxed = sourceVertex.neighbours != null ? 1
+                    : existing == null ? sourceVertex.edges.size() : sourceVertex.edges.indexOf(existing) + 1;
+            if (existing != null)
                 return false;
+        }
 
-        // Add the vertexes to the main list of vertexes that we are keeping track of
-        connections.put(sourceVertex.id, sourceVertex);
-        connections.put(destinationVertex.id, destinationVertex);
+        // Use existing vertexes if they already exist, otherwise make new ones and add them to the main list of
+        // vertexes that we are keeping track of
+        if (sourceVertex == null)
+            sourceVertex = createVertex(source);
+        if (destinationVertex == null)
+            destinationVertex = createVertex(destination);
 
         // Add the edges to the vertexes
         sourceVertex.addEdge(new Edge(sourceVertex, destinationVertex, weight));
         destinationVertex.addEdge(new Edge(destinationVertex, sourceVertex, weight));
-        
+        edgeCount++;
+        version++;
+        for (DynamicShortestPathTree tree : trackedTrees) {
+            tree.edgeShortened(sourceVertex.index, destinationVertex.index, weight);
+            lastSettled += tree.lastUpdateSize();
+        }
+
+        return true;
+    }
+
+    /**
+     * Changes the length of an existing edge.
+     *
+     * @param source One end of the edge.
+     * @param destination The other end of the edge.
+     * @param weight The new length of the edge.
+     * @return False if there is no such edge or the weight is negative, otherwise true.
+     */
+    public boolean updateEdge(String source, String destination, int weight) {
+        if (queryListener == null)
+            return computeUpdateEdge(source, destination, weight);
+
+        long start = System.nanoTime();
+        long allocated = QueryStats.threadAllocatedBytes();
+        boolean updated = computeUpdateEdge(source, destination, weight);
+        report(QueryStats.Operation.UPDATE_EDGE, source + " - " + destination, start, allocated);
+        return updated;
+    }
+
+    private boolean computeUpdateEdge(String source, String destination, int weight) {
+        count(0, 0, 0);
+        Vertex sourceVertex = connections.get(source);
+        Vertex destinationVertex = connections.get(destination);
+        if (weight < 0 || sourceVertex == null || destinationVertex == null)
+            return false;
+
+        int oldWeight = replaceEdge(sourceVertex, destinationVertex, weight);
+        if (oldWeight == -1)
+            return false;
+        replaceEdge(destinationVertex, sourceVertex, weight);
+        version++;
+
+        for (DynamicShortestPathTree tree : trackedTrees) {
+            if (weight < oldWeight)
+                tree.edgeShortened(sourceVertex.index, destinationVertex.index, weight);
+            else if (weight > oldWeight)
+                tree.edgeLengthened(sourceVertex.index, destinationVertex.index);
+            else
+                continue;
+            lastSettled += tree.lastUpdateSize();
+        }
+        return true;
+    }
+
+    /**
+     * Removes an edge, such as when a route is cancelled. Both cities stay in the airport system even if they no
+     * longer have any flights.
+     *
+     * @param source One end of the edge.
+     * @param destination The other end of the edge.
+     * @return False if there is no such edge, otherwise true.
+     */
+    public boolean removeEdge(String source, String destination) {
+        if (queryListener == null)
+            return computeRemoveEdge(source, destination);
+
+        long start = System.nanoTime();
+        long allocated = QueryStats.threadAllocatedBytes();
+        boolean removed = computeRemoveEdge(source, destination);
+        report(QueryStats.Operation.REMOVE_EDGE, source + " - " + destination, start, allocated);
+        return removed;
+    }
+
+    private boolean computeRemoveEdge(String source, String destination) {
+        count(0, 0, 0);
+        Vertex sourceVertex = connections.get(source);
+        Vertex destinationVertex = connections.get(destination);
+        if (sourceVertex == null || destinationVertex == null)
+            return false;
+
+        if (replaceEdge(sourceVertex, destinationVertex, -1) == -1)
+            return false;
+        replaceEdge(destinationVertex, sourceVertex, -1);
+        edgeCount--;
+        version++;
+
+        for (DynamicShortestPathTree tree : trackedTrees) {
+            tree.edgeLengthened(sourceVertex.index, destinationVertex.index);
+            lastSettled += tree.lastUpdateSize();
+        }
         return true;
     }
 
+    /**
+     * Replace the edge from one vertex to another with one of a new length, keeping its place in the edge list.
+     *
+     * @param weight The new length, or -1 to remove the edge.
+     * @return The old length, or -1 if there was no such edge.
+     */
+    private int replaceEdge(Vertex source, Vertex destination, int weight) {
+        Edge edge = source.edgeTo(destination);
+        if (edge == null)
+            return -1;
+
+        if (weight == -1)
+            source.removeEdge(edge);
+        else
+            source.replaceEdge(edge, new Edge(source, destination, weight));
+        return edge.distance;
+    }
+
+    /**
+     * Adds an edge that is already known to follow the rules of {@link #addEdge(String, String, int)}, skipping the
+     * checks. Used by bulk loaders that have already validated and deduplicated their edges.
+     *
+     * @param source The source fo the edge.
+     * @param destination The destination of the edge.
+     * @param weight The length of the edge.
+     */
+    void addVerifiedEdge(String source, String destination, int weight) {
+        Vertex sourceVertex = connections.get(source);
+        if (sourceVertex == null)
+            sourceVertex = createVertex(source);
+        Vertex destinationVertex = connections.get(destination);
+        if (destinationVertex == null)
+            destinationVertex = createVertex(destination);
+
+        sourceVertex.addEdge(new Edge(sourceVertex, destinationVertex, weight));
+        destinationVertex.addEdge(new Edge(destinationVertex, sourceVertex, weight));
+        edgeCount++;
+        version++;
+        for (DynamicShortestPathTree tree : trackedTrees)
+            tree.edgeShortened(sourceVertex.index, destinationVertex.index, weight);
+    }
+
+    /**
+     * Rebuild a mutable airport system from a compact graph, such as one loaded from a {@link GraphSnapshot}. Vertexes
+     * get the same indexes and their edges are in the same order, so compacting the result gives an equal graph. The
+     * graph itself is kept as the cached compact graph, so queries can use it straight away.
+     *
+     * @param graph The graph to copy.
+     * @return A new airport system with the same vertexes and edges.
+     */
+    public static AirportSystem fromCompact(CompactGraph graph) {
+        AirportSystem system = new AirportSystem();
+        for (int v = 0; v < graph.size(); v++) {
+            Vertex vertex = system.createVertex(graph.idOf(v));
+            if (graph.hasLocations()) {
+                double[] location = graph.latitudeLongitude(v);
+                vertex.latitude = location[0];
+                vertex.longitude = location[1];
+            }
+        }
+
+        // Each direction of every edge is added separately so that every vertex's edges keep their order
+        for (int v = 0; v < graph.size(); v++) {
+            Vertex vertex = system.vertices.get(v);
+            for (int slot = graph.firstSlot(v); slot < graph.endSlot(v); slot++)
+                vertex.addEdge(new Edge(vertex, system.vertices.get(graph.target(slot)), graph.weight(slot)));
+        }
+        system.edgeCount = graph.edgeCount();
+        system.version++;
+        system.compact = graph;
+        system.compactVersion = system.version;
+        return system;
+    }
+
+    /**
+     * Save the airport system to a binary snapshot file, which {@link #loadSnapshot(Path)} can load far faster than
+     * adding the edges again.
+     *
+     * @param path The file to write.
+     * @throws IOException If the file can not be written.
+     */
+    public void saveSnapshot(Path path) throws IOException {
+        GraphSnapshot.write(compact(), path);
+    }
+
+    /**
+     * Load an airport system from a snapshot file written by {@link #saveSnapshot(Path)}.
+     *
+     * @param path The file to read.
+     * @return The loaded airport system.
+     * @throws IOException If the file can not be read or is not a valid snapshot.
+     */
+    public static AirportSystem loadSnapshot(Path path) throws IOException {
+        return fromCompact(GraphSnapshot.read(path));
+    }
+
+    /**
+     * Create a new vertex and register it in both the id lookup and the index list.
+     *
+     * @param id The id of the new vertex.
+     * @return The newly created vertex.
+     */
+    private Vertex createVertex(String id) {
+        Vertex vertex = new Vertex(id, vertices.size());
+        vertices.add(vertex);
+        connections.put(id, vertex);
+        return vertex;
+    }
+
+    /**
+     * Obtain the number of undirected edges (flights) in the airport system.
+     *
+     * @return Number of edges in the airport system.
+     */
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Get a vertex by its dense int index.
+     *
+     * @param index The index of the vertex, between 0 and {@link #size()}.
+     * @return The vertex with that index.
+     */
+    Vertex getVertex(int index) {
+        return vertices.get(index);
+    }
+
+    /**
+     * The version of the graph, which changes every time an edge is added.
+     *
+     * @return The current version of the graph.
+     */
+    public int version() {
+        return version;
+    }
+
+    /**
+     * Compile the current airport system into a frozen, read-optimized {@link CompactGraph}. Later calls to
+     * {@link #addEdge(String, String, int)} do not affect the returned graph.
+     *
+     * @implNote The compact graph is cached until the graph next changes, so repeated calls are cheap.
+     * @return A compressed sparse row copy of this airport system.
+     */
+    public CompactGraph compact() {
+        if (compact == null || compactVersion != version) {
+            compact = CompactGraph.of(this);
+            compactVersion = version;
+        }
+        return compact;
+    }
+
+    /**
+     * Copy the current graph outside the Java heap. The copy does not see edges added afterwards and must be closed
+     * to release its memory. For networks too large to load as an airport system at all, build an
+     * {@link OffHeapGraph} directly with an {@link OffHeapGraph.Builder}.
+     *
+     * @return An off-heap copy of the current graph.
+     */
+    public OffHeapGraph toOffHeap() {
+        return OffHeapGraph.of(compact());
+    }
+
+    /**
+     * Start caching the results of {@link #shortestDistance} and {@link #minimumSpanningTree}. Once a cache is full,
+     * the least recently used result is dropped to make room. Cached results are dropped whenever an edge is added.
+     *
+     * @param maximumDistances The most distances to keep.
+     * @param maximumSpanningTrees The most spanning trees to keep, which are much larger than distances.
+     */
+    public void enableCache(int maximumDistances, int maximumSpanningTrees) {
+        cache = new QueryCache(maximumDistances, maximumSpanningTrees, version);
+    }
+
+    /**
+     * Stop caching query results and drop everything that has been cached.
+     */
+    public void disableCache() {
+        cache = null;
+    }
+
+    /**
+     * The query result cache.
+     *
+     * @return The cache, or null if caching is not enabled.
+     */
+    public QueryCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Start reporting the latency and work of every {@link #shortestDistance}, {@link #breadthFirstSearch},
+     * {@link #minimumSpanningTree}, {@link #addEdge}, {@link #updateEdge} and {@link #removeEdge} call to a listener,
+     * such as a {@link MetricsRegistry}. While no listener is set these calls are not timed at all.
+     *
+     * @param listener The listener to report to, or null to turn metrics off.
+     */
+    public void setQueryListener(QueryListener listener) {
+        queryListener = listener;
+    }
+
+    /**
+     * The listener that queries are reported to.
+     *
+     * @return The listener, or null if metrics are off.
+     */
+    public QueryListener getQueryListener() {
+        return queryListener;
+    }
+
+    /**
+     * The statistics of the most recent measured call, which were also passed to the query listener.
+     *
+     * @return The statistics, or null if nothing has been measured yet.
+     */
+    public QueryStats lastQueryStats() {
+        return lastQueryStats;
+    }
+
+    /**
+     * Record the work done by the current query.
+     */
+    private void count(int settled, long relaxed, int heapPeak) {
+        lastSettled = settled;
+        lastRelaxed = relaxed;
+        lastHeapPeak = heapPeak;
+    }
+
+    /**
+     * Report the current query to the listener.
+     *
+     * @param start The value of {@link System#nanoTime()} when the query started.
+     * @param allocated The value of {@link QueryStats#allocatedBytes()} when the query started.
+     */
+    private void report(QueryStats.Operation operation, String query, long start, long allocated) {
+        long nanos = System.nanoTime() - start;
+        long allocatedBytes = allocated == -1 ? -1 : QueryStats.threadAllocatedBytes() - allocated;
+        lastQueryStats = new QueryStats(operation, query, nanos, lastSettled, lastRelaxed, lastHeapPeak,
+                allocatedBytes);
+        queryListener.queryCompleted(lastQueryStats);
+    }
+
+    /**
+     * Start keeping the shortest distances from a city to every other city up to date. After each change to the
+     * graph only the part of the tree that the change affects is recomputed, which is usually far less work than a
+     * new search.
+     *
+     * @param source The city to measure distances from.
+     * @return The tree, which stays up to date until it is passed to {@link #untrackShortestPaths}, or null if the
+     * city does not exist.
+     */
+    public DynamicShortestPathTree trackShortestPaths(String source) {
+        Vertex vertex = connections.get(source);
+        if (vertex == null)
+            return null;
+
+        DynamicShortestPathTree tree = new DynamicShortestPathTree(this, vertex.index);
+        trackedTrees.add(tree);
+        return tree;
+    }
+
+    /**
+     * Stop keeping a shortest path tree up to date.
+     *
+     * @param tree A tree returned by {@link #trackShortestPaths(String)}.
+     */
+    public void untrackShortestPaths(DynamicShortestPathTree tree) {
+        trackedTrees.remove(tree);
+    }
+
+    /**
+     * Split the current airport system into shards with {@link GraphPartitioner}, each running on a thread of its own
+     * and holding only its own cities and flights. The shards do not see edges added afterwards.
+     *
+     * @param shardCount The number of shards.
+     * @return The sharded airport system, which must be closed to stop the shards.
+     */
+    public ShardedAirportSystem partition(int shardCount) {
+        return ShardedAirportSystem.of(compact(), shardCount);
+    }
+
+    /**
+     * Preprocess the current airport system into a contraction hierarchy, which answers shortest distance queries
+     * much faster than {@link #shortestDistance(String, String)} but does not see edges added afterwards.
+     *
+     * @return A contraction hierarchy of the current graph.
+     */
+    public ContractionHierarchy contractionHierarchy() {
+        return ContractionHierarchy.build(compact());
+    }
+
     /**
      * Returns the shortest distance between city A and city B.
      *
-     * @implNote Uses Dijkstra’s algorithm.
+     * @implNote Uses Dijkstra's algorithm with an indexed heap over the compact form of the graph, stopping as soon
+     * as city B has been settled. See {@link DijkstraEngine}.
      * @param cityA The starting city.
      * @param cityB The destination city.
-     * @return The shortest distance between the two.
+     * @return The shortest distance between the two, or {@link #UNREACHABLE} if there is no route between them.
      */
     public int shortestDistance(Vertex cityA, Vertex cityB) {
+        return shortestDistance(cityA, cityB, SearchMode.DIJKSTRA);
+    }
+
+    /**
+     * Returns the shortest distance between city A and city B.
+     *
+     * @param cityA The id of the starting city.
+     * @param cityB The id of the destination city.
+     * @return The shortest distance between the two, or {@link #UNREACHABLE} if there is no route between them or
+     * either city does not exist.
+     */
+    public int shortestDistance(String cityA, String cityB) {
+        Vertex vertexA = connections.get(cityA);
+        Vertex vertexB = connections.get(cityB);
+        if (vertexA == null || vertexB == null)
+            return UNREACHABLE;
+        return shortestDistance(vertexA, vertexB);
+    }
+
+    /**
+     * Returns the shortest distance between city A and city B using the chosen search strategy. Every strategy gives
+     * the same result; they differ only in how much of the graph they explore.
+     *
+     * @param cityA The id of the starting city.
+     * @param cityB The id of the destination city.
+     * @param mode The search strategy to use.
+     * @return The shortest distance between the two, or {@link #UNREACHABLE} if there is no route between them or
+     * either city does not exist.
+     */
+    public int shortestDistance(String cityA, String cityB, SearchMode mode) {
+        Vertex vertexA = connections.get(cityA);
+        Vertex vertexB = connections.get(cityB);
+        if (vertexA == null || vertexB == null)
+            return UNREACHABLE;
+        return shortestDistance(vertexA, vertexB, mode);
+    }
+
+    private int shortestDistance(Vertex cityA, Vertex cityB, SearchMode mode) {
+        if (queryListener == null)
+            return computeShortestDistance(cityA, cityB, mode);
+
+        long start = System.nanoTime();
+        long allocated = QueryStats.threadAllocatedBytes();
+        int distance = computeShortestDistance(cityA, cityB, mode);
+        report(QueryStats.Operation.SHORTEST_DISTANCE, cityA.id + " -> " + cityB.id, start, allocated);
+        return distance;
+    }
+
+    private int computeShortestDistance(Vertex cityA, Vertex cityB, SearchMode mode) {
+        count(0, 0, 0);
         if (cityA == cityB)
             return 0;
 
-        // By default, the best distance is infinite, but this will quickly get updated.
-        int shortestDistSoFar = Integer.MAX_VALUE;
+        // Every mode gives the same answer, so they can share cached results
+        if (cache != null) {
+            Integer cached = cache.getDistance(version, cityA.index, cityB.index);
+            if (cached != null)
+                return cached;
+        }
 
-        // We will use a customized priority queue that automatically keeps track of visited nodes
-        Queue<Journey> pending = new PriorityQueue<>() {
-            private final Set<Vertex> visited = new HashSet<>();
+        int distance = searchShortestDistance(cityA, cityB, mode);
+        count(DijkstraEngine.lastSettledCount(), DijkstraEngine.lastRelaxedCount(), DijkstraEngine.lastHeapPeak());
 
-            // Add the root node to the visited list at initiation
-            { visited.add(cityA); }
+        if (cache != null)
+            cache.putDistance(version, cityA.index, cityB.index, distance);
+        return distance;
+    }
 
-            public boolean add(Journey journey) {
-                // When we add a journey make sure that the journey does not already exist in the visited set
-                if (journey == null)
-                    return false;
-                visited.add(journey.parentVertex());
-                return super.add(journey);
+    /**
+     * Search the compact graph if it is up to date. Otherwise the edge lists are searched with plain Dijkstra, since
+     * rebuilding the compact graph costs about as much as relaxing every edge once, which is far more than a query
+     * that only explores part of the graph. Once the searches since the last change have relaxed that many edges
+     * the compact graph is rebuilt after all, so a graph that stops changing ends up being searched in CSR form.
+     */
+    private int searchShortestDistance(Vertex cityA, Vertex cityB, SearchMode mode) {
+        if (compact == null || compactVersion != version) {
+            if (staleSearchVersion != version) {
+                staleSearchVersion = version;
+                staleSearchWork = 0;
             }
-
-            @Override
-            public Journey poll() {
-                // Since we only want unvisited vertexes we keep polling until a vertex that is not in the visited set
-                // has been found.
-                Journey path = super.poll();
-
-                // Keep polling until path with unvisited ending vertex is found.
-                while (true) {
-                    if (path == null) return null;
-                    if (!visited.contains(path.endingVertex)) {
-                        visited.add(path.endingVertex);
-                        return path;
-                    };
-                    path = super.poll();
-                }
+            if (staleSearchWork < vertices.size() + 2L * edgeCount) {
+                int distance = searchEdgeLists(cityA.index, cityB.index);
+                staleSearchWork += DijkstraEngine.lastRelaxedCount();
+                return distance;
             }
-        };
-        Journey newPath;
-        for (Edge edge : cityA.edges) {
-            // We will visit the shortest journey from the origin node to a node that has not yet been visited. The
-            // priority queue is customized to automatically keep track of nods that have already been visited.
-            newPath = new Journey(cityA, edge.destination, edge.distance);
-            pending.add(newPath);
-
-            // Update the shortest distance that we have so far found to the destination node if needed
-            if (newPath.pathDistance() < shortestDistSoFar && edge.destination == cityB)
-                shortestDistSoFar = newPath.pathDistance();
         }
+        return compact().shortestDistance(cityA.index, cityB.index, mode);
+    }
 
-        Journey currentPath;
-        // While there are still paths that we must explore
-        while (!pending.isEmpty()) {
-            // Pop the shortest path with a visitable end node off the heap of pending paths
-            currentPath = pending.poll();
-            if (currentPath == null)
-                break;
-
-            // Add all the edges of that path to the heap
-            for (Edge radiatingEdge: currentPath.endingVertex.edges) {
-                newPath = new Journey(
-                        radiatingEdge.source,
-                        radiatingEdge.destination,
-                        currentPath.pathDistance() + radiatingEdge.distance
-                );
-                pending.add(newPath);
-                if (radiatingEdge.destination == cityB)
-                    shortestDistSoFar = Math.min(shortestDistSoFar, newPath.pathDistance());
+    /**
+     * Dijkstra's algorithm over the vertexes' edge lists by int index, with the same reusable search state as
+     * {@link DijkstraEngine}.
+     */
+    private int searchEdgeLists(int source, int target) {
+        DijkstraEngine.Search search = DijkstraEngine.search(vertices.size());
+        try {
+            search.start(source);
+            while (!search.heap.isEmpty()) {
+                int vertex = search.pollNext();
+                int distance = search.distance(vertex);
+                if (vertex == target)
+                    return distance;
+                List<Edge> edges = vertices.get(vertex).edges;
+                for (int i = 0, n = edges.size(); i < n; i++) {
+                    Edge edge = edges.get(i);
+                    search.reach(edge.destination.index, distance + edge.distance);
+                }
             }
+            return UNREACHABLE;
+        } finally {
+            search.finish();
         }
+    }
 
-        return shortestDistSoFar;
+    /**
+     * Find the shortest itinerary between two cities, with every airport on the way.
+     *
+     * @param cityA The origin.
+     * @param cityB The destination.
+     * @return The shortest itinerary, or null if either city does not exist or there is no route.
+     */
+    public Itinerary shortestItinerary(String cityA, String cityB) {
+        return compact().shortestItinerary(cityA, cityB);
     }
 
-    public int shortestDistance(String cityA, String cityB) {
-        return shortestDistance(connections.get(cityA), connections.get(cityB));
+    /**
+     * Find up to k loopless itineraries between two cities, shortest first, such as for offering alternatives when
+     * booking. Itineraries more than a given multiple of the shortest distance are left out.
+     *
+     * @param cityA The origin.
+     * @param cityB The destination.
+     * @param k The most itineraries to return.
+     * @param maximumDetour The longest itinerary to return as a multiple of the shortest one, such as 1.5, or
+     *                      {@link Double#POSITIVE_INFINITY} for no limit.
+     * @return The itineraries in order of distance, or an empty list if either city does not exist or there is no
+     * route.
+     * @throws IllegalArgumentException If the maximum detour is less than 1.
+     */
+    public List<Itinerary> alternativeItineraries(String cityA, String cityB, int k, double maximumDetour) {
+        return compact().alternativeItineraries(cityA, cityB, k, maximumDetour);
+    }
+
+    /**
+     * Returns the shortest distance from every source to every target. Runs one search per source rather than one per
+     * pair, with the sources spread over the common fork-join pool.
+     *
+     * @param sources The ids of the starting cities.
+     * @param targets The ids of the destination cities.
+     * @return The distances, with a row per source and a column per target, and {@link #UNREACHABLE} where there is
+     * no route or a city does not exist.
+     */
+    public DistanceMatrix distanceMatrix(List<String> sources, List<String> targets) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        return distanceMatrix(sources, targets, pool, pool.getParallelism()).join();
+    }
+
+    /**
+     * Start computing the shortest distance from every source to every target on the given executor. Cancelling the
+     * returned future stops the computation.
+     *
+     * @param sources The ids of the starting cities.
+     * @param targets The ids of the destination cities.
+     * @param executor The executor to run the searches on.
+     * @param parallelism How many searches to run at once, usually the number of threads of the executor.
+     * @return A future of the distances, with a row per source and a column per target, and {@link #UNREACHABLE}
+     * where there is no route or a city does not exist.
+     */
+    public CompletableFuture<DistanceMatrix> distanceMatrix(List<String> sources, List<String> targets,
+                                                            Executor executor, int parallelism) {
+        CompactGraph graph = compact();
+        return new ManyToManyEngine(graph).submit(
+                indexesOf(graph, sources), indexesOf(graph, targets), executor, parallelism
+        );
+    }
+
+    private static int[] indexesOf(CompactGraph graph, List<String> ids) {
+        int[] indexes = new int[ids.size()];
+        int i = 0;
+        for (String id : ids)
+            indexes[i++] = graph.indexOf(id);
+        return indexes;
+    }
+
+    /**
+     * Attach a geographic location to an airport, which lets {@link SearchMode#A_STAR} searches aim towards their
+     * destination.
+     *
+     * @param id The id of the airport.
+     * @param latitude The latitude of the airport in degrees.
+     * @param longitude The longitude of the airport in degrees.
+     * @return False if there is no such airport or the coordinates are out of range, otherwise true.
+     */
+    public boolean setLocation(String id, double latitude, double longitude) {
+        Vertex vertex = connections.get(id);
+        if (vertex == null || !(Math.abs(latitude) <= 90) || !(Math.abs(longitude) <= 180))
+            return false;
+
+        vertex.latitude = latitude;
+        vertex.longitude = longitude;
+        version++;
+        return true;
     }
 
     /**
      * Obtain a minimum spanning tree of the AirportSystem.
      *
-     * @implNote Uses Prime's algorithm.
+     * @implNote Uses Prime's algorithm. If the graph is not connected this is the tree of the root's component only,
+     * see {@link #minimumSpanningForest(SpanningTreeAlgorithm)} for every component.
      * @return Minimum spanning tree of the airport system.
      */
     public List<Edge> minimumSpanningTree(Vertex root) {
+        if (queryListener == null)
+            return cachedMinimumSpanningTree(root);
+
+        long start = System.nanoTime();
+        long allocated = QueryStats.threadAllocatedBytes();
+        List<Edge> spanningTree = cachedMinimumSpanningTree(root);
+        report(QueryStats.Operation.MINIMUM_SPANNING_TREE, root.id, start, allocated);
+        return spanningTree;
+    }
+
+    private List<Edge> cachedMinimumSpanningTree(Vertex root) {
+        count(0, 0, 0);
+        if (cache == null)
+            return computeMinimumSpanningTree(root);
+
+        // The cached tree is copied so that callers can not modify it
+        List<Edge> spanningTree = cache.getSpanningTree(version, root.index);
+        if (spanningTree == null) {
+            spanningTree = computeMinimumSpanningTree(root);
+            cache.putSpanningTree(version, root.index, new ArrayList<>(spanningTree));
+            return spanningTree;
+        }
+        return new ArrayList<>(spanningTree);
+    }
+
+    private List<Edge> computeMinimumSpanningTree(Vertex root) {
         // The output minimal spanning tree
-        List<Edge> spanningTree = new LinkedList<>();
+        List<Edge> spanningTree = new ArrayList<>();
 
         // Maintain a list of visited vertexes we do not double count vertexes
         Set<Vertex> visitedVertexes = new HashSet<>();
@@ -182,27 +823,31 @@ public class AirportSystem {
         Queue<Edge> radiatingEdges = new PriorityQueue<>();
         radiatingEdges.addAll(root.edges);  // Initiate radiatingEdges with the root's edges
         // (the only initial candidates)
+        long queued = radiatingEdges.size();
+        int queuePeak = radiatingEdges.size();
 
-        Edge edgeLastTravelled;
-        // We continue until we have visited all vertexes (but we need not visit all edges)
-        while (visitedVertexes.size() != size()) {
+        // We continue until we run out of edges, which happens once every vertex reachable from the root is visited.
+        // If the graph is not connected that is fewer than all the vertexes.
+        while (!radiatingEdges.isEmpty()) {
             // Get the shortest edge that we are allowed to travel to
-            edgeLastTravelled = radiatingEdges.poll();
+            Edge edgeLastTravelled = radiatingEdges.poll();
 
-            // From this edge that we have just traversed, if we haven't visited the vertex at the end of it yet, we can
-            // now do so.
-            if (!visitedVertexes.contains(edgeLastTravelled.destination))
-                spanningTree.add(edgeLastTravelled);
+            // Edges are queued before their destination is visited, so skip the ones that have been overtaken
+            if (!visitedVertexes.add(edgeLastTravelled.destination))
+                continue;
+            spanningTree.add(edgeLastTravelled);
 
             // Then add all the edges of destination vertex to the pending priority queue
             for (Edge edge : edgeLastTravelled.destination.edges) {
-                if (!visitedVertexes.contains(edge.destination))
+                if (!visitedVertexes.contains(edge.destination)) {
                     radiatingEdges.add(edge);
+                    queued++;
+                }
             }
-            // Add the destination to the visitedVertexes tracker, so we don't visit it twice.
-            visitedVertexes.add(edgeLastTravelled.destination);
+            queuePeak = Math.max(queuePeak, radiatingEdges.size());
         }
 
+        count(visitedVertexes.size(), queued, queuePeak);
         return spanningTree;
     }
 
@@ -214,6 +859,21 @@ public class AirportSystem {
         return minimumSpanningTree(connections.values().iterator().next());
     }
 
+    /**
+     * Obtain a minimum spanning forest of the whole airport system, which is a minimum spanning tree of every group of
+     * connected cities, along with its total length.
+     *
+     * @param algorithm The algorithm to use.
+     * @return Minimum spanning forest of the airport system.
+     */
+    public SpanningForest minimumSpanningForest(SpanningTreeAlgorithm algorithm) {
+        return compact().minimumSpanningForest(algorithm);
+    }
+
+    public SpanningForest minimumSpanningForest() {
+        return compact().minimumSpanningForest();
+    }
+
     /**
      * This is assuming this start vertex exists.
      * Order of the cities in the same level does not matter.
@@ -223,6 +883,17 @@ public class AirportSystem {
      * @return A list of all the cities from the start using BFS.
      */
     public List<String> breadthFirstSearch(String start) {
+        if (queryListener == null)
+            return computeBreadthFirstSearch(start);
+
+        long begin = System.nanoTime();
+        long allocated = QueryStats.threadAllocatedBytes();
+        List<String> visitedIds = computeBreadthFirstSearch(start);
+        report(QueryStats.Operation.BREADTH_FIRST_SEARCH, start, begin, allocated);
+        return visitedIds;
+    }
+
+    private List<String> computeBreadthFirstSearch(String start) {
         // Elements that are currently being searched through
         Queue<Vertex> pending = new LinkedList<>();
         pending.add(getVertex(start));
@@ -233,11 +904,14 @@ public class AirportSystem {
 
         // Elements that have already been visited
         Set<Vertex> visited = new HashSet<>();
+        long checked = 0;
+        int pendingPeak = 1;
 
         while (!pending.isEmpty()) {
             // For each neighboring element to the vertex, add it to the queue to be processed next. Then process this
             // element and move on.
             for (Edge radiatingEdge: pending.poll().edges) {
+                checked++;
                 if (!visited.contains(radiatingEdge.destination)) {
                     pending.add(radiatingEdge.destination);
                     visited.add(radiatingEdge.destination);
@@ -245,15 +919,78 @@ public class AirportSystem {
                     visitedIds.add(radiatingEdge.destination.id);
                 }
             }
+            pendingPeak = Math.max(pendingPeak, pending.size());
         }
 
+        count(visitedIds.size(), checked, pendingPeak);
         return visitedIds;
     }
 
     /**
-     * Uses overridden toString() method to print out the graph.
+     * Find the number of connections from the start to every city reachable with at most a number of connections,
+     * using a direction-optimizing parallel breadth first search over the compact graph.
+     *
+     * @param start The city to begin from.
+     * @param maximumHops The most connections to follow.
+     * @return The hop level of every city within range and the order they were visited in.
+     * @throws IllegalArgumentException If the start city does not exist.
+     */
+    public BreadthFirstResult hopLevels(String start, int maximumHops) {
+        return compact().hopLevels(start, maximumHops);
+    }
+
+    public BreadthFirstResult hopLevels(String start) {
+        return compact().hopLevels(start);
+    }
+
+    /**
+     * Lazily visit the cities reachable from the start in breadth first order, with the number of connections to each.
+     * The stream works on the graph as it was when the stream was created.
+     *
+     * @param start The city to begin from.
+     * @return A sequential stream of the visited cities.
+     * @throws IllegalArgumentException If the start city does not exist.
+     */
+    public Stream<Visit> breadthFirstStream(String start) {
+        return compact().breadthFirstStream(start);
+    }
+
+    /**
+     * Lazily visit the cities reachable from the start, closest first, with the shortest distance to each. Use
+     * {@code limit(50)} for the 50 closest cities, or {@code takeWhile} to stop at a distance. The stream works on the
+     * graph as it was when the stream was created.
+     *
+     * @param start The city to begin from.
+     * @return A sequential stream of the visited cities.
+     * @throws IllegalArgumentException If the start city does not exist.
      */
-    public void printGraph() { System.out.println(this); }
+    public Stream<Visit> closestFirst(String start) {
+        return compact().closestFirst(start);
+    }
+
+    /**
+     * Prints the graph in the format of {@link #toString()}, streaming it to standard output instead of building the
+     * whole string first.
+     */
+    public void printGraph() {
+        try {
+            writeGraph(new OutputStreamWriter(System.out, Charset.defaultCharset()), GraphFormat.ADJACENCY_LIST);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Write the whole graph to a writer in bounded memory. Use a {@link GraphWriter} to write to a channel or to
+     * write only part of the graph.
+     *
+     * @param out Where to write the graph, which is flushed but not closed.
+     * @param format The format to write.
+     * @throws IOException If the writer fails.
+     */
+    public void writeGraph(Writer out, GraphFormat format) throws IOException {
+        new GraphWriter(format).write(this, out);
+    }
 
     /**
      * Get a specific vertex given its string id.
@@ -268,60 +1005,128 @@ public class AirportSystem {
     /**
      * Prints the graph in a readable format, and it is clear which edge belongs to which vertex.
      * Example:
-     *      V: A | E: [A,B][A,D]
-     *      V: B | E: [B,A][B,C]
-     *      V: C | E: [C,B]
-     *      V: D | E: [D,A]
+     *      V: A | E: [A, B][A, D]
+     *      V: B | E: [B, A][B, C]
+     *      V: C | E: [C, B]
+     *      V: D | E: [D, A]
+     * The whole graph is built in memory, so for large graphs use {@link #writeGraph(Writer, GraphFormat)} instead.
      */
     @Override
     public String toString() {
-        StringBuilder output = new StringBuilder();
-
-        // Iterate over all the connections and build the string with the requested format
-        for (Vertex vertex : connections.values()) {
-            // Add the current vertex to the output
-            output.append("V: ")
-                    .append(vertex.id)
-                    .append(" | E: ");
-
-            // Add its edges to the output
-            for (Edge edge: vertex.edges)
-                output.append("[")
-                        .append(edge.source.id)
-                        .append(", ")
-                        .append(edge.destination.id)
-                        .append("]");
-
-            output.append("\n");
+        StringWriter output = new StringWriter();
+        try {
+            writeGraph(output, GraphFormat.ADJACENCY_LIST);
+        } catch (IOException exception) {
+            // A string writer never fails
+            throw new UncheckedIOException(exception);
         }
-
         return output.toString();
     }
 
-    private record Journey(
-            Vertex parentVertex,
-            Vertex endingVertex,
-            int pathDistance
-    ) implements Comparable<Journey> {
-        @Override
-        public int compareTo(Journey o) {
-            return pathDistance() - o.pathDistance();
-        }
-    }
-    
     public static class Vertex {
+        /**
+         * The degree above which a vertex indexes its edges by neighbour. Scanning a handful of edges is as fast as a
+         * lookup and needs no extra memory.
+         */
+        static final int INDEX_THRESHOLD = 8;
+
         private final String id;
-        private final List<Edge> edges = new LinkedList<>();
+        private final int index;
+        private final List<Edge> edges = new ArrayList<>();
+        private final List<Edge> edgesView = Collections.unmodifiableList(edges);
+
+        /**
+         * The edges keyed by the index of their destination, or null while the vertex has few edges.
+         */
+        private NeighbourIndex neighbours;
+
+        /**
+         * The location of the airport in degrees, or NaN if it is not known.
+         */
+        private double latitude = Double.NaN;
+        private double longitude = Double.NaN;
 
-        private Vertex(String id) {
+        private Vertex(String id, int index) {
             this.id = id;
+            this.index = index;
         }
 
         private void addEdge(Edge edge) {
             edges.add(edge);
+            if (neighbours != null) {
+                neighbours.put(edge.destination.index, edges.size() - 1);
+            } else if (edges.size() > INDEX_THRESHOLD) {
+                neighbours = new NeighbourIndex(edges.size() * 2);
+                for (int i = 0; i < edges.size(); i++)
+                    neighbours.put(edges.get(i).destination.index, i);
+            }
         }
 
-        public List<Edge> getEdges() { return edges; }
+        /**
+         * Replace an edge with another to the same destination, keeping its place in the edge list. Constant time once
+         * the vertex indexes its edges.
+         */
+        private void replaceEdge(Edge edge, Edge replacement) {
+            edges.set(positionOf(edge), replacement);
+        }
+
+        /**
+         * Remove an edge, keeping the others in order. Linear in the degree, since the later edges move up a place.
+         */
+        private void removeEdge(Edge edge) {
+            int position = positionOf(edge);
+            edges.remove(position);
+            if (neighbours != null) {
+                neighbours.remove(edge.destination.index);
+                for (int i = position; i < edges.size(); i++)
+                    neighbours.put(edges.get(i).destination.index, i);
+            }
+        }
+
+        private int positionOf(Edge edge) {
+            return neighbours != null ? neighbours.get(edge.destination.index) : edges.indexOf(edge);
+        }
+
+        /**
+         * The edge from this vertex to another, or null if there is none.
+         */
+        private Edge edgeTo(Vertex destination) {
+            if (neighbours != null) {
+                int position = neighbours.get(destination.index);
+                return position == -1 ? null : edges.get(position);
+            }
+            for (Edge edge : edges)
+                if (edge.destination == destination)
+                    return edge;
+            return null;
+        }
+
+        /**
+         * The flights from this vertex, in the order they were added.
+         *
+         * @return An unmodifiable view of the edges.
+         */
+        public List<Edge> getEdges() { return edgesView; }
+
+        public String getId() { return id; }
+
+        /**
+         * The dense int id of this vertex, which is the order it was added to the airport system in.
+         *
+         * @return The index of this vertex.
+         */
+        public int getIndex() { return index; }
+
+        public double getLatitude() { return latitude; }
+
+        public double getLongitude() { return longitude; }
+
+        /**
+         * Whether a location has been attached to this vertex with {@link AirportSystem#setLocation}.
+         *
+         * @return True if the vertex has a latitude and longitude.
+         */
+        public boolean hasLocation() { return !Double.isNaN(latitude); }
 
         @Override
         public String toString() {
@@ -0,0 +1,249 @@
+package org.main;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Direction-optimizing breadth first search over a {@link CompactGraph}, which finds the number of connections from a
+ * start vertex to every other vertex.
+ * <p>
+ * Each level is expanded either top-down, where every vertex in the frontier marks its unvisited neighbours, or
+ * bottom-up, where every unvisited vertex looks for any neighbour in the frontier and stops at the first one. Top-down
+ * is cheaper while the frontier is small. Once the frontier reaches a hub with a huge number of edges, most unvisited
+ * vertexes are next to it, so bottom-up finds them after checking only a few edges each instead of checking every
+ * edge of the frontier.
+ * <p>
+ * Visited vertexes are kept in a bitset. Large levels are split over a fork-join pool, and small levels run on the
+ * calling thread.
+ */
+public final class BreadthFirstEngine {
+    /**
+     * Switch to bottom-up once the frontier has more than 1 / ALPHA of the edges of the unvisited vertexes.
+     */
+    private static final int ALPHA = 14;
+
+    /**
+     * Switch back to top-down once the frontier has fewer than 1 / BETA of all the vertexes.
+     */
+    private static final int BETA = 24;
+
+    /**
+     * The number of frontier vertexes (top-down) or vertexes (bottom-up) below which a level is not split any further.
+     * It is a multiple of 64, so that bottom-up tasks never share a word of the bitsets.
+     */
+    private static final int SEQUENTIAL_VERTICES = 1 << 11;
+
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final CompactGraph graph;
+
+    public BreadthFirstEngine(CompactGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Visit every vertex reachable from the start, splitting large levels over the common fork-join pool.
+     *
+     * @param source The int id of the start vertex.
+     * @return The hop levels and visit order.
+     */
+    public BreadthFirstResult search(int source) {
+        return search(source, Integer.MAX_VALUE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Visit every vertex reachable from the start with at most a number of connections.
+     *
+     * @param source The int id of the start vertex.
+     * @param maximumHops The most connections to follow. Vertexes farther away are left unreached.
+     * @param pool The pool to split large levels over.
+     * @return The hop levels and visit order.
+     */
+    public BreadthFirstResult search(int source, int maximumHops, ForkJoinPool pool) {
+        return new Search(pool).run(source, maximumHops);
+    }
+
+    private static boolean isSet(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * The state of one search.
+     */
+    private final class Search {
+        private final ForkJoinPool pool;
+        private final int vertexCount = graph.size();
+        private final int[] levels = new int[vertexCount];
+        private final long[] visited = new long[(vertexCount + 63) >>> 6];
+
+        /**
+         * The current frontier as a bitset, only filled in for bottom-up levels.
+         */
+        private final long[] frontier = new long[visited.length];
+
+        /**
+         * The visit order. Each level is a contiguous run, so the frontier is always the last run.
+         */
+        private final int[] order = new int[vertexCount];
+        private final AtomicInteger tail = new AtomicInteger();
+
+        /**
+         * The sum of the degrees of the vertexes added by the level being expanded.
+         */
+        private final AtomicLong nextEdges = new AtomicLong();
+
+        private int level = 0;
+
+        Search(ForkJoinPool pool) {
+            this.pool = pool;
+        }
+
+        BreadthFirstResult run(int source, int maximumHops) {
+            Arrays.fill(levels, AirportSystem.UNREACHABLE);
+            levels[source] = 0;
+            visited[source >>> 6] |= 1L << source;
+            order[0] = source;
+            tail.set(1);
+
+            int[] levelStarts = new int[16];
+            int levelCount = 0;
+            int start = 0;
+            int end = 1;
+            long frontierEdges = degree(source);
+            long unvisitedEdges = graph.edgeCount() * 2L - frontierEdges;
+            boolean bottomUp = false;
+
+            while (start < end && level < maximumHops) {
+                if (levelCount == levelStarts.length)
+                    levelStarts = Arrays.copyOf(levelStarts, levelCount * 2);
+                levelStarts[levelCount++] = start;
+
+                if (!bottomUp && frontierEdges > unvisitedEdges / ALPHA)
+                    bottomUp = true;
+                else if (bottomUp && end - start < vertexCount / BETA)
+                    bottomUp = false;
+
+                nextEdges.set(0);
+                if (bottomUp) {
+                    for (int i = start; i < end; i++)
+                        frontier[order[i] >>> 6] |= 1L << order[i];
+                    run(new Step(true, 0, vertexCount), vertexCount);
+                    for (int i = start; i < end; i++)
+                        frontier[order[i] >>> 6] = 0;
+                } else {
+                    run(new Step(false, start, end), end - start);
+                }
+
+                level++;
+                start = end;
+                end = tail.get();
+                frontierEdges = nextEdges.get();
+                unvisitedEdges -= frontierEdges;
+            }
+
+            // The last level that was reached but not expanded still needs its start recorded
+            if (start < end) {
+                if (levelCount == levelStarts.length)
+                    levelStarts = Arrays.copyOf(levelStarts, levelCount + 1);
+                levelStarts[levelCount++] = start;
+            }
+            levelStarts = Arrays.copyOf(levelStarts, levelCount + 1);
+            levelStarts[levelCount] = end;
+            return new BreadthFirstResult(graph, levels, order, end, levelStarts);
+        }
+
+        /**
+         * Run a step on the calling thread if it is too small to split, otherwise on the pool.
+         */
+        private void run(Step step, int size) {
+            if (size <= SEQUENTIAL_VERTICES)
+                step.compute();
+            else
+                pool.invoke(step);
+        }
+
+        private int degree(int vertex) {
+            return graph.endSlot(vertex) - graph.firstSlot(vertex);
+        }
+
+        /**
+         * Expands part of a level. Top-down steps cover a range of the frontier in the visit order, and bottom-up
+         * steps cover a range of int ids.
+         */
+        @SuppressWarnings("serial")
+        private final class Step extends RecursiveAction {
+            private final boolean bottomUp;
+            private final int from;
+            private final int to;
+
+            Step(boolean bottomUp, int from, int to) {
+                this.bottomUp = bottomUp;
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from > SEQUENTIAL_VERTICES) {
+                    // Bottom-up ranges are split on a multiple of 64 so that each task owns whole bitset words
+                    int middle = bottomUp ? from + ((to - from) >>> 7 << 6) : (from + to) >>> 1;
+                    invokeAll(new Step(bottomUp, from, middle), new Step(bottomUp, middle, to));
+                    return;
+                }
+
+                int[] found = new int[Math.min(64, vertexCount)];
+                int count = 0;
+                long edges = 0;
+                int nextLevel = level + 1;
+
+                if (bottomUp) {
+                    for (int vertex = from; vertex < to; vertex++) {
+                        if (isSet(visited, vertex))
+                            continue;
+                        for (int slot = graph.firstSlot(vertex), end = graph.endSlot(vertex); slot < end; slot++) {
+                            if (isSet(frontier, graph.target(slot))) {
+                                // Only this task writes this word, and no task reads other vertexes' visited bits
+                                visited[vertex >>> 6] |= 1L << vertex;
+                                levels[vertex] = nextLevel;
+                                if (count == found.length)
+                                    found = Arrays.copyOf(found, count * 2);
+                                found[count++] = vertex;
+                                edges += degree(vertex);
+                                break;
+                            }
+                        }
+                    }
+                } else {
+                    for (int i = from; i < to; i++) {
+                        int vertex = order[i];
+                        for (int slot = graph.firstSlot(vertex), end = graph.endSlot(vertex); slot < end; slot++) {
+                            int neighbour = graph.target(slot);
+                            long bit = 1L << neighbour;
+                            if ((visited[neighbour >>> 6] & bit) != 0)
+                                continue;
+
+                            // Several tasks can reach the same neighbour, and only the one that sets the bit keeps it
+                            if (((long) WORDS.getAndBitwiseOr(visited, neighbour >>> 6, bit) & bit) != 0)
+                                continue;
+                            levels[neighbour] = nextLevel;
+                            if (count == found.length)
+                                found = Arrays.copyOf(found, count * 2);
+                            found[count++] = neighbour;
+                            edges += degree(neighbour);
+                        }
+                    }
+                }
+
+                if (count > 0) {
+                    System.arraycopy(found, 0, order, tail.getAndAdd(count), count);
+                    nextEdges.addAndGet(edges);
+                }
+            }
+        }
+    }
+}
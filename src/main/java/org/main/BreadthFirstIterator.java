@@ -0,0 +1,71 @@
+package org.main;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Visits the vertexes of a {@link CompactGraph} in breadth first order one at a time, only exploring as much of the
+ * graph as the caller asks for. Each {@link Visit} carries the number of connections from the start.
+ * <p>
+ * The iterator owns its state, so several can be used at once on any threads (though one iterator must not be shared
+ * between threads). The state is a hash map of the visited vertexes and a queue of the frontier, so it grows with the
+ * part of the graph explored rather than with the whole graph.
+ */
+public final class BreadthFirstIterator implements Iterator<Visit> {
+    private final CompactGraph graph;
+
+    /**
+     * The number of connections to each vertex that has been queued.
+     */
+    private final IntIntMap hops = new IntIntMap(64);
+
+    /**
+     * The queued vertexes that have not been returned yet are {@code queue[head]} up to {@code queue[tail]}.
+     */
+    private int[] queue = new int[64];
+    private int head = 0;
+    private int tail = 0;
+
+    BreadthFirstIterator(CompactGraph graph, int source) {
+        this.graph = graph;
+        hops.put(source, 0);
+        queue[tail++] = source;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return head < tail;
+    }
+
+    @Override
+    public Visit next() {
+        if (head == tail)
+            throw new NoSuchElementException();
+
+        int vertex = queue[head++];
+        int distance = hops.get(vertex, 0);
+        for (int slot = graph.firstSlot(vertex), end = graph.endSlot(vertex); slot < end; slot++) {
+            int neighbour = graph.target(slot);
+            if (!hops.containsKey(neighbour)) {
+                hops.put(neighbour, distance + 1);
+                enqueue(neighbour);
+            }
+        }
+        return new Visit(vertex, graph.idOf(vertex), distance);
+    }
+
+    private void enqueue(int vertex) {
+        if (tail == queue.length) {
+            // Reuse the space of vertexes already returned before growing, so the queue only holds the frontier
+            if (head > queue.length / 2) {
+                System.arraycopy(queue, head, queue, 0, tail - head);
+                tail -= head;
+                head = 0;
+            } else {
+                queue = Arrays.copyOf(queue, queue.length * 2);
+            }
+        }
+        queue[tail++] = vertex;
+    }
+}
@@ -0,0 +1,136 @@
+package org.main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The result of a {@link BreadthFirstEngine} search: the number of connections (hops) from the start to every vertex,
+ * and the order the vertexes were visited in. Vertexes are visited level by level, so the vertexes within N hops are
+ * always a prefix of the visit order.
+ */
+public final class BreadthFirstResult {
+    private final CompactGraph graph;
+
+    /**
+     * The number of hops from the start to each vertex, or {@link AirportSystem#UNREACHABLE}.
+     */
+    private final int[] levels;
+
+    /**
+     * The visited vertexes, with the first {@link #reachedCount} entries in use.
+     */
+    private final int[] order;
+    private final int reachedCount;
+
+    /**
+     * Where each level starts in the visit order, followed by {@link #reachedCount}.
+     */
+    private final int[] levelStarts;
+
+    BreadthFirstResult(CompactGraph graph, int[] levels, int[] order, int reachedCount, int[] levelStarts) {
+        this.graph = graph;
+        this.levels = levels;
+        this.order = order;
+        this.reachedCount = reachedCount;
+        this.levelStarts = levelStarts;
+    }
+
+    /**
+     * The number of vertexes visited, including the start.
+     *
+     * @return The number of vertexes reached.
+     */
+    public int reachedCount() {
+        return reachedCount;
+    }
+
+    /**
+     * The number of levels visited. The start is level 0, so this is one more than the hops to the farthest vertex.
+     *
+     * @return The number of levels.
+     */
+    public int levelCount() {
+        return levelStarts.length - 1;
+    }
+
+    /**
+     * The number of connections needed to get from the start to a vertex.
+     *
+     * @param vertex The int id of the vertex.
+     * @return The number of hops, or {@link AirportSystem#UNREACHABLE} if the vertex was not reached.
+     */
+    public int level(int vertex) {
+        return levels[vertex];
+    }
+
+    /**
+     * The number of connections needed to get from the start to a city.
+     *
+     * @param id The id of the city.
+     * @return The number of hops, or {@link AirportSystem#UNREACHABLE} if the city was not reached or does not exist.
+     */
+    public int level(String id) {
+        int vertex = graph.indexOf(id);
+        return vertex == -1 ? AirportSystem.UNREACHABLE : levels[vertex];
+    }
+
+    /**
+     * The int ids of the visited vertexes in the order they were visited.
+     *
+     * @return A new array of the visit order.
+     */
+    public int[] order() {
+        return Arrays.copyOf(order, reachedCount);
+    }
+
+    /**
+     * The ids of the visited cities in the order they were visited.
+     *
+     * @return A new list of the visit order.
+     */
+    public List<String> visitOrder() {
+        return ids(0, reachedCount);
+    }
+
+    /**
+     * The ids of the cities exactly a number of connections from the start.
+     *
+     * @param level The number of hops.
+     * @return A new list of the cities at that level, empty if there are none.
+     */
+    public List<String> atLevel(int level) {
+        if (level < 0 || level >= levelCount())
+            return new ArrayList<>();
+        return ids(levelStarts[level], levelStarts[level + 1]);
+    }
+
+    /**
+     * The ids of the cities reachable with at most a number of connections, including the start.
+     *
+     * @param hops The largest number of hops.
+     * @return A new list of the cities, in visit order.
+     */
+    public List<String> withinHops(int hops) {
+        return ids(0, countWithinHops(hops));
+    }
+
+    /**
+     * The number of cities reachable with at most a number of connections, including the start.
+     *
+     * @param hops The largest number of hops.
+     * @return The number of cities.
+     */
+    public int countWithinHops(int hops) {
+        if (hops < 0)
+            return 0;
+        return levelStarts[Math.min(hops + 1, levelCount())];
+    }
+
+    private List<String> ids(int from, int to) {
+        List<String> ids = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++)
+            ids.add(graph.idOf(order[i]));
+        return ids;
+    }
+}
@@ -0,0 +1,102 @@
+package org.main;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Visits the vertexes of a {@link CompactGraph} one at a time in order of their shortest distance from a start
+ * vertex, which is the order Dijkstra's algorithm settles them in. Each vertex is only settled when it is asked for,
+ * so a caller that wants the 50 closest airports, or every airport within 500 miles, stops the search there.
+ * <p>
+ * Unlike {@link DijkstraEngine}, which reuses per-thread arrays sized for the whole graph, the iterator owns its state
+ * so that it can be paused between calls and several can be used at once. The state is a hash map of the best known
+ * distances and a heap of packed (distance, vertex) longs, so it grows with the part of the graph explored.
+ */
+public final class ClosestFirstIterator implements Iterator<Visit> {
+    private final CompactGraph graph;
+
+    /**
+     * The best known distance to each reached vertex. Settled vertexes are stored as {@code -distance - 1}, which is
+     * always negative since real distances are never negative.
+     */
+    private final IntIntMap distances = new IntIntMap(64);
+
+    /**
+     * A binary min-heap of {@code distance << 32 | vertex}. A vertex is queued again each time a shorter path to it is
+     * found, and the outdated entries are skipped when they reach the top.
+     */
+    private long[] heap = new long[64];
+    private int heapSize = 0;
+
+    ClosestFirstIterator(CompactGraph graph, int source) {
+        this.graph = graph;
+        distances.put(source, 0);
+        push(source, 0);
+    }
+
+    @Override
+    public boolean hasNext() {
+        // Drop the outdated entries so that the top of the heap is always a vertex that can be returned
+        while (heapSize > 0 && distances.get((int) heap[0], 0) < 0)
+            pop();
+        return heapSize > 0;
+    }
+
+    @Override
+    public Visit next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        long entry = pop();
+        int vertex = (int) entry;
+        int distance = (int) (entry >>> 32);
+        distances.put(vertex, -distance - 1);
+
+        for (int slot = graph.firstSlot(vertex), end = graph.endSlot(vertex); slot < end; slot++) {
+            int neighbour = graph.target(slot);
+            int newDistance = distance + graph.weight(slot);
+            int known = distances.get(neighbour, Integer.MAX_VALUE);
+            if (known >= 0 && newDistance < known) {
+                distances.put(neighbour, newDistance);
+                push(neighbour, newDistance);
+            }
+        }
+        return new Visit(vertex, graph.idOf(vertex), distance);
+    }
+
+    private void push(int vertex, int distance) {
+        if (heapSize == heap.length)
+            heap = Arrays.copyOf(heap, heapSize * 2);
+
+        long entry = (long) distance << 32 | vertex;
+        int position = heapSize++;
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (heap[parent] <= entry)
+                break;
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = entry;
+    }
+
+    private long pop() {
+        long top = heap[0];
+        long last = heap[--heapSize];
+        int position = 0;
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= heapSize)
+                break;
+            if (child + 1 < heapSize && heap[child + 1] < heap[child])
+                child++;
+            if (last <= heap[child])
+                break;
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = last;
+        return top;
+    }
+}
@@ -0,0 +1,712 @@
+package org.main;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A frozen, read-optimized copy of an {@link AirportSystem} stored in compressed sparse row (CSR) form.
+ * <p>
+ * Every vertex is identified by a dense int id, which is the same as {@link AirportSystem.Vertex#getIndex()}. The
+ * neighbours of vertex {@code v} are stored in {@code targets[offsets[v]]} up to (but not including)
+ * {@code targets[offsets[v + 1]]}, and the length of each of those flights is stored at the same position in
+ * {@code weights}. Each undirected flight is stored once per direction, so there are two slots per edge.
+ */
+public final class CompactGraph {
+    static final double EARTH_RADIUS_MILES = 3958.8;
+
+    /**
+     * The string id of each vertex, indexed by int id.
+     */
+    private final String[] ids;
+
+    /**
+     * The int id of each vertex, keyed by string id.
+     */
+    private final Map<String, Integer> indexes;
+
+    /**
+     * The first slot of each vertex in {@link #targets} and {@link #weights}. Has one extra trailing entry so that the
+     * end of the last vertex's slots can be looked up the same way as all the others.
+     */
+    private final int[] offsets;
+
+    /**
+     * The int id of the vertex at the other end of each slot.
+     */
+    private final int[] targets;
+
+    /**
+     * The distance of the flight in each slot.
+     */
+    private final int[] weights;
+
+    /**
+     * The latitude and longitude of each vertex in degrees in two consecutive entries, exactly as they were given, or
+     * null if not every vertex has a location.
+     */
+    private final double[] coordinates;
+
+    /**
+     * The location of each vertex as a unit vector (x, y, z) in three consecutive entries, derived from the
+     * coordinates, or null if not every vertex has a location.
+     */
+    private final double[] locations;
+
+    /**
+     * The largest factor such that every edge is at least this many times as long as the great-circle distance in
+     * miles between its ends. Multiplying a great-circle distance by this gives a lower bound on the flight distance.
+     */
+    private final double heuristicScale;
+
+    private final DijkstraEngine dijkstra = new DijkstraEngine(this);
+
+    private final PointToPointEngine pointToPoint = new PointToPointEngine(this);
+
+    private final BreadthFirstEngine breadthFirst = new BreadthFirstEngine(this);
+
+    private final ItineraryEngine itineraries = new ItineraryEngine(this);
+
+    CompactGraph(String[] ids, int[] offsets, int[] targets, int[] weights) {
+        this(ids, offsets, targets, weights, null);
+    }
+
+    CompactGraph(String[] ids, int[] offsets, int[] targets, int[] weights, double[] coordinates) {
+        this.ids = ids;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.coordinates = coordinates;
+        this.locations = coordinates == null ? null : toUnitVectors(coordinates);
+        this.heuristicScale = locations == null ? 0 : computeHeuristicScale();
+
+        this.indexes = new HashMap<>(ids.length * 4 / 3 + 1);
+        for (int i = 0; i < ids.length; i++)
+            indexes.put(ids[i], i);
+    }
+
+    /**
+     * Compile an airport system into CSR form. Neighbours are stored in the same order as the edge lists of the
+     * airport system so that traversals visit vertexes in the same order.
+     *
+     * @param system The airport system to compile.
+     * @return The compiled graph.
+     */
+    public static CompactGraph of(AirportSystem system) {
+        int vertexCount = system.size();
+        String[] ids = new String[vertexCount];
+        int[] offsets = new int[vertexCount + 1];
+        int[] targets = new int[system.edgeCount() * 2];
+        int[] weights = new int[targets.length];
+
+        // Locations are only useful as a heuristic if every vertex has one, see hasLocations()
+        double[] coordinates = new double[vertexCount * 2];
+
+        int slot = 0;
+        for (int v = 0; v < vertexCount; v++) {
+            AirportSystem.Vertex vertex = system.getVertex(v);
+            ids[v] = vertex.getId();
+            offsets[v] = slot;
+            if (coordinates != null && vertex.hasLocation()) {
+                coordinates[v * 2] = vertex.getLatitude();
+                coordinates[v * 2 + 1] = vertex.getLongitude();
+            } else {
+                coordinates = null;
+            }
+
+            for (AirportSystem.Edge edge : vertex.getEdges()) {
+                targets[slot] = edge.getDestination().getIndex();
+                weights[slot] = edge.getDistance();
+                slot++;
+            }
+        }
+        offsets[vertexCount] = slot;
+
+        return new CompactGraph(ids, offsets, targets, weights, coordinates);
+    }
+
+    /**
+     * Build a graph straight from a list of undirected edges, without an airport system. The edges must already follow
+     * the rules of {@link AirportSystem#addEdge(String, String, int)}. Neighbours are stored in the order their edges
+     * appear, just like an airport system that had the same edges added in that order.
+     *
+     * @param ids The string id of each vertex, indexed by int id.
+     * @param sources The int id of the first vertex of each edge.
+     * @param destinations The int id of the second vertex of each edge.
+     * @param weights The distance of each edge.
+     * @param edgeCount The number of edges to use from the arrays.
+     * @return The graph.
+     */
+    static CompactGraph fromEdges(String[] ids, int[] sources, int[] destinations, int[] weights, int edgeCount) {
+        int[] offsets = new int[ids.length + 1];
+        for (int i = 0; i < edgeCount; i++) {
+            offsets[sources[i] + 1]++;
+            offsets[destinations[i] + 1]++;
+        }
+        for (int v = 0; v < ids.length; v++)
+            offsets[v + 1] += offsets[v];
+
+        // Fill each vertex's slots in edge order, using a moving cursor per vertex
+        int[] cursors = Arrays.copyOf(offsets, ids.length);
+        int[] targets = new int[edgeCount * 2];
+        int[] slotWeights = new int[edgeCount * 2];
+        for (int i = 0; i < edgeCount; i++) {
+            int slot = cursors[sources[i]]++;
+            targets[slot] = destinations[i];
+            slotWeights[slot] = weights[i];
+            slot = cursors[destinations[i]]++;
+            targets[slot] = sources[i];
+            slotWeights[slot] = weights[i];
+        }
+
+        return new CompactGraph(ids, offsets, targets, slotWeights);
+    }
+
+    private static double[] toUnitVectors(double[] coordinates) {
+        double[] locations = new double[coordinates.length / 2 * 3];
+        for (int v = 0; v < coordinates.length / 2; v++)
+            toUnitVector(coordinates[v * 2], coordinates[v * 2 + 1], locations, v);
+        return locations;
+    }
+
+    /**
+     * Store the point on the unit sphere for a latitude and longitude in degrees.
+     */
+    static void toUnitVector(double latitude, double longitude, double[] locations, int vertex) {
+        double phi = Math.toRadians(latitude);
+        double lambda = Math.toRadians(longitude);
+        locations[vertex * 3] = Math.cos(phi) * Math.cos(lambda);
+        locations[vertex * 3 + 1] = Math.cos(phi) * Math.sin(lambda);
+        locations[vertex * 3 + 2] = Math.sin(phi);
+    }
+
+    /**
+     * Obtain the number of vertexes in the graph.
+     *
+     * @return Number of vertexes in the graph.
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Obtain the number of undirected edges in the graph.
+     *
+     * @return Number of edges in the graph.
+     */
+    public int edgeCount() {
+        return targets.length / 2;
+    }
+
+    /**
+     * Get the int id of a vertex.
+     *
+     * @param id The string id of the vertex.
+     * @return The int id of the vertex, or -1 if there is no such vertex.
+     */
+    public int indexOf(String id) {
+        Integer index = indexes.get(id);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Get the string id of a vertex.
+     *
+     * @param index The int id of the vertex.
+     * @return The string id of the vertex.
+     */
+    public String idOf(int index) {
+        return ids[index];
+    }
+
+    /**
+     * The string ids of every vertex, ordered by int id.
+     *
+     * @return An unmodifiable view of the vertex ids.
+     */
+    public List<String> getConnections() {
+        return Collections.unmodifiableList(Arrays.asList(ids));
+    }
+
+    /**
+     * The first slot of a vertex's neighbours.
+     */
+    int firstSlot(int vertex) {
+        return offsets[vertex];
+    }
+
+    /**
+     * One past the last slot of a vertex's neighbours.
+     */
+    int endSlot(int vertex) {
+        return offsets[vertex + 1];
+    }
+
+    /**
+     * The vertex at the other end of a slot.
+     */
+    int target(int slot) {
+        return targets[slot];
+    }
+
+    /**
+     * The distance of the flight in a slot.
+     */
+    int weight(int slot) {
+        return weights[slot];
+    }
+
+    /**
+     * The raw arrays behind the graph, for serialisation. They must not be modified.
+     */
+    int[] offsets() {
+        return offsets;
+    }
+
+    int[] targets() {
+        return targets;
+    }
+
+    int[] weights() {
+        return weights;
+    }
+
+    /**
+     * The latitude and longitude of each vertex in degrees, or null if not every vertex has a location.
+     */
+    double[] coordinates() {
+        return coordinates;
+    }
+
+    /**
+     * The location of a vertex in degrees. Only valid if {@link #hasLocations()}.
+     *
+     * @param vertex The int id of the vertex.
+     * @return The latitude and longitude of the vertex.
+     */
+    double[] latitudeLongitude(int vertex) {
+        return new double[] {coordinates[vertex * 2], coordinates[vertex * 2 + 1]};
+    }
+
+    /**
+     * Whether every vertex in the graph has a location, which is required for A* searches to use the great-circle
+     * heuristic.
+     *
+     * @return True if every vertex has a location.
+     */
+    public boolean hasLocations() {
+        return locations != null;
+    }
+
+    /**
+     * The great-circle distance in miles between two vertexes. Only valid if {@link #hasLocations()}.
+     *
+     * @param a The int id of the first vertex.
+     * @param b The int id of the second vertex.
+     * @return The great-circle distance in miles.
+     */
+    public double greatCircleMiles(int a, int b) {
+        double dx = locations[a * 3] - locations[b * 3];
+        double dy = locations[a * 3 + 1] - locations[b * 3 + 1];
+        double dz = locations[a * 3 + 2] - locations[b * 3 + 2];
+
+        // The straight line between two points on the unit sphere is a chord, which gives the angle between them
+        double chord = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        return EARTH_RADIUS_MILES * 2 * Math.asin(Math.min(1, chord / 2));
+    }
+
+    /**
+     * A lower bound on the shortest distance between two vertexes based on their locations, or 0 if the graph does
+     * not have locations. Never overestimates, even if flight distances are not in miles, because it is scaled by
+     * the smallest ratio of flight distance to great-circle distance over all edges.
+     *
+     * @param a The int id of the first vertex.
+     * @param b The int id of the second vertex.
+     * @return A lower bound on the distance between the two.
+     */
+    int lowerBound(int a, int b) {
+        if (heuristicScale == 0)
+            return 0;
+        return (int) (greatCircleMiles(a, b) * heuristicScale);
+    }
+
+    private double computeHeuristicScale() {
+        double scale = Double.POSITIVE_INFINITY;
+        for (int v = 0; v < size(); v++) {
+            for (int slot = offsets[v]; slot < offsets[v + 1]; slot++) {
+                double miles = greatCircleMiles(v, targets[slot]);
+                if (miles > 0)
+                    scale = Math.min(scale, weights[slot] / miles);
+            }
+        }
+        // A little slack so that rounding in the great-circle distance can never make the bound too large
+        return scale == Double.POSITIVE_INFINITY ? 0 : scale * (1 - 1e-9);
+    }
+
+    /**
+     * Estimate the number of bytes used by this graph. This counts the primitive adjacency arrays exactly and the id
+     * dictionary approximately (object headers, the strings and the hash map entries).
+     *
+     * @return The approximate number of bytes used by this graph.
+     */
+    public long estimatedBytes() {
+        long arrays = 4L * (offsets.length + targets.length + weights.length) + 3 * 16;
+        long dictionary = 16 + 4L * ids.length;
+        for (String id : ids)
+            // String object, its backing array and a boxed Integer plus a hash map entry for the reverse lookup
+            dictionary += 24 + 16 + id.length() + 16 + 32 + 4;
+        return arrays + dictionary;
+    }
+
+    /**
+     * The adjacency storage cost of one undirected edge, excluding the id dictionary.
+     *
+     * @return Average bytes per edge of the offsets, targets and weights arrays.
+     */
+    public double bytesPerEdge() {
+        if (edgeCount() == 0)
+            return 0;
+        return 4.0 * (offsets.length + targets.length + weights.length) / edgeCount();
+    }
+
+    /**
+     * Returns the shortest distance between city A and city B.
+     *
+     * @implNote Uses Dijkstra's algorithm, see {@link DijkstraEngine}.
+     * @param cityA The starting city.
+     * @param cityB The destination city.
+     * @return The shortest distance between the two, or {@link AirportSystem#UNREACHABLE} if there is no route or
+     * either city does not exist.
+     */
+    public int shortestDistance(String cityA, String cityB) {
+        int source = indexOf(cityA);
+        int target = indexOf(cityB);
+        if (source == -1 || target == -1)
+            return AirportSystem.UNREACHABLE;
+        return dijkstra.distance(source, target);
+    }
+
+    /**
+     * Returns the shortest distance between city A and city B using the chosen search strategy.
+     *
+     * @param cityA The starting city.
+     * @param cityB The destination city.
+     * @param mode The search strategy to use.
+     * @return The shortest distance between the two, or {@link AirportSystem#UNREACHABLE} if there is no route or
+     * either city does not exist.
+     */
+    public int shortestDistance(String cityA, String cityB, SearchMode mode) {
+        int source = indexOf(cityA);
+        int target = indexOf(cityB);
+        if (source == -1 || target == -1)
+            return AirportSystem.UNREACHABLE;
+        return shortestDistance(source, target, mode);
+    }
+
+    /**
+     * Returns the shortest distance between two vertexes using the chosen search strategy.
+     *
+     * @param source The int id of the starting vertex.
+     * @param target The int id of the destination vertex.
+     * @param mode The search strategy to use.
+     * @return The shortest distance between the two, or {@link AirportSystem#UNREACHABLE} if there is no route.
+     */
+    public int shortestDistance(int source, int target, SearchMode mode) {
+        return switch (mode) {
+            case DIJKSTRA -> dijkstra.distance(source, target);
+            case BIDIRECTIONAL -> pointToPoint.bidirectional(source, target);
+            case A_STAR -> pointToPoint.aStar(source, target);
+        };
+    }
+
+    /**
+     * Find the shortest itinerary between two cities.
+     *
+     * @param cityA The origin.
+     * @param cityB The destination.
+     * @return The shortest itinerary, or null if either city does not exist or there is no route.
+     */
+    public Itinerary shortestItinerary(String cityA, String cityB) {
+        int source = indexOf(cityA);
+        int target = indexOf(cityB);
+        if (source == -1 || target == -1)
+            return null;
+        return itineraries.shortest(source, target);
+    }
+
+    /**
+     * Find up to k loopless itineraries between two cities, shortest first, leaving out any that are more than a
+     * given multiple of the shortest distance.
+     *
+     * @param cityA The origin.
+     * @param cityB The destination.
+     * @param k The most itineraries to return.
+     * @param maximumDetour The longest itinerary to return as a multiple of the shortest one, such as 1.5, or
+     *                      {@link Double#POSITIVE_INFINITY} for no limit.
+     * @return The itineraries in order of distance, or an empty list if either city does not exist or there is no
+     * route.
+     * @throws IllegalArgumentException If the maximum detour is less than 1.
+     */
+    public List<Itinerary> alternativeItineraries(String cityA, String cityB, int k, double maximumDetour) {
+        int source = indexOf(cityA);
+        int target = indexOf(cityB);
+        if (source == -1 || target == -1)
+            return new ArrayList<>();
+        return itineraries.kShortest(source, target, k, maximumDetour);
+    }
+
+    /**
+     * The engine for itinerary queries on this graph.
+     *
+     * @return The itinerary engine for this graph.
+     */
+    public ItineraryEngine itineraries() {
+        return itineraries;
+    }
+
+    /**
+     * The Dijkstra engine that answers {@link #shortestDistance(String, String)} for this graph.
+     *
+     * @return The Dijkstra engine for this graph.
+     */
+    public DijkstraEngine dijkstra() {
+        return dijkstra;
+    }
+
+    /**
+     * The engine for bidirectional and A* searches between two vertexes of this graph.
+     *
+     * @return The point to point engine for this graph.
+     */
+    public PointToPointEngine pointToPoint() {
+        return pointToPoint;
+    }
+
+    /**
+     * The engine for direction-optimizing breadth first searches of this graph.
+     *
+     * @return The breadth first engine for this graph.
+     */
+    public BreadthFirstEngine breadthFirst() {
+        return breadthFirst;
+    }
+
+    /**
+     * Find the number of connections from the start to every city reachable from it.
+     *
+     * @param start The city to begin from.
+     * @return The hop level of every city and the order they were visited in.
+     * @throws IllegalArgumentException If the start city does not exist.
+     */
+    public BreadthFirstResult hopLevels(String start) {
+        return hopLevels(start, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Find the number of connections from the start to every city at most a number of connections away.
+     *
+     * @param start The city to begin from.
+     * @param maximumHops The most connections to follow.
+     * @return The hop level of every city within range and the order they were visited in.
+     * @throws IllegalArgumentException If the start city does not exist.
+     */
+    public BreadthFirstResult hopLevels(String start, int maximumHops) {
+        return breadthFirst.search(sourceOf(start), maximumHops, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Lazily visit the vertexes reachable from a start vertex in breadth first order.
+     *
+     * @param source The int id of the start vertex.
+     * @return An iterator that explores the graph as it is advanced.
+     */
+    public BreadthFirstIterator breadthFirstIterator(int source) {
+        return new BreadthFirstIterator(this, source);
+    }
+
+    /**
+     * Lazily visit the vertexes reachable from a start vertex in order of their shortest distance from it.
+     *
+     * @param source The int id of the start vertex.
+     * @return An iterator that explores the graph as it is advanced.
+     */
+    public ClosestFirstIterator closestFirstIterator(int source) {
+        return new ClosestFirstIterator(this, source);
+    }
+
+    /**
+     * Lazily visit the cities reachable from the start in breadth first order, with the number of connections to each.
+     * Only as much of the graph is explored as the stream consumes, so {@code limit} stops the search early.
+     *
+     * @param start The city to begin from.
+     * @return A sequential stream of the visited cities.
+     * @throws IllegalArgumentException If the start city does not exist.
+     */
+    public Stream<Visit> breadthFirstStream(String start) {
+        return stream(breadthFirstIterator(sourceOf(start)));
+    }
+
+    /**
+     * Lazily visit the cities reachable from the start, closest first, with the shortest distance to each. Only as
+     * much of the graph is explored as the stream consumes, so for example
+     * {@code closestFirst("ORD").takeWhile(visit -> visit.distance() <= 500)} stops the search at 500 miles.
+     *
+     * @param start The city to begin from.
+     * @return A sequential stream of the visited cities.
+     * @throws IllegalArgumentException If the start city does not exist.
+     */
+    public Stream<Visit> closestFirst(String start) {
+        return stream(closestFirstIterator(sourceOf(start)));
+    }
+
+    private static Stream<Visit> stream(Iterator<Visit> iterator) {
+        int characteristics = Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL;
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, characteristics), false);
+    }
+
+    private int sourceOf(String start) {
+        int source = indexOf(start);
+        if (source == -1)
+            throw new IllegalArgumentException("No such city: " + start);
+        return source;
+    }
+
+    /**
+     * Visit every vertex reachable from the start vertex in breadth first order.
+     *
+     * @param start The root vertex to begin from.
+     * @return A list of all the cities from the start using BFS.
+     */
+    public List<String> breadthFirstSearch(String start) {
+        int root = sourceOf(start);
+
+        // The queue is just an array, since every vertex is enqueued at most once
+        int[] queue = new int[size()];
+        boolean[] visited = new boolean[size()];
+        int head = 0;
+        int tail = 0;
+
+        queue[tail++] = root;
+        visited[root] = true;
+        while (head < tail) {
+            int vertex = queue[head++];
+            for (int slot = offsets[vertex]; slot < offsets[vertex + 1]; slot++) {
+                int neighbour = targets[slot];
+                if (!visited[neighbour]) {
+                    visited[neighbour] = true;
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+
+        List<String> visitedIds = new ArrayList<>(tail);
+        for (int i = 0; i < tail; i++)
+            visitedIds.add(ids[queue[i]]);
+        return visitedIds;
+    }
+
+    /**
+     * Obtain a minimum spanning tree of the component containing the root.
+     *
+     * @implNote Uses Prim's algorithm with an {@link IndexedHeap} of the cheapest known edge to each vertex, so every
+     * vertex is queued at most once and nothing is boxed.
+     * @param root The vertex to grow the tree from.
+     * @return Minimum spanning tree of the component containing the root.
+     */
+    public List<Edge> minimumSpanningTree(String root) {
+        int rootIndex = sourceOf(root);
+        List<Edge> spanningTree = new ArrayList<>();
+        boolean[] inTree = new boolean[size()];
+        int[] parents = new int[size()];
+        IndexedHeap heap = new IndexedHeap();
+        heap.ensureCapacity(size());
+        heap.insertOrDecrease(rootIndex, 0);
+        parents[rootIndex] = -1;
+
+        while (!heap.isEmpty()) {
+            int weight = heap.peekKey();
+            int vertex = heap.poll();
+            inTree[vertex] = true;
+            if (parents[vertex] != -1)
+                spanningTree.add(new Edge(ids[parents[vertex]], ids[vertex], weight));
+
+            for (int slot = offsets[vertex]; slot < offsets[vertex + 1]; slot++) {
+                int neighbour = targets[slot];
+                if (inTree[neighbour] || (heap.contains(neighbour) && heap.key(neighbour) <= weights[slot]))
+                    continue;
+                heap.insertOrDecrease(neighbour, weights[slot]);
+                parents[neighbour] = vertex;
+            }
+        }
+
+        return spanningTree;
+    }
+
+    public List<Edge> minimumSpanningTree() {
+        return size() == 0 ? new ArrayList<>() : minimumSpanningTree(ids[0]);
+    }
+
+    /**
+     * Obtain a minimum spanning forest of the whole graph, which is a minimum spanning tree of every connected
+     * component, using Kruskal's algorithm.
+     *
+     * @return Minimum spanning forest of the graph.
+     */
+    public SpanningForest minimumSpanningForest() {
+        return minimumSpanningForest(SpanningTreeAlgorithm.KRUSKAL);
+    }
+
+    /**
+     * Obtain a minimum spanning forest of the whole graph, which is a minimum spanning tree of every connected
+     * component.
+     *
+     * @param algorithm The algorithm to use.
+     * @return Minimum spanning forest of the graph.
+     */
+    public SpanningForest minimumSpanningForest(SpanningTreeAlgorithm algorithm) {
+        SpanningTreeEngine engine = new SpanningTreeEngine(this);
+        return switch (algorithm) {
+            case PRIM -> engine.prim();
+            case KRUSKAL -> engine.kruskal();
+            case BORUVKA -> engine.boruvka();
+        };
+    }
+
+    /**
+     * Two compact graphs are equal if they have the same vertexes with the same ids, the same neighbours in the same
+     * order with the same distances, and the same locations.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof CompactGraph other))
+            return false;
+        return Arrays.equals(ids, other.ids)
+                && Arrays.equals(offsets, other.offsets)
+                && Arrays.equals(targets, other.targets)
+                && Arrays.equals(weights, other.weights)
+                && Arrays.equals(coordinates, other.coordinates);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(ids) + Arrays.hashCode(targets);
+    }
+
+    /**
+     * An edge of a {@link CompactGraph}. Unlike {@link AirportSystem.Edge} this refers to its endpoints by string id,
+     * since a compact graph has no vertex objects.
+     *
+     * @param source The starting city of the edge.
+     * @param destination The end city of the edge.
+     * @param distance The distance between start and destination.
+     */
+    public record Edge(String source, String destination, int distance) {
+        @Override
+        public String toString() {
+            return "[" + source + ", " + destination + "]";
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package org.main;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * An airport system that can be read and written by many threads at once.
+ * <p>
+ * Readers never block: every query runs against the most recently published {@link CompactGraph}, which is immutable,
+ * so a query always sees a whole version of the graph and never a half-applied write. Writers are applied to a private
+ * {@link AirportSystem} and then a new compact graph is published (copy-on-write). When several threads write at once,
+ * whichever holds the write lock applies every queued write and publishes them all together, so concurrent writers
+ * share the cost of publishing. {@link #addEdges(List)} does the same for a batch from a single thread.
+ * <p>
+ * Every write method returns only once its change is visible to readers.
+ */
+public class ConcurrentAirportSystem {
+    /**
+     * The graph that writes are applied to. Only accessed while holding {@link #writeLock}.
+     */
+    private final AirportSystem master = new AirportSystem();
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /**
+     * Writes waiting for a thread holding the write lock to apply them.
+     */
+    private final ConcurrentLinkedQueue<PendingWrite> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The version of the graph that readers currently see.
+     */
+    private volatile Snapshot published = new Snapshot(master.compact(), master.version());
+
+    /**
+     * Adds a new edge, following the same rules as {@link AirportSystem#addEdge(String, String, int)}.
+     *
+     * @param source The source fo the edge.
+     * @param destination The destination of the edge.
+     * @param weight The length of the edge.
+     * @return Return false if the edge already exists or the weight is negative, or true if edge was successfully
+     * added.
+     */
+    public boolean addEdge(String source, String destination, int weight) {
+        if (weight < 0 || source.equals(destination))
+            return false;
+        return write(system -> system.addEdge(source, destination, weight));
+    }
+
+    /**
+     * Changes the length of an existing edge, see {@link AirportSystem#updateEdge(String, String, int)}.
+     *
+     * @param source One end of the edge.
+     * @param destination The other end of the edge.
+     * @param weight The new length of the edge.
+     * @return False if there is no such edge or the weight is negative, otherwise true.
+     */
+    public boolean updateEdge(String source, String destination, int weight) {
+        if (weight < 0)
+            return false;
+        return write(system -> system.updateEdge(source, destination, weight));
+    }
+
+    /**
+     * Removes an edge, see {@link AirportSystem#removeEdge(String, String)}.
+     *
+     * @param source One end of the edge.
+     * @param destination The other end of the edge.
+     * @return False if there is no such edge, otherwise true.
+     */
+    public boolean removeEdge(String source, String destination) {
+        return write(system -> system.removeEdge(source, destination));
+    }
+
+    /**
+     * Adds several edges and publishes them together, which is much cheaper than adding them one at a time.
+     *
+     * @param routes The edges to add.
+     * @return The number of edges that were added, leaving out ones that were rejected.
+     */
+    public int addEdges(List<Route> routes) {
+        int[] added = new int[1];
+        write(system -> {
+            for (Route route : routes)
+                if (system.addEdge(route.source(), route.destination(), route.distance()))
+                    added[0]++;
+            return added[0] > 0;
+        });
+        return added[0];
+    }
+
+    /**
+     * Attach a geographic location to an airport, see {@link AirportSystem#setLocation(String, double, double)}.
+     *
+     * @param id The id of the airport.
+     * @param latitude The latitude of the airport in degrees.
+     * @param longitude The longitude of the airport in degrees.
+     * @return False if there is no such airport or the coordinates are out of range, otherwise true.
+     */
+    public boolean setLocation(String id, double latitude, double longitude) {
+        return write(system -> system.setLocation(id, latitude, longitude));
+    }
+
+    /**
+     * The version of the graph that readers currently see. Every query made on it gives consistent results, even if
+     * the graph is written to in the meantime.
+     *
+     * @return The currently published graph.
+     */
+    public CompactGraph snapshot() {
+        return published.graph();
+    }
+
+    /**
+     * The version number of the published graph, which increases with every change.
+     *
+     * @return The published version.
+     */
+    public int version() {
+        return published.version();
+    }
+
+    /**
+     * The ids of every airport.
+     *
+     * @return The ids of every airport in the published graph.
+     */
+    public List<String> getConnections() {
+        return snapshot().getConnections();
+    }
+
+    public int size() {
+        return snapshot().size();
+    }
+
+    public int edgeCount() {
+        return snapshot().edgeCount();
+    }
+
+    /**
+     * Returns the shortest distance between city A and city B.
+     *
+     * @param cityA The id of the starting city.
+     * @param cityB The id of the destination city.
+     * @return The shortest distance between the two, or {@link AirportSystem#UNREACHABLE} if there is no route
+     * between them or either city does not exist.
+     */
+    public int shortestDistance(String cityA, String cityB) {
+        return snapshot().shortestDistance(cityA, cityB);
+    }
+
+    /**
+     * Find the shortest itinerary between two cities on the latest snapshot.
+     *
+     * @param cityA The origin.
+     * @param cityB The destination.
+     * @return The shortest itinerary, or null if either city does not exist or there is no route.
+     */
+    public Itinerary shortestItinerary(String cityA, String cityB) {
+        return snapshot().shortestItinerary(cityA, cityB);
+    }
+
+    /**
+     * Find up to k loopless itineraries between two cities on the latest snapshot, shortest first.
+     *
+     * @param cityA The origin.
+     * @param cityB The destination.
+     * @param k The most itineraries to return.
+     * @param maximumDetour The longest itinerary to return as a multiple of the shortest one.
+     * @return The itineraries in order of distance, or an empty list if there is no route.
+     * @throws IllegalArgumentException If the maximum detour is less than 1.
+     */
+    public List<Itinerary> alternativeItineraries(String cityA, String cityB, int k, double maximumDetour) {
+        return snapshot().alternativeItineraries(cityA, cityB, k, maximumDetour);
+    }
+
+    public int shortestDistance(String cityA, String cityB, SearchMode mode) {
+        return snapshot().shortestDistance(cityA, cityB, mode);
+    }
+
+    /**
+     * The starting vertex must exist.
+     *
+     * @param start The root vertex to begin from.
+     * @return A list of all the cities from the start using BFS.
+     */
+    public List<String> breadthFirstSearch(String start) {
+        return snapshot().breadthFirstSearch(start);
+    }
+
+    /**
+     * Find the number of connections from the start to every city reachable with at most a number of connections.
+     *
+     * @param start The city to begin from.
+     * @param maximumHops The most connections to follow.
+     * @return The hop level of every city within range and the order they were visited in.
+     * @throws IllegalArgumentException If the start city does not exist.
+     */
+    public BreadthFirstResult hopLevels(String start, int maximumHops) {
+        return snapshot().hopLevels(start, maximumHops);
+    }
+
+    /**
+     * Lazily visit the cities reachable from the start in breadth first order, on the latest snapshot.
+     *
+     * @param start The city to begin from.
+     * @return A sequential stream of the visited cities.
+     * @throws IllegalArgumentException If the start city does not exist.
+     */
+    public Stream<Visit> breadthFirstStream(String start) {
+        return snapshot().breadthFirstStream(start);
+    }
+
+    /**
+     * Lazily visit the cities reachable from the start, closest first, on the latest snapshot.
+     *
+     * @param start The city to begin from.
+     * @return A sequential stream of the visited cities.
+     * @throws IllegalArgumentException If the start city does not exist.
+     */
+    public Stream<Visit> closestFirst(String start) {
+        return snapshot().closestFirst(start);
+    }
+
+    /**
+     * Obtain a minimum spanning tree of the component containing the root.
+     *
+     * @param root The vertex to grow the tree from.
+     * @return Minimum spanning tree of the component containing the root.
+     */
+    public List<CompactGraph.Edge> minimumSpanningTree(String root) {
+        return snapshot().minimumSpanningTree(root);
+    }
+
+    public List<CompactGraph.Edge> minimumSpanningTree() {
+        return snapshot().minimumSpanningTree();
+    }
+
+    /**
+     * Obtain a minimum spanning forest of the latest snapshot, one tree per connected component.
+     *
+     * @param algorithm The algorithm to use.
+     * @return Minimum spanning forest of the graph.
+     */
+    public SpanningForest minimumSpanningForest(SpanningTreeAlgorithm algorithm) {
+        return snapshot().minimumSpanningForest(algorithm);
+    }
+
+    @Override
+    public String toString() {
+        writeLock.lock();
+        try {
+            return master.toString();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Queue a write and wait until it has been published, applying it (and any other queued writes) if no other
+     * thread is already doing so.
+     *
+     * @param action The change to make, which returns whether it changed the graph.
+     * @return What the action returned.
+     */
+    private boolean write(Predicate<AirportSystem> action) {
+        PendingWrite write = new PendingWrite(action);
+        pending.add(write);
+
+        writeLock.lock();
+        try {
+            // Another writer may have applied this write while we waited for the lock
+            if (!write.applied) {
+                PendingWrite next;
+                while ((next = pending.poll()) != null) {
+                    // A failing write must not stop the others, so its exception is handed back to its own thread
+                    try {
+                        next.result = next.action.test(master);
+                    } catch (RuntimeException exception) {
+                        next.failure = exception;
+                    }
+                    next.applied = true;
+                }
+                if (published.version() != master.version())
+                    published = new Snapshot(master.compact(), master.version());
+            }
+            if (write.failure != null)
+                throw write.failure;
+            return write.result;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * An edge to add with {@link #addEdges(List)}.
+     *
+     * @param source The source of the edge.
+     * @param destination The destination of the edge.
+     * @param distance The length of the edge.
+     */
+    public record Route(String source, String destination, int distance) {}
+
+    /**
+     * A published graph and its version, kept together so that readers never see one without the other.
+     */
+    private record Snapshot(CompactGraph graph, int version) {}
+
+    /**
+     * A write waiting to be applied. Its fields are only accessed while holding the write lock.
+     */
+    private static final class PendingWrite {
+        private final Predicate<AirportSystem> action;
+        private boolean applied = false;
+        private boolean result = false;
+        private RuntimeException failure;
+
+        PendingWrite(Predicate<AirportSystem> action) {
+            this.action = action;
+        }
+    }
+}
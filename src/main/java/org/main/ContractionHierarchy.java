@@ -0,0 +1,420 @@
+package org.main;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A contraction hierarchy over a {@link CompactGraph}, which answers shortest distance queries by searching only a
+ * tiny part of the graph, at the cost of a preprocessing step.
+ * <p>
+ * Preprocessing removes ("contracts") the vertexes one at a time, from least to most important. Whenever removing a
+ * vertex would make a shortest path between two of its neighbours disappear, a shortcut edge with the length of that
+ * path is added between the neighbours. Afterwards every shortest path can be found by searching from both ends using
+ * only edges that lead to more important vertexes, and meeting at the most important vertex on the path.
+ * <p>
+ * The hierarchy is a frozen copy of the graph, so it must be rebuilt when the airport system changes. Plain
+ * {@link AirportSystem#shortestDistance(String, String)} remains the reference result.
+ */
+public final class ContractionHierarchy {
+    /**
+     * The most vertexes a witness search may settle before giving up and adding a shortcut anyway. Extra shortcuts
+     * never make answers wrong, they only make the hierarchy a bit bigger.
+     */
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+
+    private static final ThreadLocal<DijkstraEngine.Search> FORWARD = ThreadLocal.withInitial(DijkstraEngine.Search::new);
+    private static final ThreadLocal<DijkstraEngine.Search> BACKWARD = ThreadLocal.withInitial(DijkstraEngine.Search::new);
+
+    private final CompactGraph graph;
+
+    /**
+     * The upward graph in compressed sparse row form. The neighbours of a vertex here are only those that were
+     * contracted after it, through both original edges and shortcuts.
+     */
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final int[] upWeights;
+
+    /**
+     * The position of each vertex in the contraction order, indexed by int id.
+     */
+    private final int[] ranks;
+
+    private final int shortcutCount;
+    private final long preprocessingNanos;
+
+    private final LongAdder queryCount = new LongAdder();
+    private final LongAdder queryNanos = new LongAdder();
+
+    private ContractionHierarchy(CompactGraph graph, int[] upOffsets, int[] upTargets, int[] upWeights, int[] ranks,
+                                 int shortcutCount, long preprocessingNanos) {
+        this.graph = graph;
+        this.upOffsets = upOffsets;
+        this.upTargets = upTargets;
+        this.upWeights = upWeights;
+        this.ranks = ranks;
+        this.shortcutCount = shortcutCount;
+        this.preprocessingNanos = preprocessingNanos;
+    }
+
+    /**
+     * Build a contraction hierarchy for a graph.
+     *
+     * @param graph The graph to preprocess.
+     * @return The contraction hierarchy of the graph.
+     */
+    public static ContractionHierarchy build(CompactGraph graph) {
+        long start = System.nanoTime();
+        return new Builder(graph).build(start);
+    }
+
+    /**
+     * Returns the shortest distance between city A and city B.
+     *
+     * @param cityA The starting city.
+     * @param cityB The destination city.
+     * @return The shortest distance between the two, or {@link AirportSystem#UNREACHABLE} if there is no route or
+     * either city does not exist.
+     */
+    public int shortestDistance(String cityA, String cityB) {
+        int source = graph.indexOf(cityA);
+        int target = graph.indexOf(cityB);
+        if (source == -1 || target == -1)
+            return AirportSystem.UNREACHABLE;
+        return shortestDistance(source, target);
+    }
+
+    /**
+     * Returns the shortest distance between two vertexes.
+     *
+     * @implNote Searches upwards from both vertexes at once, alternating by whichever has the closer unsettled vertex.
+     * A side stops once its closest unsettled vertex is further than the best meeting point found so far.
+     * @param source The int id of the starting vertex.
+     * @param target The int id of the destination vertex.
+     * @return The shortest distance between the two, or {@link AirportSystem#UNREACHABLE} if there is no route.
+     */
+    public int shortestDistance(int source, int target) {
+        // Every query counts towards the statistics, even one that needs no search
+        long queryStart = System.nanoTime();
+        try {
+            return source == target ? 0 : search(source, target);
+        } finally {
+            queryCount.increment();
+            queryNanos.add(System.nanoTime() - queryStart);
+        }
+    }
+
+    private int search(int source, int target) {
+        DijkstraEngine.Search forward = FORWARD.get();
+        DijkstraEngine.Search backward = BACKWARD.get();
+        forward.prepare(graph.size());
+        backward.prepare(graph.size());
+        try {
+            forward.start(source);
+            backward.start(target);
+
+            long best = Long.MAX_VALUE;
+            while (!forward.heap.isEmpty() || !backward.heap.isEmpty()) {
+                int forwardKey = forward.heap.peekKey();
+                int backwardKey = backward.heap.peekKey();
+                if (Math.min(forwardKey, backwardKey) >= best)
+                    break;
+
+                DijkstraEngine.Search search = forwardKey <= backwardKey ? forward : backward;
+                DijkstraEngine.Search other = search == forward ? backward : forward;
+
+                int vertex = search.pollNext();
+                int distance = search.distance(vertex);
+                if (other.reached(vertex))
+                    best = Math.min(best, (long) distance + other.distance(vertex));
+
+                for (int slot = upOffsets[vertex]; slot < upOffsets[vertex + 1]; slot++)
+                    search.reach(upTargets[slot], distance + upWeights[slot]);
+            }
+
+            return best == Long.MAX_VALUE ? AirportSystem.UNREACHABLE : (int) best;
+        } finally {
+            forward.finish();
+            backward.finish();
+        }
+    }
+
+    /**
+     * The position of a vertex in the contraction order. Vertexes with a higher rank are more important.
+     *
+     * @param vertex The int id of the vertex.
+     * @return The rank of the vertex, between 0 and the number of vertexes.
+     */
+    public int rank(int vertex) {
+        return ranks[vertex];
+    }
+
+    /**
+     * The number of shortcut edges added by preprocessing.
+     *
+     * @return The number of shortcuts.
+     */
+    public int shortcutCount() {
+        return shortcutCount;
+    }
+
+    /**
+     * The figures needed to judge whether preprocessing is worth it.
+     *
+     * @return The statistics of this hierarchy.
+     */
+    public Statistics statistics() {
+        return new Statistics(
+                graph.size(),
+                graph.edgeCount(),
+                shortcutCount,
+                preprocessingNanos / 1_000_000,
+                queryCount.sum(),
+                queryNanos.sum()
+        );
+    }
+
+    /**
+     * The cost and benefit of a contraction hierarchy.
+     *
+     * @param vertexCount The number of vertexes in the graph.
+     * @param edgeCount The number of edges in the original graph.
+     * @param shortcutCount The number of shortcut edges added by preprocessing.
+     * @param preprocessingMillis How long preprocessing took.
+     * @param queryCount The number of queries answered so far.
+     * @param totalQueryNanos The total time spent answering those queries.
+     */
+    public record Statistics(
+            int vertexCount,
+            int edgeCount,
+            int shortcutCount,
+            long preprocessingMillis,
+            long queryCount,
+            long totalQueryNanos
+    ) {
+        /**
+         * The mean latency of the queries answered so far.
+         *
+         * @return The mean query latency in microseconds, or 0 if there have been no queries.
+         */
+        public double averageQueryMicros() {
+            return queryCount == 0 ? 0 : totalQueryNanos / 1000.0 / queryCount;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "%d vertexes, %d edges, %d shortcuts, preprocessing %d ms, %d queries averaging %.2f us",
+                    vertexCount, edgeCount, shortcutCount, preprocessingMillis, queryCount, averageQueryMicros()
+            );
+        }
+    }
+
+    /**
+     * Contracts the vertexes of a graph and assembles the upward graph.
+     */
+    private static final class Builder {
+        private final CompactGraph graph;
+
+        /**
+         * The neighbours and edge lengths of each vertex, including shortcuts. Contracted neighbours are left in
+         * place and skipped.
+         */
+        private final int[][] neighbours;
+        private final int[][] weights;
+        private final int[] degrees;
+
+        private final boolean[] contracted;
+
+        /**
+         * How many neighbours of each vertex have already been contracted, which spreads contraction evenly over the
+         * graph.
+         */
+        private final int[] contractedNeighbours;
+
+        private final DijkstraEngine.Search witness = new DijkstraEngine.Search();
+        private int shortcutCount = 0;
+
+        Builder(CompactGraph graph) {
+            this.graph = graph;
+            int size = graph.size();
+            neighbours = new int[size][];
+            weights = new int[size][];
+            degrees = new int[size];
+            contracted = new boolean[size];
+            contractedNeighbours = new int[size];
+
+            for (int v = 0; v < size; v++) {
+                int degree = graph.endSlot(v) - graph.firstSlot(v);
+                neighbours[v] = new int[Math.max(degree, 2)];
+                weights[v] = new int[Math.max(degree, 2)];
+                for (int slot = graph.firstSlot(v); slot < graph.endSlot(v); slot++)
+                    connect(v, graph.target(slot), graph.weight(slot));
+            }
+        }
+
+        ContractionHierarchy build(long start) {
+            int size = graph.size();
+            int[] ranks = new int[size];
+
+            // Order vertexes by priority, lazily: a vertex's priority is only recomputed when it reaches the top
+            IndexedHeap order = new IndexedHeap();
+            order.ensureCapacity(size);
+            for (int v = 0; v < size; v++)
+                order.insertOrDecrease(v, priority(v));
+
+            int rank = 0;
+            while (!order.isEmpty()) {
+                int vertex = order.poll();
+                int priority = priority(vertex);
+                if (!order.isEmpty() && priority > order.peekKey()) {
+                    order.insertOrDecrease(vertex, priority);
+                    continue;
+                }
+                contract(vertex, true);
+                ranks[vertex] = rank++;
+            }
+
+            return assemble(ranks, System.nanoTime() - start);
+        }
+
+        /**
+         * How early a vertex should be contracted, lower being earlier. Vertexes that need few shortcuts compared to
+         * the edges they remove, and whose neighbourhood has not been contracted much yet, come first.
+         */
+        private int priority(int vertex) {
+            int shortcuts = contract(vertex, false);
+            int edges = 0;
+            for (int i = 0; i < degrees[vertex]; i++)
+                if (!contracted[neighbours[vertex][i]])
+                    edges++;
+            return shortcuts - edges + contractedNeighbours[vertex];
+        }
+
+        /**
+         * Work out the shortcuts needed to remove a vertex, and optionally remove it.
+         *
+         * @param vertex The vertex to contract.
+         * @param apply Whether to actually add the shortcuts and mark the vertex as contracted.
+         * @return The number of shortcuts needed.
+         */
+        private int contract(int vertex, boolean apply) {
+            int shortcuts = 0;
+            int[] vertexNeighbours = neighbours[vertex];
+            int[] vertexWeights = weights[vertex];
+            int degree = degrees[vertex];
+
+            for (int i = 0; i < degree; i++) {
+                int from = vertexNeighbours[i];
+                if (contracted[from])
+                    continue;
+
+                // The longest path through the vertex from this neighbour bounds how far the witness search must go
+                int limit = -1;
+                for (int j = i + 1; j < degree; j++)
+                    if (!contracted[vertexNeighbours[j]])
+                        limit = Math.max(limit, vertexWeights[i] + vertexWeights[j]);
+                if (limit == -1)
+                    continue;
+
+                witnessSearch(from, vertex, limit);
+                for (int j = i + 1; j < degree; j++) {
+                    int to = vertexNeighbours[j];
+                    if (contracted[to])
+                        continue;
+                    int through = vertexWeights[i] + vertexWeights[j];
+                    if (witness.distance(to) > through) {
+                        shortcuts++;
+                        if (apply) {
+                            // Both directions must be updated even if the edge already existed and was only shortened
+                            boolean added = connect(from, to, through);
+                            connect(to, from, through);
+                            if (added)
+                                shortcutCount++;
+                        }
+                    }
+                }
+                witness.finish();
+            }
+
+            if (apply) {
+                contracted[vertex] = true;
+                for (int i = 0; i < degree; i++)
+                    contractedNeighbours[vertexNeighbours[i]]++;
+            }
+            return shortcuts;
+        }
+
+        /**
+         * Search for the shortest paths from a vertex that avoid the vertex being contracted, up to a distance limit.
+         * The distances are left in {@link #witness} until it is finished.
+         */
+        private void witnessSearch(int from, int avoid, int limit) {
+            witness.prepare(graph.size());
+            witness.start(from);
+            while (!witness.heap.isEmpty() && witness.heap.peekKey() <= limit
+                    && witness.settledCount < WITNESS_SETTLE_LIMIT) {
+                int vertex = witness.pollNext();
+                int distance = witness.distance(vertex);
+                for (int i = 0; i < degrees[vertex]; i++) {
+                    int neighbour = neighbours[vertex][i];
+                    if (neighbour != avoid && !contracted[neighbour])
+                        witness.reach(neighbour, distance + weights[vertex][i]);
+                }
+            }
+        }
+
+        /**
+         * Add an edge from one vertex to another, or shorten it if it already exists.
+         *
+         * @return Whether a new edge was added.
+         */
+        private boolean connect(int from, int to, int weight) {
+            for (int i = 0; i < degrees[from]; i++) {
+                if (neighbours[from][i] == to) {
+                    weights[from][i] = Math.min(weights[from][i], weight);
+                    return false;
+                }
+            }
+            if (degrees[from] == neighbours[from].length) {
+                neighbours[from] = Arrays.copyOf(neighbours[from], degrees[from] * 2);
+                weights[from] = Arrays.copyOf(weights[from], degrees[from] * 2);
+            }
+            neighbours[from][degrees[from]] = to;
+            weights[from][degrees[from]] = weight;
+            degrees[from]++;
+            return true;
+        }
+
+        /**
+         * Keep only the edges that lead to higher ranked vertexes, in compressed sparse row form.
+         */
+        private ContractionHierarchy assemble(int[] ranks, long preprocessingNanos) {
+            int size = graph.size();
+            int[] upOffsets = new int[size + 1];
+            for (int v = 0; v < size; v++) {
+                upOffsets[v + 1] = upOffsets[v];
+                for (int i = 0; i < degrees[v]; i++)
+                    if (ranks[neighbours[v][i]] > ranks[v])
+                        upOffsets[v + 1]++;
+            }
+
+            int[] upTargets = new int[upOffsets[size]];
+            int[] upWeights = new int[upOffsets[size]];
+            for (int v = 0; v < size; v++) {
+                int slot = upOffsets[v];
+                for (int i = 0; i < degrees[v]; i++) {
+                    if (ranks[neighbours[v][i]] > ranks[v]) {
+                        upTargets[slot] = neighbours[v][i];
+                        upWeights[slot] = weights[v][i];
+                        slot++;
+                    }
+                }
+            }
+
+            return new ContractionHierarchy(
+                    graph, upOffsets, upTargets, upWeights, ranks, shortcutCount, preprocessingNanos
+            );
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package org.main;
+
+import java.util.Arrays;
+
+/**
+ * Dijkstra's algorithm over a {@link CompactGraph}.
+ * <p>
+ * The search state (distances and the {@link IndexedHeap}) is kept per thread and reused between queries, so once a
+ * thread has run a query on the largest graph it will see, further queries allocate nothing. Distances are
+ * invalidated between queries with a generation stamp instead of clearing the arrays, so a query that settles only a
+ * few vertexes only costs time for those vertexes.
+ */
+public final class DijkstraEngine {
+    private static final ThreadLocal<Search> SCRATCH = ThreadLocal.withInitial(Search::new);
+
+    private final CompactGraph graph;
+
+    public DijkstraEngine(CompactGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Returns the shortest distance between two vertexes. The search stops as soon as the target has been settled.
+     *
+     * @param source The int id of the starting vertex.
+     * @param target The int id of the destination vertex.
+     * @return The shortest distance between the two, or {@link AirportSystem#UNREACHABLE} if there is no route.
+     */
+    public int distance(int source, int target) {
+        if (source == target)
+            return 0;
+
+        Search search = search();
+        try {
+            search.start(source);
+            while (!search.heap.isEmpty()) {
+                int vertex = search.settleNext(graph);
+                if (vertex == target)
+                    return search.distance(vertex);
+            }
+            return AirportSystem.UNREACHABLE;
+        } finally {
+            search.finish();
+        }
+    }
+
+    /**
+     * Returns the shortest distance from a vertex to every vertex in the graph.
+     *
+     * @param source The int id of the starting vertex.
+     * @return The distance to every vertex, indexed by int id, with {@link AirportSystem#UNREACHABLE} for vertexes
+     * that cannot be reached.
+     */
+    public int[] distancesFrom(int source) {
+        int[] distances = new int[graph.size()];
+        distancesFrom(source, distances);
+        return distances;
+    }
+
+    /**
+     * Fills an array with the shortest distance from a vertex to every vertex in the graph.
+     *
+     * @param source The int id of the starting vertex.
+     * @param distances The array to fill, indexed by int id, with {@link AirportSystem#UNREACHABLE} for vertexes
+     * that cannot be reached.
+     */
+    public void distancesFrom(int source, int[] distances) {
+        Arrays.fill(distances, AirportSystem.UNREACHABLE);
+        Search search = search();
+        try {
+            search.start(source);
+            while (!search.heap.isEmpty()) {
+                int vertex = search.settleNext(graph);
+                distances[vertex] = search.distance(vertex);
+            }
+        } finally {
+            search.finish();
+        }
+    }
+
+    /**
+     * Returns the shortest distance from one vertex to each of several targets with a single search, which stops as
+     * soon as every target has been settled.
+     *
+     * @param source The int id of the starting vertex.
+     * @param targets The int ids of the destinations, which may repeat. A target of -1 is never reached.
+     * @return The distance to each target, in the same order, with {@link AirportSystem#UNREACHABLE} for targets that
+     * cannot be reached.
+     */
+    public int[] distances(int source, int[] targets) {
+        // Sorted so that each settled vertex can be checked against the targets with a binary search
+        int[] sorted = Arrays.stream(targets).filter(target -> target != -1).sorted().distinct().toArray();
+        Search search = search();
+        try {
+            search.start(source);
+            int settledTargets = 0;
+            while (!search.heap.isEmpty() && settledTargets < sorted.length) {
+                if (Arrays.binarySearch(sorted, search.settleNext(graph)) >= 0)
+                    settledTargets++;
+            }
+
+            int[] distances = new int[targets.length];
+            for (int i = 0; i < targets.length; i++)
+                distances[i] = targets[i] != -1 && search.settled(targets[i])
+                        ? search.distance(targets[i])
+                        : AirportSystem.UNREACHABLE;
+            return distances;
+        } finally {
+            search.finish();
+        }
+    }
+
+    /**
+     * The number of vertexes settled by the calling thread's most recent query on any engine, which is a measure of
+     * how much of the graph the query had to explore.
+     *
+     * @return The number of vertexes settled by this thread's last query.
+     */
+    public static int lastSettledCount() {
+        return SCRATCH.get().settledCount;
+    }
+
+    /**
+     * The number of edges relaxed by the calling thread's most recent query on any engine, counting every path that
+     * was offered to a vertex whether or not it was shorter.
+     *
+     * @return The number of edges relaxed by this thread's last query.
+     */
+    public static long lastRelaxedCount() {
+        return SCRATCH.get().relaxedCount;
+    }
+
+    /**
+     * The largest number of vertexes that were queued at once by the calling thread's most recent query on any
+     * engine. For a bidirectional search this is the sum of both directions.
+     *
+     * @return The peak heap size of this thread's last query.
+     */
+    public static int lastHeapPeak() {
+        return SCRATCH.get().heapPeak;
+    }
+
+    /**
+     * Get this thread's search state, sized for the graph.
+     */
+    Search search() {
+        return search(graph.size());
+    }
+
+    /**
+     * Get this thread's search state, sized for a graph with a number of vertexes, for searching a graph that is not
+     * a compact graph.
+     */
+    static Search search(int vertexCount) {
+        Search search = SCRATCH.get();
+        search.prepare(vertexCount);
+        return search;
+    }
+
+    /**
+     * The reusable state of a single-source search.
+     */
+    static final class Search {
+        final IndexedHeap heap = new IndexedHeap();
+
+        /**
+         * The best known distance to each vertex. Only meaningful when the vertex's stamp is the current generation.
+         */
+        private int[] distances = new int[0];
+
+        /**
+         * The generation in which each vertex was last reached.
+         */
+        private int[] stamps = new int[0];
+
+        /**
+         * The vertex each vertex was reached from on its best known path, or -1 for the source. Only meaningful when
+         * the vertex's stamp is the current generation, and only kept up to date by {@link #settleNext(CompactGraph)}.
+         */
+        private int[] parents = new int[0];
+
+        private int generation = 0;
+
+        /**
+         * The number of vertexes settled since the search started.
+         */
+        int settledCount = 0;
+
+        /**
+         * The number of paths offered to {@link #reach(int, int, int)} since the search started.
+         */
+        long relaxedCount = 0;
+
+        /**
+         * The largest size of the heap during the search, only filled in by {@link #finish()}.
+         */
+        int heapPeak = 0;
+
+        /**
+         * Grow the arrays if needed and start a new generation, which forgets every distance from the last search.
+         */
+        void prepare(int vertexCount) {
+            heap.ensureCapacity(vertexCount);
+            if (stamps.length < vertexCount) {
+                distances = Arrays.copyOf(distances, vertexCount);
+                stamps = Arrays.copyOf(stamps, vertexCount);
+                parents = Arrays.copyOf(parents, vertexCount);
+            }
+            settledCount = 0;
+            relaxedCount = 0;
+            heapPeak = 0;
+            heap.resetPeakSize();
+            if (++generation == 0) {
+                // The stamps have wrapped around, so old stamps could be mistaken for the current generation
+                Arrays.fill(stamps, 0);
+                generation = 1;
+            }
+        }
+
+        void start(int source) {
+            reach(source, 0);
+            parents[source] = -1;
+        }
+
+        /**
+         * The vertex before a reached vertex on its best known path, or -1 for the source.
+         */
+        int parent(int vertex) {
+            return parents[vertex];
+        }
+
+        /**
+         * Record a path to a vertex through a parent if it is shorter than the best known path.
+         *
+         * @return Whether the path was shorter.
+         */
+        boolean reach(int vertex, int distance, int bias, int parent) {
+            if (!reach(vertex, distance, bias))
+                return false;
+            parents[vertex] = parent;
+            return true;
+        }
+
+        /**
+         * Whether a vertex has been reached (queued or settled) in this search.
+         */
+        boolean reached(int vertex) {
+            return stamps[vertex] == generation;
+        }
+
+        /**
+         * Whether a vertex's distance is final.
+         */
+        boolean settled(int vertex) {
+            return reached(vertex) && !heap.contains(vertex);
+        }
+
+        /**
+         * The best known distance to a vertex, or {@link Integer#MAX_VALUE} if it has not been reached.
+         */
+        int distance(int vertex) {
+            return reached(vertex) ? distances[vertex] : Integer.MAX_VALUE;
+        }
+
+        /**
+         * Record a path to a vertex if it is shorter than the best known path.
+         *
+         * @return Whether the path was shorter.
+         */
+        boolean reach(int vertex, int distance) {
+            return reach(vertex, distance, 0);
+        }
+
+        /**
+         * Record a path to a vertex if it is shorter than the best known path, queueing the vertex by its distance
+         * plus a bias. The bias of a vertex must be the same every time it is reached in a search, such as an A*
+         * heuristic.
+         *
+         * @return Whether the path was shorter.
+         */
+        boolean reach(int vertex, int distance, int bias) {
+            relaxedCount++;
+            if (reached(vertex)) {
+                if (distance >= distances[vertex] || !heap.contains(vertex))
+                    return false;
+            } else {
+                stamps[vertex] = generation;
+            }
+            distances[vertex] = distance;
+            heap.insertOrDecrease(vertex, distance + bias);
+            return true;
+        }
+
+        /**
+         * Remove the next vertex from the heap and count it as settled, without relaxing its edges.
+         *
+         * @return The vertex that was settled.
+         */
+        int pollNext() {
+            settledCount++;
+            return heap.poll();
+        }
+
+        /**
+         * Settle the closest vertex in the heap and relax all of its edges.
+         *
+         * @return The vertex that was settled.
+         */
+        int settleNext(CompactGraph graph) {
+            int vertex = pollNext();
+            int distance = distances[vertex];
+            for (int slot = graph.firstSlot(vertex), end = graph.endSlot(vertex); slot < end; slot++)
+                reach(graph.target(slot), distance + graph.weight(slot), 0, vertex);
+            return vertex;
+        }
+
+        /**
+         * Empty the heap so that the search state can be reused.
+         */
+        void finish() {
+            heapPeak = heap.peakSize();
+            heap.clear();
+        }
+
+        /**
+         * Add the work done by another finished search, which ran alongside this one, to this search's counters.
+         */
+        void add(Search other) {
+            settledCount += other.settledCount;
+            relaxedCount += other.relaxedCount;
+            heapPeak += other.heapPeak;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.main;
+
+/**
+ * The shortest distances from a list of sources to a list of targets, stored in one flat row-major array.
+ */
+public final class DistanceMatrix {
+    private final int rows;
+    private final int columns;
+
+    /**
+     * The distance from source {@code row} to target {@code column} is at {@code row * columns + column}.
+     */
+    private final int[] distances;
+
+    DistanceMatrix(int rows, int columns, int[] distances) {
+        this.rows = rows;
+        this.columns = columns;
+        this.distances = distances;
+    }
+
+    /**
+     * The number of sources.
+     *
+     * @return The number of rows in the matrix.
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * The number of targets.
+     *
+     * @return The number of columns in the matrix.
+     */
+    public int columns() {
+        return columns;
+    }
+
+    /**
+     * The shortest distance from a source to a target.
+     *
+     * @param row The position of the source in the list of sources.
+     * @param column The position of the target in the list of targets.
+     * @return The shortest distance, or {@link AirportSystem#UNREACHABLE} if there is no route.
+     */
+    public int get(int row, int column) {
+        return distances[row * columns + column];
+    }
+
+    /**
+     * The underlying flat array, without copying. Row {@code r} occupies {@code [r * columns(), (r + 1) * columns())}.
+     *
+     * @return The row-major distances.
+     */
+    public int[] flat() {
+        return distances;
+    }
+
+    /**
+     * Copy the matrix into one array per source.
+     *
+     * @return The distances, indexed by row then column.
+     */
+    public int[][] toArray() {
+        int[][] array = new int[rows][columns];
+        for (int row = 0; row < rows; row++)
+            System.arraycopy(distances, row * columns, array[row], 0, columns);
+        return array;
+    }
+}
@@ -0,0 +1,246 @@
+package org.main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The shortest distances from one city to every other city, kept up to date as the {@link AirportSystem} changes.
+ * Created with {@link AirportSystem#trackShortestPaths(String)}.
+ * <p>
+ * The tree stores each city's distance and the city before it on its shortest route (its parent). A change only
+ * touches the cities whose shortest route it can affect, in the style of Ramalingam and Reps:
+ * <ul>
+ *     <li>When an edge is added or shortened, a Dijkstra search starts from whichever end gets closer and only
+ *     continues through cities that get closer too.</li>
+ *     <li>When an edge is removed or lengthened, nothing changes unless the edge is part of the tree. If it is, only
+ *     the cities below it in the tree lose their routes. Each of them first takes its best route through a neighbour
+ *     outside that subtree, and then a Dijkstra search over the subtree settles the rest.</li>
+ * </ul>
+ */
+public final class DynamicShortestPathTree {
+    private static final int INFINITE = Integer.MAX_VALUE;
+
+    private final AirportSystem system;
+    private final int source;
+
+    /**
+     * The distance to each vertex, or {@link #INFINITE} if it can not be reached.
+     */
+    private int[] distances = new int[0];
+
+    /**
+     * The vertex before each vertex on its shortest route, or -1 for the source and unreachable vertexes.
+     */
+    private int[] parents = new int[0];
+
+    private final IndexedHeap heap = new IndexedHeap();
+
+    /**
+     * The vertexes that lost their route in the current update, marked with the current generation.
+     */
+    private int[] stamps = new int[0];
+    private int generation = 0;
+    private int[] affected = new int[16];
+
+    /**
+     * The number of vertexes whose distance was recomputed by the most recent change.
+     */
+    private int lastUpdateSize = 0;
+
+    DynamicShortestPathTree(AirportSystem system, int source) {
+        this.system = system;
+        this.source = source;
+        recompute();
+    }
+
+    /**
+     * The city the distances are measured from.
+     *
+     * @return The id of the source city.
+     */
+    public String source() {
+        return system.getVertex(source).getId();
+    }
+
+    /**
+     * The shortest distance from the source to a city.
+     *
+     * @param id The id of the city.
+     * @return The distance, or {@link AirportSystem#UNREACHABLE} if there is no route or the city does not exist.
+     */
+    public int distanceTo(String id) {
+        AirportSystem.Vertex vertex = system.getConnection(id);
+        return vertex == null ? AirportSystem.UNREACHABLE : distanceTo(vertex.getIndex());
+    }
+
+    /**
+     * The shortest distance from the source to a vertex.
+     *
+     * @param vertex The int id of the vertex.
+     * @return The distance, or {@link AirportSystem#UNREACHABLE} if there is no route.
+     */
+    public int distanceTo(int vertex) {
+        if (vertex >= distances.length || distances[vertex] == INFINITE)
+            return AirportSystem.UNREACHABLE;
+        return distances[vertex];
+    }
+
+    /**
+     * The cities on a shortest route from the source to a city.
+     *
+     * @param id The id of the destination city.
+     * @return The cities from the source to the destination, or an empty list if there is no route.
+     */
+    public List<String> routeTo(String id) {
+        AirportSystem.Vertex destination = system.getConnection(id);
+        List<String> route = new ArrayList<>();
+        if (destination == null || distanceTo(destination.getIndex()) == AirportSystem.UNREACHABLE)
+            return route;
+
+        for (int vertex = destination.getIndex(); vertex != -1; vertex = parents[vertex])
+            route.add(system.getVertex(vertex).getId());
+        Collections.reverse(route);
+        return route;
+    }
+
+    /**
+     * The number of cities whose distance had to be recomputed after the most recent change, which is a measure of how
+     * much work the update took.
+     *
+     * @return The number of cities recomputed.
+     */
+    public int lastUpdateSize() {
+        return lastUpdateSize;
+    }
+
+    /**
+     * Throw away every distance and compute the whole tree again with Dijkstra's algorithm.
+     */
+    public void recompute() {
+        ensureCapacity(system.size());
+        Arrays.fill(distances, INFINITE);
+        Arrays.fill(parents, -1);
+        distances[source] = 0;
+        heap.insertOrDecrease(source, 0);
+        lastUpdateSize = propagate();
+    }
+
+    /**
+     * Update the tree after an edge was added or made shorter. The graph must already contain the new edge.
+     */
+    void edgeShortened(int a, int b, int weight) {
+        ensureCapacity(Math.max(a, b) + 1);
+        relax(a, b, weight);
+        relax(b, a, weight);
+        lastUpdateSize = propagate();
+    }
+
+    /**
+     * Update the tree after an edge was removed or made longer. The graph must already have the change applied.
+     */
+    void edgeLengthened(int a, int b) {
+        int child = parents[b] == a ? b : parents[a] == b ? a : -1;
+        if (child == -1) {
+            // The edge is not on any route in the tree, so every route in the tree is still there and still shortest
+            lastUpdateSize = 0;
+            return;
+        }
+
+        int affectedCount = collectSubtree(child);
+
+        // Every affected vertex starts from its best route through a vertex whose route did not change
+        for (int i = 0; i < affectedCount; i++) {
+            int vertex = affected[i];
+            distances[vertex] = INFINITE;
+            parents[vertex] = -1;
+        }
+        for (int i = 0; i < affectedCount; i++) {
+            int vertex = affected[i];
+            for (AirportSystem.Edge edge : system.getVertex(vertex).getEdges()) {
+                int neighbour = edge.getDestination().getIndex();
+                if (stamps[neighbour] != generation)
+                    relax(neighbour, vertex, edge.getDistance());
+            }
+        }
+
+        propagate();
+        lastUpdateSize = affectedCount;
+    }
+
+    /**
+     * Mark a vertex and every vertex below it in the tree as affected.
+     *
+     * @return The number of affected vertexes, which are stored at the start of {@link #affected}.
+     */
+    private int collectSubtree(int root) {
+        if (++generation == 0) {
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+
+        int count = 0;
+        affected[count++] = root;
+        stamps[root] = generation;
+
+        // A vertex's children are always among its neighbours, since a parent is reached over an edge
+        for (int i = 0; i < count; i++) {
+            int vertex = affected[i];
+            for (AirportSystem.Edge edge : system.getVertex(vertex).getEdges()) {
+                int neighbour = edge.getDestination().getIndex();
+                if (parents[neighbour] == vertex && stamps[neighbour] != generation) {
+                    stamps[neighbour] = generation;
+                    if (count == affected.length)
+                        affected = Arrays.copyOf(affected, count * 2);
+                    affected[count++] = neighbour;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Queue a vertex if a route through another vertex is shorter than its current one.
+     */
+    private void relax(int from, int to, int weight) {
+        if (distances[from] == INFINITE)
+            return;
+        int distance = distances[from] + weight;
+        if (distance < distances[to]) {
+            distances[to] = distance;
+            parents[to] = from;
+            heap.insertOrDecrease(to, distance);
+        }
+    }
+
+    /**
+     * Run Dijkstra's algorithm from the queued vertexes, only continuing through vertexes whose route gets shorter.
+     *
+     * @return The number of vertexes settled.
+     */
+    private int propagate() {
+        int settled = 0;
+        while (!heap.isEmpty()) {
+            int vertex = heap.poll();
+            settled++;
+            for (AirportSystem.Edge edge : system.getVertex(vertex).getEdges())
+                relax(vertex, edge.getDestination().getIndex(), edge.getDistance());
+        }
+        return settled;
+    }
+
+    private void ensureCapacity(int vertexCount) {
+        if (distances.length >= vertexCount)
+            return;
+
+        int oldLength = distances.length;
+        int capacity = Math.max(vertexCount, oldLength * 2);
+        distances = Arrays.copyOf(distances, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        stamps = Arrays.copyOf(stamps, capacity);
+        Arrays.fill(distances, oldLength, capacity, INFINITE);
+        Arrays.fill(parents, oldLength, capacity, -1);
+        heap.ensureCapacity(capacity);
+    }
+}
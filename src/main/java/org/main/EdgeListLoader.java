@@ -0,0 +1,637 @@
+package org.main;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Loads an airport network from a {@code source,destination,distance} edge list file much faster than parsing each
+ * line into strings and calling {@link AirportSystem#addEdge(String, String, int)}.
+ * <p>
+ * The file is memory-mapped in chunks that end on line boundaries. Each chunk is parsed into field offsets and
+ * distances without creating any strings, optionally in parallel on a fork-join pool. The parsed chunks are then
+ * resolved in file order: airport ids are looked up by their bytes in a hash table (so a string is only created the
+ * first time an airport is seen), and duplicate flights are found in a primitive hash set of id pairs. Lines are
+ * accepted or rejected by the same rules as {@code addEdge}, and the graph is assembled in compressed sparse row form
+ * once every line has been read.
+ * <p>
+ * Blank lines are ignored. Fields may be surrounded by spaces, and lines may end in {@code \n} or {@code \r\n}. An id
+ * may be quoted as in RFC 4180, so that it can contain commas, double quotes (written twice) or surrounding spaces,
+ * but not line breaks.
+ */
+public final class EdgeListLoader {
+    /**
+     * The default size of each mapped chunk.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 16 << 20;
+
+    /**
+     * The default maximum number of rejected lines to keep the text of.
+     */
+    public static final int DEFAULT_MAXIMUM_REPORTED = 10_000;
+
+    /**
+     * The number of ints recorded per parsed line: where the line starts, where each of the two ids start and end, the
+     * distance, the line number within the chunk, and which ids are quoted with doubled quotes inside.
+     */
+    private static final int STRIDE = 8;
+
+    private static final int MALFORMED = 1;
+    private static final int SOURCE_ESCAPED = 2;
+    private static final int DESTINATION_ESCAPED = 4;
+
+    private final int chunkSize;
+    private final int maximumReported;
+
+    public EdgeListLoader() {
+        this(DEFAULT_CHUNK_SIZE, DEFAULT_MAXIMUM_REPORTED);
+    }
+
+    /**
+     * @param chunkSize The approximate number of bytes to map and parse at a time.
+     * @param maximumReported The most rejected lines to keep the text of. Every rejected line is still counted.
+     */
+    public EdgeListLoader(int chunkSize, int maximumReported) {
+        if (chunkSize <= 0 || maximumReported < 0)
+            throw new IllegalArgumentException("Chunk size must be positive and maximum reported not negative");
+        this.chunkSize = chunkSize;
+        this.maximumReported = maximumReported;
+    }
+
+    /**
+     * Load an edge list file on the calling thread.
+     *
+     * @param path The file to load.
+     * @return The loaded graph and the rejected lines.
+     * @throws IOException If the file can not be read.
+     */
+    public Result load(Path path) throws IOException {
+        return load(path, null);
+    }
+
+    /**
+     * Load an edge list file, parsing chunks in parallel on a fork-join pool.
+     *
+     * @param path The file to load.
+     * @param pool The pool to parse chunks on, or null to parse on the calling thread.
+     * @return The loaded graph and the rejected lines.
+     * @throws IOException If the file can not be read.
+     */
+    public Result load(Path path, ForkJoinPool pool) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            List<long[]> chunks = splitIntoChunks(channel);
+            Resolver resolver = new Resolver();
+
+            if (pool == null) {
+                for (long[] chunk : chunks)
+                    resolver.resolve(parse(map(channel, chunk)));
+                return resolver.finish();
+            }
+
+            // Keep a bounded window of chunks parsing ahead of the one being resolved, so memory does not grow with
+            // the size of the file
+            int window = pool.getParallelism() + 1;
+            Deque<Future<ParsedChunk>> parsing = new ArrayDeque<>();
+            int next = 0;
+            try {
+                while (next < chunks.size() || !parsing.isEmpty()) {
+                    while (next < chunks.size() && parsing.size() < window) {
+                        MappedByteBuffer buffer = map(channel, chunks.get(next++));
+                        parsing.add(pool.submit(() -> parse(buffer)));
+                    }
+                    resolver.resolve(parsing.poll().get());
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while loading " + path, exception);
+            } catch (ExecutionException exception) {
+                throw new IOException("Failed to parse " + path, exception.getCause());
+            } finally {
+                for (Future<ParsedChunk> future : parsing)
+                    future.cancel(true);
+            }
+            return resolver.finish();
+        }
+    }
+
+    /**
+     * Work out where each chunk starts and ends, so that every chunk ends just after a newline (or at the end of the
+     * file).
+     *
+     * @return The start and end offset of each chunk.
+     */
+    private List<long[]> splitIntoChunks(FileChannel channel) throws IOException {
+        List<long[]> chunks = new ArrayList<>();
+        long size = channel.size();
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(size, start + chunkSize);
+
+            // Move the end forwards to just after the next newline
+            search:
+            while (end < size) {
+                probe.clear();
+                int read = channel.read(probe, end);
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        end += i + 1;
+                        break search;
+                    }
+                }
+                end += Math.max(read, 0);
+            }
+
+            chunks.add(new long[] {start, Math.min(end, size)});
+            start = end;
+        }
+        return chunks;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long[] chunk) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, chunk[0], chunk[1] - chunk[0]);
+    }
+
+    /**
+     * Find the fields of every line in a chunk, without creating strings.
+     */
+    static ParsedChunk parse(ByteBuffer buffer) {
+        int limit = buffer.limit();
+        int[] records = new int[STRIDE * 1024];
+        int count = 0;
+        int lines = 0;
+
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n')
+                lineEnd++;
+            int next = lineEnd + 1;
+            if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r')
+                lineEnd--;
+
+            int start = skipSpaces(buffer, lineStart, lineEnd);
+            if (start < lineEnd) {
+                if (count + STRIDE > records.length)
+                    records = Arrays.copyOf(records, records.length * 2);
+                parseLine(buffer, start, lineEnd, records, count);
+                records[count + 6] = lines;
+                count += STRIDE;
+            }
+
+            lines++;
+            lineStart = next;
+        }
+
+        return new ParsedChunk(buffer, records, count, lines);
+    }
+
+    /**
+     * Record the fields of one non-blank line. A malformed line is recorded with its start and the malformed flag.
+     */
+    private static void parseLine(ByteBuffer buffer, int start, int end, int[] records, int at) {
+        records[at] = start;
+        records[at + 7] = MALFORMED;
+
+        int firstComma = parseId(buffer, start, end, records, at, 1, SOURCE_ESCAPED);
+        if (firstComma == -1)
+            return;
+        int secondComma = parseId(buffer, firstComma + 1, end, records, at, 3, DESTINATION_ESCAPED);
+        if (secondComma == -1)
+            return;
+
+        int weightStart = skipSpaces(buffer, secondComma + 1, end);
+        int weightEnd = trimEnd(buffer, weightStart, end);
+        if (weightEnd == weightStart)
+            return;
+
+        // Parse the distance by hand, as a long so that overflow can be detected
+        boolean negative = buffer.get(weightStart) == '-';
+        int digit = negative ? weightStart + 1 : weightStart;
+        if (digit == weightEnd)
+            return;
+        long weight = 0;
+        for (; digit < weightEnd; digit++) {
+            int value = buffer.get(digit) - '0';
+            if (value < 0 || value > 9)
+                return;
+            weight = weight * 10 + value;
+            if (weight > Integer.MAX_VALUE)
+                return;
+        }
+
+        records[at + 5] = (int) (negative ? -weight : weight);
+        records[at + 7] &= ~MALFORMED;
+    }
+
+    /**
+     * Record where a non-empty id starts and ends, without its quotes if it is quoted, and flag it if it contains
+     * doubled quotes.
+     *
+     * @return The position of the comma after the id, or -1 if the id is malformed.
+     */
+    private static int parseId(ByteBuffer buffer, int from, int end, int[] records, int at, int field, int escaped) {
+        int start = skipSpaces(buffer, from, end);
+        if (start == end || buffer.get(start) != '"') {
+            int comma = indexOf(buffer, ',', start, end);
+            if (comma == -1)
+                return -1;
+            int idEnd = trimEnd(buffer, start, comma);
+            if (idEnd == start)
+                return -1;
+            records[at + field] = start;
+            records[at + field + 1] = idEnd;
+            return comma;
+        }
+
+        int close = start + 1;
+        while (true) {
+            if (close == end)
+                return -1;
+            if (buffer.get(close) == '"') {
+                if (close + 1 == end || buffer.get(close + 1) != '"')
+                    break;
+                records[at + 7] |= escaped;
+                close++;
+            }
+            close++;
+        }
+        int comma = skipSpaces(buffer, close + 1, end);
+        if (close == start + 1 || comma == end || buffer.get(comma) != ',')
+            return -1;
+        records[at + field] = start + 1;
+        records[at + field + 1] = close;
+        return comma;
+    }
+
+    private static int indexOf(ByteBuffer buffer, char character, int from, int to) {
+        for (int i = from; i < to; i++)
+            if (buffer.get(i) == character)
+                return i;
+        return -1;
+    }
+
+    private static int skipSpaces(ByteBuffer buffer, int from, int to) {
+        while (from < to && isSpace(buffer.get(from)))
+            from++;
+        return from;
+    }
+
+    private static int trimEnd(ByteBuffer buffer, int from, int to) {
+        while (to > from && isSpace(buffer.get(to - 1)))
+            to--;
+        return to;
+    }
+
+    private static boolean isSpace(byte character) {
+        return character == ' ' || character == '\t' || character == '\r';
+    }
+
+    /**
+     * The fields of every non-blank line of one chunk, {@link #STRIDE} ints per line.
+     */
+    record ParsedChunk(ByteBuffer buffer, int[] records, int length, int lineCount) {}
+
+    /**
+     * Why a line was not loaded.
+     */
+    public enum Reason {
+        /**
+         * The line is not three comma separated fields with a whole number distance that fits in an int.
+         */
+        MALFORMED,
+
+        /**
+         * The distance is negative.
+         */
+        NEGATIVE_WEIGHT,
+
+        /**
+         * The source and destination are the same airport.
+         */
+        SELF_LOOP,
+
+        /**
+         * There is already a flight between the two airports, in either direction, on an earlier line.
+         */
+        DUPLICATE
+    }
+
+    /**
+     * A line that was not loaded.
+     *
+     * @param lineNumber The line number, starting from 1.
+     * @param reason Why the line was not loaded.
+     * @param line The text of the line.
+     */
+    public record RejectedLine(long lineNumber, Reason reason, String line) {}
+
+    /**
+     * The outcome of loading an edge list.
+     */
+    public static final class Result {
+        private final String[] ids;
+        private final int[] sources;
+        private final int[] destinations;
+        private final int[] weights;
+        private final int edgeCount;
+        private final long rejectedCount;
+        private final List<RejectedLine> rejectedLines;
+        private CompactGraph graph;
+
+        private Result(String[] ids, int[] sources, int[] destinations, int[] weights, int edgeCount,
+                       long rejectedCount, List<RejectedLine> rejectedLines) {
+            this.ids = ids;
+            this.sources = sources;
+            this.destinations = destinations;
+            this.weights = weights;
+            this.edgeCount = edgeCount;
+            this.rejectedCount = rejectedCount;
+            this.rejectedLines = rejectedLines;
+        }
+
+        /**
+         * The loaded graph, built the first time it is asked for.
+         *
+         * @return The loaded graph in compact form.
+         */
+        public synchronized CompactGraph graph() {
+            if (graph == null)
+                graph = CompactGraph.fromEdges(ids, sources, destinations, weights, edgeCount);
+            return graph;
+        }
+
+        /**
+         * Build a mutable airport system with the loaded edges, added in file order. The result is the same as calling
+         * {@link AirportSystem#addEdge(String, String, int)} for every line, but without its duplicate checks.
+         *
+         * @return A new airport system with the loaded edges.
+         */
+        public AirportSystem toAirportSystem() {
+            AirportSystem system = new AirportSystem();
+            for (int i = 0; i < edgeCount; i++)
+                system.addVerifiedEdge(ids[sources[i]], ids[destinations[i]], weights[i]);
+            return system;
+        }
+
+        /**
+         * The number of lines that were loaded as edges.
+         *
+         * @return The number of edges.
+         */
+        public int edgeCount() {
+            return edgeCount;
+        }
+
+        /**
+         * The number of non-blank lines that were rejected, including those whose text was not kept.
+         *
+         * @return The number of rejected lines.
+         */
+        public long rejectedCount() {
+            return rejectedCount;
+        }
+
+        /**
+         * The rejected lines, in file order, up to the maximum the loader was configured to keep.
+         *
+         * @return The rejected lines.
+         */
+        public List<RejectedLine> rejectedLines() {
+            return rejectedLines;
+        }
+    }
+
+    /**
+     * Turns parsed chunks into edges, in file order.
+     */
+    private final class Resolver {
+        /**
+         * An open addressing hash table from id bytes to int id. Each slot holds an int id plus one, or 0 if empty.
+         */
+        private int[] idTable = new int[1 << 10];
+        private byte[][] idBytes = new byte[256][];
+        private int[] idHashes = new int[256];
+        private int idCount = 0;
+
+        /**
+         * An open addressing hash set of edges, each stored as its smaller id in the high half and its larger id in the
+         * low half. The larger id is never 0, so 0 marks an empty slot.
+         */
+        private long[] pairTable = new long[1 << 10];
+
+        private int[] sources = new int[1024];
+        private int[] destinations = new int[1024];
+        private int[] weights = new int[1024];
+        private int edgeCount = 0;
+
+        private final List<RejectedLine> rejectedLines = new ArrayList<>();
+        private long rejectedCount = 0;
+        private long linesBefore = 0;
+
+        void resolve(ParsedChunk chunk) {
+            ByteBuffer buffer = chunk.buffer();
+            int[] records = chunk.records();
+            for (int at = 0; at < chunk.length(); at += STRIDE) {
+                int lineStart = records[at];
+                int flags = records[at + 7];
+                long lineNumber = linesBefore + records[at + 6] + 1;
+                if ((flags & MALFORMED) != 0) {
+                    reject(buffer, lineStart, lineNumber, Reason.MALFORMED);
+                    continue;
+                }
+
+                int weight = records[at + 5];
+                if (weight < 0) {
+                    reject(buffer, lineStart, lineNumber, Reason.NEGATIVE_WEIGHT);
+                    continue;
+                }
+
+                // Ids with doubled quotes are the only ones copied, into a buffer of their own without the doubling
+                ByteBuffer sourceBuffer = buffer;
+                int sourceStart = records[at + 1];
+                int sourceEnd = records[at + 2];
+                if ((flags & SOURCE_ESCAPED) != 0) {
+                    sourceBuffer = unescape(buffer, sourceStart, sourceEnd);
+                    sourceStart = 0;
+                    sourceEnd = sourceBuffer.limit();
+                }
+                ByteBuffer destinationBuffer = buffer;
+                int destinationStart = records[at + 3];
+                int destinationEnd = records[at + 4];
+                if ((flags & DESTINATION_ESCAPED) != 0) {
+                    destinationBuffer = unescape(buffer, destinationStart, destinationEnd);
+                    destinationStart = 0;
+                    destinationEnd = destinationBuffer.limit();
+                }
+                if (sameBytes(sourceBuffer, sourceStart, sourceEnd, destinationBuffer, destinationStart,
+                        destinationEnd)) {
+                    reject(buffer, lineStart, lineNumber, Reason.SELF_LOOP);
+                    continue;
+                }
+
+                int source = idOf(sourceBuffer, sourceStart, sourceEnd);
+                int destination = idOf(destinationBuffer, destinationStart, destinationEnd);
+                if (!addPair(source, destination)) {
+                    reject(buffer, lineStart, lineNumber, Reason.DUPLICATE);
+                    continue;
+                }
+
+                if (edgeCount == sources.length) {
+                    sources = Arrays.copyOf(sources, edgeCount * 2);
+                    destinations = Arrays.copyOf(destinations, edgeCount * 2);
+                    weights = Arrays.copyOf(weights, edgeCount * 2);
+                }
+                sources[edgeCount] = source;
+                destinations[edgeCount] = destination;
+                weights[edgeCount] = weight;
+                edgeCount++;
+            }
+            linesBefore += chunk.lineCount();
+        }
+
+        Result finish() {
+            String[] ids = new String[idCount];
+            for (int i = 0; i < idCount; i++)
+                ids[i] = new String(idBytes[i], StandardCharsets.UTF_8);
+            return new Result(ids, sources, destinations, weights, edgeCount, rejectedCount, rejectedLines);
+        }
+
+        private void reject(ByteBuffer buffer, int lineStart, long lineNumber, Reason reason) {
+            rejectedCount++;
+            if (rejectedLines.size() >= maximumReported)
+                return;
+
+            int lineEnd = lineStart;
+            while (lineEnd < buffer.limit() && buffer.get(lineEnd) != '\n')
+                lineEnd++;
+            rejectedLines.add(new RejectedLine(
+                    lineNumber, reason, new String(bytes(buffer, lineStart, lineEnd), StandardCharsets.UTF_8).strip()
+            ));
+        }
+
+        /**
+         * Find the int id of the airport whose id is the given bytes, giving it the next id if it is new.
+         */
+        private int idOf(ByteBuffer buffer, int start, int end) {
+            int hash = 1;
+            for (int i = start; i < end; i++)
+                hash = 31 * hash + buffer.get(i);
+            hash ^= hash >>> 16;
+
+            int mask = idTable.length - 1;
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                int entry = idTable[slot];
+                if (entry == 0)
+                    break;
+                int id = entry - 1;
+                if (idHashes[id] == hash && matches(idBytes[id], buffer, start, end))
+                    return id;
+            }
+
+            if (idCount == idBytes.length) {
+                idBytes = Arrays.copyOf(idBytes, idCount * 2);
+                idHashes = Arrays.copyOf(idHashes, idCount * 2);
+            }
+            int id = idCount++;
+            idBytes[id] = bytes(buffer, start, end);
+            idHashes[id] = hash;
+            if (idCount * 2 > idTable.length)
+                rehashIds();
+            else
+                insertId(id);
+            return id;
+        }
+
+        private void insertId(int id) {
+            int mask = idTable.length - 1;
+            int slot = idHashes[id] & mask;
+            while (idTable[slot] != 0)
+                slot = (slot + 1) & mask;
+            idTable[slot] = id + 1;
+        }
+
+        private void rehashIds() {
+            idTable = new int[idTable.length * 2];
+            for (int id = 0; id < idCount; id++)
+                insertId(id);
+        }
+
+        /**
+         * Add an edge to the set of edges.
+         *
+         * @return False if the edge was already in the set.
+         */
+        private boolean addPair(int a, int b) {
+            long key = ((long) Math.min(a, b) << 32) | Math.max(a, b);
+            int mask = pairTable.length - 1;
+            int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+            for (; pairTable[slot] != 0; slot = (slot + 1) & mask)
+                if (pairTable[slot] == key)
+                    return false;
+            pairTable[slot] = key;
+
+            // Keep the table at most half full, counting this edge which is about to be added
+            if ((edgeCount + 1) * 2L > pairTable.length) {
+                long[] old = pairTable;
+                pairTable = new long[old.length * 2];
+                mask = pairTable.length - 1;
+                for (long entry : old) {
+                    if (entry == 0)
+                        continue;
+                    int newSlot = (int) ((entry * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+                    while (pairTable[newSlot] != 0)
+                        newSlot = (newSlot + 1) & mask;
+                    pairTable[newSlot] = entry;
+                }
+            }
+            return true;
+        }
+
+        private static boolean matches(byte[] id, ByteBuffer buffer, int start, int end) {
+            if (id.length != end - start)
+                return false;
+            for (int i = 0; i < id.length; i++)
+                if (id[i] != buffer.get(start + i))
+                    return false;
+            return true;
+        }
+
+        private static boolean sameBytes(ByteBuffer a, int aStart, int aEnd, ByteBuffer b, int bStart, int bEnd) {
+            if (aEnd - aStart != bEnd - bStart)
+                return false;
+            for (int i = 0; i < aEnd - aStart; i++)
+                if (a.get(aStart + i) != b.get(bStart + i))
+                    return false;
+            return true;
+        }
+
+        /**
+         * Copy the bytes of a quoted id, turning each doubled quote into one.
+         */
+        private static ByteBuffer unescape(ByteBuffer buffer, int start, int end) {
+            byte[] bytes = new byte[end - start];
+            int length = 0;
+            for (int i = start; i < end; i++) {
+                bytes[length++] = buffer.get(i);
+                if (buffer.get(i) == '"')
+                    i++;
+            }
+            return ByteBuffer.wrap(bytes, 0, length);
+        }
+
+        private static byte[] bytes(ByteBuffer buffer, int start, int end) {
+            byte[] bytes = new byte[end - start];
+            buffer.get(start, bytes);
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.main;
+
+/**
+ * The text formats a {@link GraphWriter} can write an airport system in.
+ */
+public enum GraphFormat {
+    /**
+     * One line per city with each of its flights, as printed by {@link AirportSystem#printGraph()}:
+     * <pre>
+     *     V: A | E: [A, B][A, D]
+     *     V: B | E: [B, A]
+     * </pre>
+     * Every flight appears twice, once from each end.
+     */
+    ADJACENCY_LIST,
+
+    /**
+     * An undirected Graphviz graph with a node statement per city and an edge statement per flight, labelled with
+     * its distance:
+     * <pre>
+     *     graph airports {
+     *       "A";
+     *       "A" -- "B" [label=281];
+     *     }
+     * </pre>
+     * Double quotes and backslashes in ids are escaped with a backslash.
+     */
+    DOT,
+
+    /**
+     * One {@code source,destination,distance} line per flight without a header, which {@link EdgeListLoader} can
+     * load back. Ids containing a comma or a double quote, or starting or ending with a space, are quoted as in RFC
+     * 4180. Ids containing a line break can not be written.
+     */
+    CSV
+}
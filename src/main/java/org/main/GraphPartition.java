@@ -0,0 +1,72 @@
+package org.main;
+
+/**
+ * An assignment of every vertex of a {@link CompactGraph} to one of a number of parts, made by
+ * {@link GraphPartitioner}.
+ */
+public final class GraphPartition {
+    /**
+     * The part of each vertex, indexed by int id.
+     */
+    private final int[] parts;
+
+    /**
+     * The number of vertexes in each part.
+     */
+    private final int[] partSizes;
+
+    private final int cutEdgeCount;
+
+    GraphPartition(int[] parts, int partCount, int cutEdgeCount) {
+        this.parts = parts;
+        this.partSizes = new int[partCount];
+        for (int part : parts)
+            partSizes[part]++;
+        this.cutEdgeCount = cutEdgeCount;
+    }
+
+    /**
+     * @return The number of parts, some of which may be empty if the graph has fewer vertexes than parts.
+     */
+    public int partCount() {
+        return partSizes.length;
+    }
+
+    /**
+     * @param vertex The int id of a vertex.
+     * @return The part the vertex is in.
+     */
+    public int partOf(int vertex) {
+        return parts[vertex];
+    }
+
+    /**
+     * @param part A part.
+     * @return The number of vertexes in the part.
+     */
+    public int partSize(int part) {
+        return partSizes[part];
+    }
+
+    /**
+     * @param part A part.
+     * @return The int ids of the vertexes in the part, in increasing order.
+     */
+    public int[] vertexes(int part) {
+        int[] vertexes = new int[partSizes[part]];
+        int count = 0;
+        for (int v = 0; v < parts.length; v++)
+            if (parts[v] == part)
+                vertexes[count++] = v;
+        return vertexes;
+    }
+
+    /**
+     * The number of edges whose ends are in different parts, which is what the partitioner tries to keep small.
+     *
+     * @return The number of cut edges.
+     */
+    public int cutEdgeCount() {
+        return cutEdgeCount;
+    }
+}
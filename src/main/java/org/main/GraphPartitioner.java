@@ -0,0 +1,316 @@
+package org.main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Splits a {@link CompactGraph} into parts of about the same number of vertexes with as few edges between parts as
+ * possible, in the multilevel style of METIS.
+ * <p>
+ * The graph is first coarsened by repeatedly merging each vertex with the neighbour it shares the heaviest edge with,
+ * so that the coarser graphs keep the shape of the original with ever fewer vertexes. Each coarse vertex weighs as
+ * much as the vertexes merged into it, and each coarse edge as much as the edges merged into it. The coarsest graph is
+ * split by growing each part breadth first from a random vertex, a few times over, keeping the split with the fewest
+ * cut edges. The split is then carried back to each finer graph in turn and improved there by moving vertexes on the
+ * border of a part to the neighbouring part they have more edges into, as long as no part grows too heavy.
+ * <p>
+ * Only the number of edges between parts is minimized, not their distances.
+ */
+public final class GraphPartitioner {
+    /**
+     * Coarsening stops once the graph has at most this many vertexes per part.
+     */
+    private static final int COARSEST_VERTEXES_PER_PART = 20;
+
+    /**
+     * How much heavier than an even share a part may get while refining.
+     */
+    private static final double IMBALANCE = 1.05;
+
+    private static final int INITIAL_TRIES = 4;
+
+    private static final int REFINEMENT_PASSES = 8;
+
+    private GraphPartitioner() {}
+
+    /**
+     * Split a graph into parts. The result only depends on the graph and the number of parts.
+     *
+     * @param graph The graph to split.
+     * @param partCount The number of parts, at least 1.
+     * @return Which part each vertex is in.
+     */
+    public static GraphPartition partition(CompactGraph graph, int partCount) {
+        if (partCount < 1)
+            throw new IllegalArgumentException("There must be at least one part: " + partCount);
+
+        Random random = new Random(graph.size() * 31L + partCount);
+        List<Level> levels = new ArrayList<>();
+        Level level = Level.of(graph);
+        levels.add(level);
+        while (level.size() > COARSEST_VERTEXES_PER_PART * partCount) {
+            Level coarser = level.coarsen(random);
+            // Matching hardly shrinks graphs such as stars, where most vertexes only have an already matched neighbour
+            if (coarser.size() > level.size() * 9 / 10)
+                break;
+            levels.add(coarser);
+            level = coarser;
+        }
+
+        int[] parts = null;
+        long bestCut = Long.MAX_VALUE;
+        for (int i = 0; i < INITIAL_TRIES; i++) {
+            int[] tried = level.growParts(partCount, random);
+            level.refine(tried, partCount);
+            long cut = level.cutWeight(tried);
+            if (cut < bestCut) {
+                parts = tried;
+                bestCut = cut;
+            }
+        }
+
+        for (int i = levels.size() - 2; i >= 0; i--) {
+            Level finer = levels.get(i);
+            int[] coarseParts = parts;
+            parts = new int[finer.size()];
+            for (int v = 0; v < parts.length; v++)
+                parts[v] = coarseParts[finer.coarseOf[v]];
+            finer.refine(parts, partCount);
+        }
+        return new GraphPartition(parts, partCount, (int) levels.get(0).cutWeight(parts));
+    }
+
+    /**
+     * A graph at one level of coarsening, in compressed sparse row form with vertex and edge weights.
+     */
+    private static final class Level {
+        final int[] offsets;
+        final int[] targets;
+        final int[] edgeWeights;
+        final int[] vertexWeights;
+        final long totalWeight;
+
+        /**
+         * The vertex of the next coarser level that each vertex was merged into, set by {@link #coarsen(Random)}.
+         */
+        int[] coarseOf;
+
+        Level(int[] offsets, int[] targets, int[] edgeWeights, int[] vertexWeights) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.edgeWeights = edgeWeights;
+            this.vertexWeights = vertexWeights;
+            long total = 0;
+            for (int weight : vertexWeights)
+                total += weight;
+            this.totalWeight = total;
+        }
+
+        static Level of(CompactGraph graph) {
+            int[] edgeWeights = new int[graph.targets().length];
+            Arrays.fill(edgeWeights, 1);
+            int[] vertexWeights = new int[graph.size()];
+            Arrays.fill(vertexWeights, 1);
+            return new Level(graph.offsets(), graph.targets(), edgeWeights, vertexWeights);
+        }
+
+        int size() {
+            return vertexWeights.length;
+        }
+
+        /**
+         * Merge each vertex with its unmatched neighbour across the heaviest edge, visiting vertexes in a random
+         * order, and build the graph of merged vertexes.
+         */
+        Level coarsen(Random random) {
+            int n = size();
+            int[] order = new int[n];
+            for (int v = 0; v < n; v++)
+                order[v] = v;
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+
+            int[] match = new int[n];
+            Arrays.fill(match, -1);
+            int[] firstMember = new int[n];
+            coarseOf = new int[n];
+            int coarseCount = 0;
+            for (int v : order) {
+                if (match[v] != -1)
+                    continue;
+                int partner = v;
+                int heaviest = 0;
+                for (int slot = offsets[v]; slot < offsets[v + 1]; slot++) {
+                    int u = targets[slot];
+                    if (match[u] == -1 && u != v && edgeWeights[slot] > heaviest) {
+                        partner = u;
+                        heaviest = edgeWeights[slot];
+                    }
+                }
+                match[v] = partner;
+                match[partner] = v;
+                firstMember[coarseCount] = v;
+                coarseOf[v] = coarseOf[partner] = coarseCount++;
+            }
+
+            int[] coarseWeights = new int[coarseCount];
+            for (int v = 0; v < n; v++)
+                coarseWeights[coarseOf[v]] += vertexWeights[v];
+
+            // Merge the edges of both members, finding a neighbour's slot from this coarse vertex through position
+            int[] coarseOffsets = new int[coarseCount + 1];
+            int[] coarseTargets = new int[targets.length];
+            int[] coarseEdgeWeights = new int[targets.length];
+            int[] position = new int[coarseCount];
+            Arrays.fill(position, -1);
+            int slotCount = 0;
+            for (int c = 0; c < coarseCount; c++) {
+                int start = slotCount;
+                coarseOffsets[c] = start;
+                int first = firstMember[c];
+                for (int member = first; ; member = match[first]) {
+                    for (int slot = offsets[member]; slot < offsets[member + 1]; slot++) {
+                        int neighbour = coarseOf[targets[slot]];
+                        if (neighbour == c)
+                            continue;
+                        if (position[neighbour] >= start) {
+                            coarseEdgeWeights[position[neighbour]] += edgeWeights[slot];
+                        } else {
+                            position[neighbour] = slotCount;
+                            coarseTargets[slotCount] = neighbour;
+                            coarseEdgeWeights[slotCount++] = edgeWeights[slot];
+                        }
+                    }
+                    if (member == match[first])
+                        break;
+                }
+            }
+            coarseOffsets[coarseCount] = slotCount;
+            return new Level(coarseOffsets, Arrays.copyOf(coarseTargets, slotCount),
+                    Arrays.copyOf(coarseEdgeWeights, slotCount), coarseWeights);
+        }
+
+        /**
+         * Grow all but the last part breadth first from a random unassigned vertex until it holds its share of the
+         * weight, starting again from another unassigned vertex whenever a part runs out of neighbours. Whatever is
+         * left goes to the last part.
+         */
+        int[] growParts(int partCount, Random random) {
+            int n = size();
+            int[] parts = new int[n];
+            Arrays.fill(parts, -1);
+            int[] queue = new int[n];
+            long assigned = 0;
+            int unassignedFrom = 0;
+            for (int part = 0; part < partCount - 1; part++) {
+                long goal = totalWeight * (part + 1) / partCount;
+                int head = 0;
+                int tail = 0;
+                while (assigned < goal) {
+                    if (head == tail) {
+                        int seed = random.nextInt(n);
+                        if (parts[seed] != -1) {
+                            while (unassignedFrom < n && parts[unassignedFrom] != -1)
+                                unassignedFrom++;
+                            if (unassignedFrom == n)
+                                break;
+                            seed = unassignedFrom;
+                        }
+                        parts[seed] = part;
+                        assigned += vertexWeights[seed];
+                        queue[tail++] = seed;
+                        continue;
+                    }
+                    int v = queue[head++];
+                    for (int slot = offsets[v]; slot < offsets[v + 1] && assigned < goal; slot++) {
+                        int u = targets[slot];
+                        if (parts[u] != -1)
+                            continue;
+                        parts[u] = part;
+                        assigned += vertexWeights[u];
+                        queue[tail++] = u;
+                    }
+                }
+            }
+            for (int v = 0; v < n; v++)
+                if (parts[v] == -1)
+                    parts[v] = partCount - 1;
+            return parts;
+        }
+
+        /**
+         * Greedily move vertexes to the neighbouring part they have the most edge weight into. A move must cut less
+         * edge weight, or cut as much and even out the parts, or take weight out of a part that is too heavy, and it
+         * must never make the destination part too heavy.
+         */
+        void refine(int[] parts, int partCount) {
+            long maximumWeight = (long) Math.ceil(totalWeight * IMBALANCE / partCount);
+            long[] partWeights = new long[partCount];
+            for (int v = 0; v < size(); v++)
+                partWeights[parts[v]] += vertexWeights[v];
+
+            long[] connection = new long[partCount];
+            int[] touched = new int[partCount];
+            for (int pass = 0; pass < REFINEMENT_PASSES; pass++) {
+                boolean moved = false;
+                for (int v = 0; v < size(); v++) {
+                    int part = parts[v];
+                    int touchedCount = 0;
+                    for (int slot = offsets[v]; slot < offsets[v + 1]; slot++) {
+                        int neighbourPart = parts[targets[slot]];
+                        if (connection[neighbourPart] == 0)
+                            touched[touchedCount++] = neighbourPart;
+                        connection[neighbourPart] += edgeWeights[slot];
+                    }
+
+                    int weight = vertexWeights[v];
+                    boolean overweight = partWeights[part] > maximumWeight;
+                    int best = -1;
+                    long bestGain = Long.MIN_VALUE;
+                    for (int i = 0; i < touchedCount; i++) {
+                        int other = touched[i];
+                        if (other == part || partWeights[other] + weight > maximumWeight)
+                            continue;
+                        long gain = connection[other] - connection[part];
+                        boolean worthIt = gain > 0 || overweight
+                                || gain == 0 && partWeights[other] + weight < partWeights[part];
+                        if (worthIt && (gain > bestGain
+                                || gain == bestGain && partWeights[other] < partWeights[best])) {
+                            best = other;
+                            bestGain = gain;
+                        }
+                    }
+                    for (int i = 0; i < touchedCount; i++)
+                        connection[touched[i]] = 0;
+
+                    if (best != -1) {
+                        parts[v] = best;
+                        partWeights[part] -= weight;
+                        partWeights[best] += weight;
+                        moved = true;
+                    }
+                }
+                if (!moved)
+                    break;
+            }
+        }
+
+        /**
+         * The total weight of the edges between different parts.
+         */
+        long cutWeight(int[] parts) {
+            long cut = 0;
+            for (int v = 0; v < size(); v++)
+                for (int slot = offsets[v]; slot < offsets[v + 1]; slot++)
+                    if (parts[targets[slot]] != parts[v])
+                        cut += edgeWeights[slot];
+            return cut / 2;
+        }
+    }
+}
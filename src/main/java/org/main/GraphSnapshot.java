@@ -0,0 +1,271 @@
+package org.main;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Saves a {@link CompactGraph} to a compact, versioned binary file and loads it back, so that a restarted service can
+ * answer queries without rebuilding the graph from text.
+ * <p>
+ * All numbers are little-endian. The file is laid out as:
+ * <pre>
+ *     int      magic "AIRG"
+ *     int      format version
+ *     int      flags (bit 0: locations are present)
+ *     int      vertex count V
+ *     int      slot count S (twice the number of edges)
+ *     int[V+1] offsets
+ *     int[S]   targets
+ *     int[S]   weights
+ *     double[2V] latitude and longitude of each vertex in degrees, only if flag bit 0 is set
+ *     int[V+1] where each id starts in the id bytes
+ *     byte[]   the UTF-8 bytes of every id, one after the other
+ *     long     CRC32C checksum of everything before it
+ * </pre>
+ * Locations are stored in degrees as they were given rather than as the unit vectors searches use, so a loaded graph
+ * has exactly the same locations as the saved one.
+ * <p>
+ * Loading maps the file into memory and copies each section into its array with a single bulk copy, so it runs at
+ * close to the speed of the disk.
+ */
+public final class GraphSnapshot {
+    static final int MAGIC = 0x47524941; // "AIRG" read little-endian
+    static final int FORMAT_VERSION = 2;
+    private static final int FLAG_LOCATIONS = 1;
+    private static final int HEADER_BYTES = 5 * Integer.BYTES;
+
+    /**
+     * The most bytes mapped at once, which keeps each mapping under the two gigabyte limit of a byte buffer.
+     */
+    private static final int MAXIMUM_MAPPING = 1 << 30;
+
+    private GraphSnapshot() {}
+
+    /**
+     * Write a graph to a snapshot file, replacing the file if it exists.
+     *
+     * @param graph The graph to save.
+     * @param path The file to write.
+     * @throws IOException If the file can not be written.
+     */
+    public static void write(CompactGraph graph, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer writer = new Writer(channel);
+            int vertexCount = graph.size();
+            byte[][] ids = new byte[vertexCount][];
+            for (int v = 0; v < vertexCount; v++)
+                ids[v] = graph.idOf(v).getBytes(StandardCharsets.UTF_8);
+
+            writer.putInt(MAGIC);
+            writer.putInt(FORMAT_VERSION);
+            writer.putInt(graph.hasLocations() ? FLAG_LOCATIONS : 0);
+            writer.putInt(vertexCount);
+            writer.putInt(graph.targets().length);
+            writer.putInts(graph.offsets());
+            writer.putInts(graph.targets());
+            writer.putInts(graph.weights());
+            if (graph.hasLocations())
+                for (double coordinate : graph.coordinates())
+                    writer.putDouble(coordinate);
+
+            int idOffset = 0;
+            writer.putInt(0);
+            for (byte[] id : ids)
+                writer.putInt(idOffset += id.length);
+            for (byte[] id : ids)
+                writer.putBytes(id);
+
+            writer.finish();
+        }
+    }
+
+    /**
+     * Load a graph from a snapshot file, checking its checksum.
+     *
+     * @param path The file to read.
+     * @return The loaded graph.
+     * @throws IOException If the file can not be read, is not a snapshot, has an unsupported version or is corrupt.
+     */
+    public static CompactGraph read(Path path) throws IOException {
+        return read(path, true);
+    }
+
+    /**
+     * Load a graph from a snapshot file.
+     *
+     * @param path The file to read.
+     * @param verify Whether to check the checksum, which means reading the whole file one extra time.
+     * @return The loaded graph.
+     * @throws IOException If the file can not be read, is not a snapshot, has an unsupported version or is corrupt.
+     */
+    public static CompactGraph read(Path path, boolean verify) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + Long.BYTES)
+                throw new IOException(path + " is too short to be a graph snapshot");
+
+            // The header is checked first so that a file of another kind is not reported as a corrupt snapshot
+            ByteBuffer header = map(channel, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC)
+                throw new IOException(path + " is not a graph snapshot");
+            int formatVersion = header.getInt();
+            if (formatVersion != FORMAT_VERSION)
+                throw new IOException(path + " has unsupported snapshot version " + formatVersion);
+
+            if (verify) {
+                long expected = map(channel, size - Long.BYTES, Long.BYTES).getLong();
+                if (expected != checksum(channel, size - Long.BYTES))
+                    throw new IOException(path + " is corrupt: checksum does not match");
+            }
+
+            int flags = header.getInt();
+            int vertexCount = header.getInt();
+            int slotCount = header.getInt();
+            if (vertexCount < 0 || slotCount < 0)
+                throw new IOException(path + " is corrupt: negative sizes");
+
+            long position = HEADER_BYTES;
+            int[] offsets = new int[vertexCount + 1];
+            position = readInts(channel, position, offsets);
+            int[] targets = new int[slotCount];
+            position = readInts(channel, position, targets);
+            int[] weights = new int[slotCount];
+            position = readInts(channel, position, weights);
+
+            double[] coordinates = null;
+            if ((flags & FLAG_LOCATIONS) != 0) {
+                coordinates = new double[vertexCount * 2];
+                position = readDoubles(channel, position, coordinates);
+            }
+
+            int[] idOffsets = new int[vertexCount + 1];
+            position = readInts(channel, position, idOffsets);
+            String[] ids = new String[vertexCount];
+            ByteBuffer idBytes = map(channel, position, idOffsets[vertexCount]);
+            byte[] id = new byte[64];
+            for (int v = 0; v < vertexCount; v++) {
+                int length = idOffsets[v + 1] - idOffsets[v];
+                if (id.length < length)
+                    id = new byte[length];
+                idBytes.get(id, 0, length);
+                ids[v] = new String(id, 0, length, StandardCharsets.UTF_8);
+            }
+
+            return new CompactGraph(ids, offsets, targets, weights, coordinates);
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, long length) throws IOException {
+        if (position + length > channel.size())
+            throw new IOException("Graph snapshot is truncated");
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    /**
+     * Fill an array from the file, mapping at most {@link #MAXIMUM_MAPPING} bytes at a time.
+     *
+     * @return The position just after the ints that were read.
+     */
+    private static long readInts(FileChannel channel, long position, int[] destination) throws IOException {
+        int perMapping = MAXIMUM_MAPPING / Integer.BYTES;
+        for (int start = 0; start < destination.length; start += perMapping) {
+            int length = Math.min(perMapping, destination.length - start);
+            map(channel, position, (long) length * Integer.BYTES).asIntBuffer().get(destination, start, length);
+            position += (long) length * Integer.BYTES;
+        }
+        return position;
+    }
+
+    private static long readDoubles(FileChannel channel, long position, double[] destination) throws IOException {
+        int perMapping = MAXIMUM_MAPPING / Double.BYTES;
+        for (int start = 0; start < destination.length; start += perMapping) {
+            int length = Math.min(perMapping, destination.length - start);
+            map(channel, position, (long) length * Double.BYTES).asDoubleBuffer().get(destination, start, length);
+            position += (long) length * Double.BYTES;
+        }
+        return position;
+    }
+
+    private static long checksum(FileChannel channel, long length) throws IOException {
+        CRC32C crc = new CRC32C();
+        for (long position = 0; position < length; position += MAXIMUM_MAPPING)
+            crc.update(map(channel, position, Math.min(MAXIMUM_MAPPING, length - position)));
+        return crc.getValue();
+    }
+
+    /**
+     * Writes little-endian values through a buffer, keeping a running checksum of everything written.
+     */
+    private static final class Writer {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        private final CRC32C crc = new CRC32C();
+
+        Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int value) throws IOException {
+            ensureSpace(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            ensureSpace(Double.BYTES);
+            buffer.putDouble(value);
+        }
+
+        void putInts(int[] values) throws IOException {
+            for (int start = 0; start < values.length; ) {
+                ensureSpace(Integer.BYTES);
+                int length = Math.min(values.length - start, buffer.remaining() / Integer.BYTES);
+                buffer.asIntBuffer().put(values, start, length);
+                buffer.position(buffer.position() + length * Integer.BYTES);
+                start += length;
+            }
+        }
+
+        void putBytes(byte[] values) throws IOException {
+            for (int start = 0; start < values.length; ) {
+                ensureSpace(1);
+                int length = Math.min(values.length - start, buffer.remaining());
+                buffer.put(values, start, length);
+                start += length;
+            }
+        }
+
+        /**
+         * Flush everything and append the checksum.
+         */
+        void finish() throws IOException {
+            flush();
+            buffer.putLong(crc.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+
+        private void ensureSpace(int bytes) throws IOException {
+            if (buffer.remaining() < bytes)
+                flush();
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package org.main;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.function.Predicate;
+
+/**
+ * Writes an {@link AirportSystem} as text in one of the {@link GraphFormat}s, streaming it out instead of building it
+ * in memory first. The text is built in a buffer of a few tens of kilobytes that is handed on to the destination
+ * whenever it fills up, so writing a network with millions of flights takes no more memory than writing a small one.
+ * <p>
+ * A writer can be limited to a subgraph of the cities that pass a filter, keeping only the flights between two of
+ * them. For example, to write the cities within two connections of Chicago:
+ * <pre>
+ *     BreadthFirstResult nearby = system.hopLevels("Chicago", 2);
+ *     new GraphWriter(GraphFormat.DOT, city -> nearby.level(city) != AirportSystem.UNREACHABLE).write(system, out);
+ * </pre>
+ * Cities are written in the order they were added.
+ */
+public final class GraphWriter {
+    /**
+     * The number of characters to collect before handing them on.
+     */
+    private static final int BUFFER_SIZE = 1 << 15;
+
+    private final GraphFormat format;
+
+    /**
+     * Which cities to write, or null for all of them.
+     */
+    private final Predicate<String> include;
+
+    /**
+     * Create a writer of whole airport systems.
+     *
+     * @param format The format to write.
+     */
+    public GraphWriter(GraphFormat format) {
+        this(format, null);
+    }
+
+    /**
+     * Create a writer of the subgraph of the cities that pass a filter.
+     *
+     * @param format The format to write.
+     * @param include Whether to write a city, given its id, or null to write every city.
+     */
+    public GraphWriter(GraphFormat format, Predicate<String> include) {
+        this.format = format;
+        this.include = include;
+    }
+
+    /**
+     * Write an airport system to a writer, which is flushed but not closed.
+     *
+     * @param system The airport system to write.
+     * @param out Where to write it.
+     * @throws IOException If the writer fails.
+     * @throws IllegalArgumentException If the format is CSV and a city's id contains a line break, which is checked
+     * before anything is written.
+     */
+    public void write(AirportSystem system, Writer out) throws IOException {
+        write(system, (buffer, last) -> {
+            out.append(buffer);
+            buffer.setLength(0);
+            if (last)
+                out.flush();
+        });
+    }
+
+    /**
+     * Write an airport system to a channel in UTF-8. The channel is not closed.
+     *
+     * @param system The airport system to write.
+     * @param channel Where to write it.
+     * @throws IOException If the channel fails.
+     * @throws IllegalArgumentException If the format is CSV and a city's id contains a line break, which is checked
+     * before anything is written.
+     */
+    public void write(AirportSystem system, WritableByteChannel channel) throws IOException {
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        // The encoder is fastest on an array, which only has to grow for a city with an enormously long id
+        char[][] chars = {new char[BUFFER_SIZE * 2]};
+        ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE * 3);
+
+        write(system, (buffer, last) -> {
+            if (chars[0].length < buffer.length())
+                chars[0] = new char[buffer.length()];
+            buffer.getChars(0, buffer.length(), chars[0], 0);
+            CharBuffer input = CharBuffer.wrap(chars[0], 0, buffer.length());
+            CoderResult result;
+            do {
+                result = encoder.encode(input, bytes, last);
+                if (result.isError())
+                    result.throwException();
+                drain(bytes, channel);
+            } while (result.isOverflow());
+
+            // Half of a surrogate pair at the end of the buffer is kept until the other half arrives
+            buffer.delete(0, input.position());
+            if (last) {
+                while (encoder.flush(bytes).isOverflow())
+                    drain(bytes, channel);
+                drain(bytes, channel);
+            }
+        });
+    }
+
+    private static void drain(ByteBuffer bytes, WritableByteChannel channel) throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining())
+            channel.write(bytes);
+        bytes.clear();
+    }
+
+    private void write(AirportSystem system, Sink sink) throws IOException {
+        BitSet included = null;
+        if (include != null) {
+            included = new BitSet(system.size());
+            for (int v = 0; v < system.size(); v++)
+                if (include.test(system.getVertex(v).getId()))
+                    included.set(v);
+        }
+        // EdgeListLoader reads a line at a time, so it could not load an id split over two lines
+        if (format == GraphFormat.CSV) {
+            for (int v = 0; v < system.size(); v++) {
+                String id = system.getVertex(v).getId();
+                if ((included == null || included.get(v)) && (id.indexOf('\n') != -1 || id.indexOf('\r') != -1))
+                    throw new IllegalArgumentException("Can not write an id with a line break as CSV: " + id);
+            }
+        }
+
+        StringBuilder buffer = new StringBuilder(BUFFER_SIZE + 256);
+        if (format == GraphFormat.DOT)
+            buffer.append("graph airports {\n");
+
+        for (int v = 0; v < system.size(); v++) {
+            if (included != null && !included.get(v))
+                continue;
+            AirportSystem.Vertex vertex = system.getVertex(v);
+            if (format == GraphFormat.ADJACENCY_LIST)
+                buffer.append("V: ").append(vertex.getId()).append(" | E: ");
+            else if (format == GraphFormat.DOT)
+                appendDotId(buffer.append("  "), vertex.getId()).append(";\n");
+
+            for (AirportSystem.Edge edge : vertex.getEdges()) {
+                AirportSystem.Vertex destination = edge.getDestination();
+                if (included != null && !included.get(destination.getIndex()))
+                    continue;
+
+                switch (format) {
+                    case ADJACENCY_LIST -> buffer.append('[').append(vertex.getId()).append(", ")
+                            .append(destination.getId()).append(']');
+                    case DOT -> {
+                        // Each flight is written once, from its end with the lower index
+                        if (destination.getIndex() < v)
+                            continue;
+                        appendDotId(buffer.append("  "), vertex.getId()).append(" -- ");
+                        appendDotId(buffer, destination.getId()).append(" [label=").append(edge.getDistance())
+                                .append("];\n");
+                    }
+                    case CSV -> {
+                        if (destination.getIndex() < v)
+                            continue;
+                        appendCsvId(buffer, vertex.getId()).append(',');
+                        appendCsvId(buffer, destination.getId()).append(',').append(edge.getDistance()).append('\n');
+                    }
+                }
+                // Checked per flight as well as per city, since a hub alone can have too many flights to buffer
+                if (buffer.length() >= BUFFER_SIZE)
+                    sink.accept(buffer, false);
+            }
+
+            if (format == GraphFormat.ADJACENCY_LIST)
+                buffer.append('\n');
+            if (buffer.length() >= BUFFER_SIZE)
+                sink.accept(buffer, false);
+        }
+
+        if (format == GraphFormat.DOT)
+            buffer.append("}\n");
+        sink.accept(buffer, true);
+    }
+
+    private static StringBuilder appendDotId(StringBuilder buffer, String id) {
+        buffer.append('"');
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c == '"' || c == '\\')
+                buffer.append('\\');
+            buffer.append(c);
+        }
+        return buffer.append('"');
+    }
+
+    /**
+     * Quote an id if it has a comma or double quote in it, or spaces around it that the loader would trim.
+     */
+    private static StringBuilder appendCsvId(StringBuilder buffer, String id) {
+        boolean quote = !id.isEmpty() && (isSpace(id.charAt(0)) || isSpace(id.charAt(id.length() - 1)));
+        for (int i = 0; i < id.length() && !quote; i++)
+            quote = id.charAt(i) == ',' || id.charAt(i) == '"';
+        if (!quote)
+            return buffer.append(id);
+        return buffer.append('"').append(id.replace("\"", "\"\"")).append('"');
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    /**
+     * Where the text goes, a buffer at a time.
+     */
+    private interface Sink {
+        /**
+         * Take the text out of the buffer, leaving any that could not be taken yet at its start.
+         *
+         * @param last Whether this is the end of the text.
+         */
+        void accept(StringBuilder buffer, boolean last) throws IOException;
+    }
+}
@@ -0,0 +1,171 @@
+package org.main;
+
+import java.util.Arrays;
+
+/**
+ * A binary min heap of int vertex ids keyed by int distances, which supports decreasing the key of a vertex that is
+ * already in the heap. Unlike a {@link java.util.PriorityQueue} of journeys, every vertex is in the heap at most once,
+ * so there are no stale entries and nothing is allocated once the heap has grown to the size of the graph.
+ */
+final class IndexedHeap {
+    /**
+     * The vertexes in the heap, in heap order.
+     */
+    private int[] heap = new int[16];
+
+    /**
+     * The key of each vertex that is in the heap, indexed by vertex.
+     */
+    private int[] keys = new int[0];
+
+    /**
+     * The position of each vertex in {@link #heap}, or -1 if the vertex is not in the heap, indexed by vertex.
+     */
+    private int[] positions = new int[0];
+
+    private int size = 0;
+
+    /**
+     * The largest size of the heap since {@link #resetPeakSize()}.
+     */
+    private int peakSize = 0;
+
+    /**
+     * Make sure the heap can hold vertexes with ids up to (but not including) the given capacity. The heap must be
+     * empty.
+     *
+     * @param capacity The number of vertexes in the graph.
+     */
+    void ensureCapacity(int capacity) {
+        if (positions.length < capacity) {
+            int oldLength = positions.length;
+            positions = Arrays.copyOf(positions, capacity);
+            Arrays.fill(positions, oldLength, capacity, -1);
+            keys = Arrays.copyOf(keys, capacity);
+        }
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * The largest number of vertexes that were in the heap at once since the last {@link #resetPeakSize()}.
+     */
+    int peakSize() {
+        return peakSize;
+    }
+
+    void resetPeakSize() {
+        peakSize = size;
+    }
+
+    boolean contains(int vertex) {
+        return positions[vertex] != -1;
+    }
+
+    /**
+     * The key of a vertex that is in the heap.
+     */
+    int key(int vertex) {
+        return keys[vertex];
+    }
+
+    /**
+     * The vertex with the smallest key, without removing it.
+     */
+    int peek() {
+        return heap[0];
+    }
+
+    /**
+     * The smallest key in the heap, or {@link Integer#MAX_VALUE} if the heap is empty.
+     */
+    int peekKey() {
+        return size == 0 ? Integer.MAX_VALUE : keys[heap[0]];
+    }
+
+    /**
+     * Add a vertex to the heap, or lower its key if it is already in the heap. Nothing happens if the vertex is
+     * already in the heap with a key that is not larger.
+     *
+     * @param vertex The vertex to add.
+     * @param key The key of the vertex.
+     */
+    void insertOrDecrease(int vertex, int key) {
+        int position = positions[vertex];
+        if (position == -1) {
+            if (size == heap.length)
+                heap = Arrays.copyOf(heap, size * 2);
+            position = size++;
+            if (size > peakSize)
+                peakSize = size;
+        } else if (key >= keys[vertex]) {
+            return;
+        }
+        keys[vertex] = key;
+        siftUp(vertex, position);
+    }
+
+    /**
+     * Remove and return the vertex with the smallest key.
+     *
+     * @return The vertex with the smallest key.
+     */
+    int poll() {
+        int top = heap[0];
+        positions[top] = -1;
+        int last = heap[--size];
+        if (size > 0)
+            siftDown(last, 0);
+        return top;
+    }
+
+    /**
+     * Remove every vertex from the heap. Costs time proportional to the number of vertexes left in the heap rather
+     * than the size of the graph.
+     */
+    void clear() {
+        for (int i = 0; i < size; i++)
+            positions[heap[i]] = -1;
+        size = 0;
+    }
+
+    private void siftUp(int vertex, int position) {
+        int key = keys[vertex];
+        while (position > 0) {
+            int parentPosition = (position - 1) >>> 1;
+            int parent = heap[parentPosition];
+            if (keys[parent] <= key)
+                break;
+            heap[position] = parent;
+            positions[parent] = position;
+            position = parentPosition;
+        }
+        heap[position] = vertex;
+        positions[vertex] = position;
+    }
+
+    private void siftDown(int vertex, int position) {
+        int key = keys[vertex];
+        int half = size >>> 1;
+        while (position < half) {
+            int childPosition = 2 * position + 1;
+            int child = heap[childPosition];
+            int rightPosition = childPosition + 1;
+            if (rightPosition < size && keys[heap[rightPosition]] < keys[child])
+                child = heap[childPosition = rightPosition];
+            if (key <= keys[child])
+                break;
+            heap[position] = child;
+            positions[child] = position;
+            position = childPosition;
+        }
+        heap[position] = vertex;
+        positions[vertex] = position;
+    }
+}
@@ -0,0 +1,79 @@
+package org.main;
+
+import java.util.Arrays;
+
+/**
+ * A map from non-negative int keys to int values using open addressing with linear probing, so that neither keys nor
+ * values are boxed. Its memory grows with the number of entries rather than with the largest key, which makes it
+ * suitable for state that only covers the part of a graph that has been explored.
+ */
+final class IntIntMap {
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private int[] values;
+    private int size = 0;
+
+    IntIntMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(8, expectedSize * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean containsKey(int key) {
+        return keys[find(key)] == key;
+    }
+
+    /**
+     * The value of a key, or the default if the key is not in the map.
+     */
+    int get(int key, int defaultValue) {
+        int slot = find(key);
+        return keys[slot] == key ? values[slot] : defaultValue;
+    }
+
+    void put(int key, int value) {
+        int slot = find(key);
+        if (keys[slot] == key) {
+            values[slot] = value;
+            return;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        // Keep the table at most half full so that probe sequences stay short
+        if (++size * 2 > keys.length)
+            grow();
+    }
+
+    /**
+     * The slot holding a key, or the empty slot where it would go.
+     */
+    private int find(int key) {
+        int mask = keys.length - 1;
+        int slot = (key * 0x9E3779B9 >>> 16 ^ key * 0x9E3779B9) & mask;
+        while (keys[slot] != key && keys[slot] != EMPTY)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package org.main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An itinerary through a {@link CompactGraph}: the airports visited in order and the distance flown to reach each of them.
+ * Two itineraries are equal if they visit the same airports in the same order.
+ */
+public final class Itinerary {
+    private final CompactGraph graph;
+
+    /**
+     * The int ids of the airports visited, from the origin to the destination.
+     */
+    private final int[] vertices;
+
+    /**
+     * The distance from the origin to each airport of the route, so the last entry is the length of the route.
+     */
+    private final int[] distances;
+
+    Itinerary(CompactGraph graph, int[] vertices, int[] distances) {
+        this.graph = graph;
+        this.vertices = vertices;
+        this.distances = distances;
+    }
+
+    /**
+     * The total distance of the route.
+     *
+     * @return The sum of the distances of every flight on the route.
+     */
+    public int distance() {
+        return distances[distances.length - 1];
+    }
+
+    /**
+     * The number of airports on the route, including the origin and the destination.
+     *
+     * @return The number of airports.
+     */
+    public int size() {
+        return vertices.length;
+    }
+
+    /**
+     * The number of flights on the route.
+     *
+     * @return One less than the number of airports.
+     */
+    public int flights() {
+        return vertices.length - 1;
+    }
+
+    /**
+     * The int id of an airport on the route.
+     *
+     * @param position The position on the route, where 0 is the origin.
+     * @return The int id of the airport.
+     */
+    public int vertex(int position) {
+        return vertices[position];
+    }
+
+    /**
+     * The distance flown from the origin to an airport on the route.
+     *
+     * @param position The position on the route, where 0 is the origin.
+     * @return The distance from the origin.
+     */
+    public int distanceTo(int position) {
+        return distances[position];
+    }
+
+    /**
+     * The ids of the airports on the route, from the origin to the destination.
+     *
+     * @return A new list of the airports.
+     */
+    public List<String> airports() {
+        List<String> airports = new ArrayList<>(vertices.length);
+        for (int vertex : vertices)
+            airports.add(graph.idOf(vertex));
+        return airports;
+    }
+
+    /**
+     * Whether the route starts with the same airports as the first airports of another route.
+     */
+    boolean startsWith(Itinerary other, int length) {
+        return vertices.length >= length && other.vertices.length >= length
+                && Arrays.equals(vertices, 0, length, other.vertices, 0, length);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        return o instanceof Itinerary other && Arrays.equals(vertices, other.vertices);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(vertices);
+    }
+
+    @Override
+    public String toString() {
+        return String.join(" -> ", airports()) + " (" + distance() + ")";
+    }
+}
@@ -0,0 +1,201 @@
+package org.main;
+
+import java.util.*;
+
+/**
+ * Finds {@link Itinerary itineraries} through a {@link CompactGraph}: the shortest one between two airports, and a
+ * ranked list of loopless alternatives using Yen's algorithm.
+ * <p>
+ * Every search runs on the calling thread's reusable {@link DijkstraEngine} state, which records the parent of each
+ * vertex in a primitive array, so the only allocations are the itineraries themselves. Yen's algorithm runs one spur
+ * search for each airport of each itinerary found, and all of them share that same state.
+ */
+public final class ItineraryEngine {
+    /**
+     * The vertexes that the current spur search may not pass through, marked with a generation stamp per thread.
+     */
+    private static final ThreadLocal<Blocked> BLOCKED = ThreadLocal.withInitial(Blocked::new);
+
+    private final CompactGraph graph;
+
+    public ItineraryEngine(CompactGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Find the shortest itinerary between two vertexes.
+     *
+     * @param source The int id of the origin.
+     * @param target The int id of the destination.
+     * @return The shortest itinerary, or null if there is no route.
+     */
+    public Itinerary shortest(int source, int target) {
+        DijkstraEngine.Search search = graph.dijkstra().search();
+        try {
+            search.start(source);
+            while (!search.heap.isEmpty()) {
+                if (search.settleNext(graph) == target)
+                    return reconstruct(search, target, null, 0);
+            }
+            return null;
+        } finally {
+            search.finish();
+        }
+    }
+
+    /**
+     * Find up to k loopless itineraries between two vertexes, shortest first, using Yen's algorithm. Each itinerary
+     * after the first leaves one of the earlier itineraries at some airport (the spur) and takes the shortest way to
+     * the destination that does not repeat any of the earlier itineraries or revisit an airport.
+     *
+     * @implNote Spur searches stop as soon as they can no longer stay within the maximum detour, so a tight detour
+     * limit makes the search much cheaper as well as shortening the list.
+     * @param source The int id of the origin.
+     * @param target The int id of the destination.
+     * @param k The most itineraries to return.
+     * @param maximumDetour The longest itinerary to return as a multiple of the shortest one, such as 1.5 for at most
+     *                      50% longer, or {@link Double#POSITIVE_INFINITY} for no limit.
+     * @return The itineraries in order of distance, or an empty list if there is no route.
+     * @throws IllegalArgumentException If the maximum detour is less than 1.
+     */
+    public List<Itinerary> kShortest(int source, int target, int k, double maximumDetour) {
+        if (!(maximumDetour >= 1))
+            throw new IllegalArgumentException("The maximum detour must be at least 1");
+
+        List<Itinerary> found = new ArrayList<>();
+        Itinerary shortest = k <= 0 ? null : shortest(source, target);
+        if (shortest == null)
+            return found;
+        found.add(shortest);
+
+        long limit = (long) Math.min(Integer.MAX_VALUE, Math.floor(shortest.distance() * maximumDetour));
+        Queue<Itinerary> candidates = new PriorityQueue<>(
+                Comparator.comparingInt(Itinerary::distance).thenComparingInt(Itinerary::size)
+        );
+        Set<Itinerary> seen = new HashSet<>(found);
+
+        while (found.size() < k) {
+            Itinerary previous = found.get(found.size() - 1);
+            for (int spurPosition = 0; spurPosition < previous.size() - 1; spurPosition++) {
+                Itinerary spur = spurSearch(previous, spurPosition, found, target, limit);
+                if (spur != null && seen.add(spur))
+                    candidates.add(spur);
+            }
+
+            Itinerary next = candidates.poll();
+            if (next == null)
+                break;
+            found.add(next);
+        }
+        return found;
+    }
+
+    /**
+     * Find the shortest itinerary that follows an earlier itinerary up to the spur and then leaves it, without reusing
+     * the root before the spur or any flight out of the spur that an itinerary with the same root already takes.
+     *
+     * @return The itinerary, or null if there is none within the limit.
+     */
+    private Itinerary spurSearch(Itinerary previous, int spurPosition, List<Itinerary> found, int target, long limit) {
+        int spur = previous.vertex(spurPosition);
+        int rootDistance = previous.distanceTo(spurPosition);
+
+        Blocked blocked = BLOCKED.get();
+        blocked.prepare(graph.size());
+        for (int i = 0; i < spurPosition; i++)
+            blocked.block(previous.vertex(i));
+
+        // The flights out of the spur already taken by itineraries sharing this root are blocked by their destination
+        int[] blockedNext = new int[found.size()];
+        int blockedCount = 0;
+        for (Itinerary itinerary : found)
+            if (itinerary.size() > spurPosition + 1 && itinerary.startsWith(previous, spurPosition + 1))
+                blockedNext[blockedCount++] = itinerary.vertex(spurPosition + 1);
+
+        DijkstraEngine.Search search = graph.dijkstra().search();
+        try {
+            search.start(spur);
+            while (!search.heap.isEmpty()) {
+                if ((long) rootDistance + search.heap.peekKey() > limit)
+                    return null;
+
+                int vertex = search.pollNext();
+                if (vertex == target)
+                    return reconstruct(search, target, previous, spurPosition);
+
+                int distance = search.distance(vertex);
+                for (int slot = graph.firstSlot(vertex), end = graph.endSlot(vertex); slot < end; slot++) {
+                    int neighbour = graph.target(slot);
+                    if (blocked.isBlocked(neighbour))
+                        continue;
+                    if (vertex == spur && contains(blockedNext, blockedCount, neighbour))
+                        continue;
+                    search.reach(neighbour, distance + graph.weight(slot), 0, vertex);
+                }
+            }
+            return null;
+        } finally {
+            search.finish();
+        }
+    }
+
+    /**
+     * Build an itinerary from the parents recorded by a search, after the first airports of a root itinerary.
+     *
+     * @param root The itinerary whose first airports come before the search's source, or null if there are none.
+     * @param rootLength The number of airports taken from the root, not counting the search's source.
+     */
+    private Itinerary reconstruct(DijkstraEngine.Search search, int target, Itinerary root, int rootLength) {
+        int searchLength = 0;
+        for (int vertex = target; vertex != -1; vertex = search.parent(vertex))
+            searchLength++;
+
+        int[] vertices = new int[rootLength + searchLength];
+        int[] distances = new int[vertices.length];
+        for (int i = 0; i < rootLength; i++) {
+            vertices[i] = root.vertex(i);
+            distances[i] = root.distanceTo(i);
+        }
+
+        int rootDistance = root == null ? 0 : root.distanceTo(rootLength);
+        int position = vertices.length;
+        for (int vertex = target; vertex != -1; vertex = search.parent(vertex)) {
+            vertices[--position] = vertex;
+            distances[position] = rootDistance + search.distance(vertex);
+        }
+        return new Itinerary(graph, vertices, distances);
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++)
+            if (values[i] == value)
+                return true;
+        return false;
+    }
+
+    /**
+     * A set of vertexes that is emptied in constant time by starting a new generation, like {@link DijkstraEngine}'s
+     * distances.
+     */
+    private static final class Blocked {
+        private int[] stamps = new int[0];
+        private int generation = 0;
+
+        void prepare(int vertexCount) {
+            if (stamps.length < vertexCount)
+                stamps = Arrays.copyOf(stamps, vertexCount);
+            if (++generation == 0) {
+                Arrays.fill(stamps, 0);
+                generation = 1;
+            }
+        }
+
+        void block(int vertex) {
+            stamps[vertex] = generation;
+        }
+
+        boolean isBlocked(int vertex) {
+            return stamps[vertex] == generation;
+        }
+    }
+}
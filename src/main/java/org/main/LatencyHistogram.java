@@ -0,0 +1,119 @@
+package org.main;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of latencies in the style of HdrHistogram, which records any non-negative long with a relative error of
+ * at most 1/64 (about 1.6%) using a fixed array of counters.
+ * <p>
+ * Values below 128 get a bucket each. Above that, every power of two range is split into 64 equal buckets, so the
+ * bucket for a value is found from its highest set bit and the 6 bits below it without any search. Recording is lock
+ * free, so one histogram can be shared by every thread.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int HALF_SUB_BUCKETS = 1 << (SUB_BUCKET_BITS - 1);
+
+    /**
+     * One bucket per value below 128, and then 64 for each of the 56 higher powers of two up to {@link Long#MAX_VALUE}.
+     */
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS + 1) * HALF_SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record a value.
+     *
+     * @param value The value to record.
+     * @throws IllegalArgumentException If the value is negative.
+     */
+    public void record(long value) {
+        if (value < 0)
+            throw new IllegalArgumentException("Latencies must not be negative: " + value);
+        counts.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * The number of values recorded.
+     *
+     * @return The number of values.
+     */
+    public long count() {
+        return count.get();
+    }
+
+    /**
+     * The largest value recorded, exactly.
+     *
+     * @return The largest value, or 0 if nothing has been recorded.
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * The mean of the values recorded, exactly.
+     *
+     * @return The mean, or 0 if nothing has been recorded.
+     */
+    public double mean() {
+        long recorded = count.get();
+        return recorded == 0 ? 0 : (double) sum.get() / recorded;
+    }
+
+    /**
+     * The value that a percentage of the recorded values are at or below, such as 99 for the 99th percentile.
+     *
+     * @param percentile The percentage, from 0 to 100.
+     * @return The largest value that falls in the same bucket as the percentile, which is never below the true value
+     * and at most 1/64 above it, or 0 if nothing has been recorded.
+     */
+    public long valueAtPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100))
+            throw new IllegalArgumentException("The percentile must be between 0 and 100: " + percentile);
+
+        long recorded = count.get();
+        if (recorded == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * recorded));
+
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank)
+                return Math.min(highestValueIn(bucket), max.get());
+        }
+        return max.get();
+    }
+
+    static int bucketOf(long value) {
+        int shift = Math.max(0, Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return shift * HALF_SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    static long lowestValueIn(int bucket) {
+        if (bucket < 2 * HALF_SUB_BUCKETS)
+            return bucket;
+        int shift = bucket / HALF_SUB_BUCKETS - 1;
+        return (long) (bucket - shift * HALF_SUB_BUCKETS) << shift;
+    }
+
+    static long highestValueIn(int bucket) {
+        if (bucket == BUCKET_COUNT - 1)
+            return Long.MAX_VALUE;
+        return lowestValueIn(bucket + 1) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count() + " mean=" + Math.round(mean()) + " p50=" + valueAtPercentile(50)
+                + " p99=" + valueAtPercentile(99) + " max=" + max();
+    }
+}
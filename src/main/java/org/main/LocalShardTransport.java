@@ -0,0 +1,68 @@
+package org.main;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link ShardTransport} to shards in the same process, each served by a thread of its own as if it were a separate
+ * node. Requests and responses are copied on the way, so a shard and its caller never share a buffer, just as if
+ * they had gone over a network.
+ */
+public final class LocalShardTransport implements ShardTransport {
+    private final ShardNode[] shards;
+    private final ExecutorService[] threads;
+    private final AtomicLong messageCount = new AtomicLong();
+    private final AtomicLong byteCount = new AtomicLong();
+
+    /**
+     * Start a thread for each shard.
+     *
+     * @param shards The shards, indexed by part.
+     */
+    public LocalShardTransport(ShardNode... shards) {
+        this.shards = shards.clone();
+        this.threads = new ExecutorService[shards.length];
+        for (int i = 0; i < shards.length; i++)
+            threads[i] = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("shard-" + i).daemon().factory());
+    }
+
+    @Override
+    public int shardCount() {
+        return shards.length;
+    }
+
+    @Override
+    public CompletableFuture<ByteBuffer> send(int shard, ByteBuffer request) {
+        ByteBuffer sent = copy(request);
+        return CompletableFuture.supplyAsync(() -> copy(shards[shard].handle(sent)), threads[shard]);
+    }
+
+    /**
+     * @return The number of requests and responses sent so far.
+     */
+    public long messageCount() {
+        return messageCount.get();
+    }
+
+    /**
+     * @return The number of bytes sent so far in requests and responses.
+     */
+    public long byteCount() {
+        return byteCount.get();
+    }
+
+    @Override
+    public void close() {
+        for (ExecutorService thread : threads)
+            thread.close();
+    }
+
+    private ByteBuffer copy(ByteBuffer message) {
+        messageCount.incrementAndGet();
+        byteCount.addAndGet(message.remaining());
+        return ByteBuffer.allocate(message.remaining()).put(message).flip();
+    }
+}
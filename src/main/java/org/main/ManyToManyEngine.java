@@ -0,0 +1,125 @@
+package org.main;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Computes {@link DistanceMatrix distance matrices} over a {@link CompactGraph} with one single-source Dijkstra search
+ * per source, instead of one search per pair. Sources are spread over several workers on an executor.
+ * <p>
+ * Workers take sources one at a time from a shared counter, so a few slow sources (such as hubs in a big component)
+ * do not leave the other workers idle. Each worker uses its thread's reusable {@link DijkstraEngine} state and writes
+ * straight into the result array, so the only allocation per job is the result itself.
+ */
+public final class ManyToManyEngine {
+    /**
+     * How many vertexes a search settles between checks for cancellation.
+     */
+    private static final int CANCELLATION_CHECK_INTERVAL = 4096;
+
+    private final CompactGraph graph;
+
+    public ManyToManyEngine(CompactGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Start computing the distances from every source to every target. Cancelling the returned future stops all the
+     * workers soon after, without waiting for their current search to finish.
+     *
+     * @param sources The int ids of the sources, or -1 for a source that does not exist.
+     * @param targets The int ids of the targets, or -1 for a target that does not exist.
+     * @param executor The executor to run the workers on.
+     * @param parallelism The number of workers to run at once, usually the number of threads of the executor.
+     * @return A future of the distance matrix.
+     */
+    public CompletableFuture<DistanceMatrix> submit(int[] sources, int[] targets, Executor executor, int parallelism) {
+        Job job = new Job(sources, targets);
+        int workers = Math.max(1, Math.min(parallelism, sources.length));
+        for (int i = 0; i < workers; i++)
+            executor.execute(job::work);
+        if (sources.length == 0)
+            job.complete(job.matrix);
+        return job;
+    }
+
+    /**
+     * A distance matrix being filled in by several workers.
+     */
+    private final class Job extends CompletableFuture<DistanceMatrix> {
+        private final int[] sources;
+        private final int[] targets;
+        private final DistanceMatrix matrix;
+
+        /**
+         * Whether each vertex is one of the targets, so that a search can stop once it has settled all of them.
+         */
+        private final boolean[] isTarget;
+        private final int distinctTargets;
+
+        private final AtomicInteger nextRow = new AtomicInteger();
+        private final AtomicInteger finishedRows = new AtomicInteger();
+
+        Job(int[] sources, int[] targets) {
+            this.sources = sources;
+            this.targets = targets;
+            this.matrix = new DistanceMatrix(sources.length, targets.length, new int[sources.length * targets.length]);
+
+            isTarget = new boolean[graph.size()];
+            int distinct = 0;
+            for (int target : targets) {
+                if (target != -1 && !isTarget[target]) {
+                    isTarget[target] = true;
+                    distinct++;
+                }
+            }
+            distinctTargets = distinct;
+        }
+
+        void work() {
+            try {
+                int row;
+                while (!isDone() && (row = nextRow.getAndIncrement()) < sources.length) {
+                    fillRow(row);
+                    if (finishedRows.incrementAndGet() == sources.length)
+                        complete(matrix);
+                }
+            } catch (Throwable throwable) {
+                completeExceptionally(throwable);
+            }
+        }
+
+        private void fillRow(int row) {
+            int[] distances = matrix.flat();
+            int offset = row * targets.length;
+            int source = sources[row];
+            if (source == -1) {
+                Arrays.fill(distances, offset, offset + targets.length, AirportSystem.UNREACHABLE);
+                return;
+            }
+
+            DijkstraEngine.Search search = graph.dijkstra().search();
+            try {
+                search.start(source);
+                int settledTargets = 0;
+                while (!search.heap.isEmpty() && settledTargets < distinctTargets) {
+                    if (search.settledCount % CANCELLATION_CHECK_INTERVAL == 0 && isDone())
+                        return;
+                    if (isTarget[search.settleNext(graph)])
+                        settledTargets++;
+                }
+
+                for (int column = 0; column < targets.length; column++) {
+                    int target = targets[column];
+                    distances[offset + column] = target != -1 && search.settled(target)
+                            ? search.distance(target)
+                            : AirportSystem.UNREACHABLE;
+                }
+            } finally {
+                search.finish();
+            }
+        }
+    }
+}
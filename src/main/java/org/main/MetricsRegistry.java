@@ -0,0 +1,110 @@
+package org.main;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link QueryListener} that aggregates every query it hears about: a {@link LatencyHistogram} and total work per
+ * {@link QueryStats.Operation}. It is thread safe, so one registry can be shared by several airport systems.
+ * <p>
+ * Slow queries can be logged as well by passing a second listener that only hears about queries over a threshold.
+ */
+public final class MetricsRegistry implements QueryListener {
+    private final Map<QueryStats.Operation, OperationMetrics> operations = new EnumMap<>(QueryStats.Operation.class);
+    private final long slowQueryNanos;
+    private final QueryListener slowQueries;
+
+    /**
+     * Make a registry that only aggregates.
+     */
+    public MetricsRegistry() {
+        this(Long.MAX_VALUE, stats -> {});
+    }
+
+    /**
+     * Make a registry that also passes queries that took at least a number of nanoseconds to another listener.
+     *
+     * @param slowQueryNanos The shortest time in nanoseconds that counts as slow.
+     * @param slowQueries The listener for slow queries.
+     */
+    public MetricsRegistry(long slowQueryNanos, QueryListener slowQueries) {
+        this.slowQueryNanos = slowQueryNanos;
+        this.slowQueries = slowQueries;
+        for (QueryStats.Operation operation : QueryStats.Operation.values())
+            operations.put(operation, new OperationMetrics());
+    }
+
+    @Override
+    public void queryCompleted(QueryStats stats) {
+        OperationMetrics metrics = operations.get(stats.operation());
+        metrics.latencies.record(stats.nanos());
+        metrics.settled.add(stats.settled());
+        metrics.relaxed.add(stats.relaxed());
+        metrics.heapPeak.accumulateAndGet(stats.heapPeak(), Math::max);
+        if (stats.allocatedBytes() > 0)
+            metrics.allocatedBytes.add(stats.allocatedBytes());
+
+        if (stats.nanos() >= slowQueryNanos)
+            slowQueries.queryCompleted(stats);
+    }
+
+    /**
+     * The latencies in nanoseconds of every query of an operation.
+     *
+     * @param operation The operation.
+     * @return The live histogram of latencies, which keeps changing as queries are recorded.
+     */
+    public LatencyHistogram latencies(QueryStats.Operation operation) {
+        return operations.get(operation).latencies;
+    }
+
+    /**
+     * The total work done by every query of an operation so far.
+     *
+     * @param operation The operation.
+     * @return The totals at the time of the call.
+     */
+    public Totals totals(QueryStats.Operation operation) {
+        OperationMetrics metrics = operations.get(operation);
+        return new Totals(
+                metrics.latencies.count(),
+                metrics.settled.sum(),
+                metrics.relaxed.sum(),
+                metrics.heapPeak.get(),
+                metrics.allocatedBytes.sum()
+        );
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (QueryStats.Operation operation : QueryStats.Operation.values()) {
+            if (latencies(operation).count() == 0)
+                continue;
+            builder.append(operation).append(": ").append(latencies(operation)).append(", ")
+                    .append(totals(operation)).append('\n');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * The total work done by the queries of one operation.
+     *
+     * @param queries The number of queries.
+     * @param settled The number of vertexes settled by all of them.
+     * @param relaxed The number of edges relaxed by all of them.
+     * @param heapPeak The largest heap or queue of any one of them.
+     * @param allocatedBytes The number of bytes allocated by all of them, as far as the JVM could measure.
+     */
+    public record Totals(long queries, long settled, long relaxed, int heapPeak, long allocatedBytes) {}
+
+    private static final class OperationMetrics {
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private final LongAdder settled = new LongAdder();
+        private final LongAdder relaxed = new LongAdder();
+        private final AtomicInteger heapPeak = new AtomicInteger();
+        private final LongAdder allocatedBytes = new LongAdder();
+    }
+}
@@ -0,0 +1,105 @@
+package org.main;
+
+import java.util.Arrays;
+
+/**
+ * The position of each edge in one vertex's edge list, keyed by the index of the vertex at the edge's other end, using
+ * open addressing with linear probing on primitive arrays. It lets {@link AirportSystem} find or replace the edge
+ * between two vertexes in constant time however many flights a hub has, instead of scanning its whole edge list.
+ */
+final class NeighbourIndex {
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private int[] positions;
+    private int size = 0;
+
+    NeighbourIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(8, expectedSize * 2 - 1)) << 1;
+        keys = new int[capacity];
+        positions = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * The position in the edge list of the edge to a neighbour, or -1 if there is none.
+     */
+    int get(int neighbour) {
+        int slot = find(neighbour);
+        return keys[slot] == neighbour ? positions[slot] : -1;
+    }
+
+    /**
+     * Record the position of the edge to a neighbour, replacing the old position if there already is one.
+     */
+    void put(int neighbour, int position) {
+        int slot = find(neighbour);
+        if (keys[slot] == neighbour) {
+            positions[slot] = position;
+            return;
+        }
+
+        keys[slot] = neighbour;
+        positions[slot] = position;
+        // Keep the table at most half full so that probe sequences stay short
+        if (++size * 2 > keys.length)
+            grow();
+    }
+
+    /**
+     * Remove the edge to a neighbour, if there is one.
+     */
+    void remove(int neighbour) {
+        int hole = find(neighbour);
+        if (keys[hole] != neighbour)
+            return;
+        size--;
+
+        // Shift later keys of the same probe run back into the hole instead of leaving a tombstone, unless that would
+        // move a key before the slot it hashes to
+        int mask = keys.length - 1;
+        for (int next = (hole + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = home(keys[next]);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                positions[hole] = positions[next];
+                hole = next;
+            }
+        }
+        keys[hole] = EMPTY;
+    }
+
+    private int home(int key) {
+        return (key * 0x9E3779B9 >>> 16 ^ key * 0x9E3779B9) & (keys.length - 1);
+    }
+
+    /**
+     * The slot holding a key, or the empty slot where it would go.
+     */
+    private int find(int key) {
+        int mask = keys.length - 1;
+        int slot = home(key);
+        while (keys[slot] != key && keys[slot] != EMPTY)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldPositions = positions;
+        keys = new int[oldKeys.length * 2];
+        positions = new int[oldPositions.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                positions[slot] = oldPositions[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.main;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * A long-indexed array of bytes, ints and longs stored outside the Java heap in direct byte buffers, for
+ * {@link OffHeapGraph}.
+ * <p>
+ * A single byte buffer can hold at most two gigabytes, so the array is split into chunks of a power of two bytes and
+ * an index is split into a chunk and a position with a shift and a mask. The chunk size is a multiple of 8, so an int
+ * or long never straddles two chunks. Only the last chunk is smaller than the others, so a small array only takes as
+ * much memory as it needs.
+ * <p>
+ * The memory is released as soon as {@link #release()} is called instead of whenever the garbage collector gets
+ * around to the buffers, which matters when they hold gigabytes. The array must not be used after that.
+ */
+final class OffHeapArray {
+    /**
+     * The default chunk size of one gigabyte.
+     */
+    static final int DEFAULT_CHUNK_SHIFT = 30;
+
+    /**
+     * Frees a direct buffer's memory straight away, or null if this JVM does not allow it.
+     */
+    private static final MethodHandle INVOKE_CLEANER = findCleaner();
+
+    private final int chunkShift;
+    private final long chunkMask;
+    private ByteBuffer[] chunks;
+    private long byteSize;
+
+    /**
+     * Allocate a zeroed array.
+     *
+     * @param byteSize The number of bytes.
+     * @param chunkShift The base 2 logarithm of the chunk size, at least 3 and at most 30.
+     */
+    OffHeapArray(long byteSize, int chunkShift) {
+        if (chunkShift < 3 || chunkShift > 30)
+            throw new IllegalArgumentException("The chunk shift must be between 3 and 30: " + chunkShift);
+        this.chunkShift = chunkShift;
+        this.chunkMask = (1L << chunkShift) - 1;
+        this.chunks = new ByteBuffer[0];
+        grow(byteSize);
+    }
+
+    long byteSize() {
+        return byteSize;
+    }
+
+    /**
+     * Make the array at least a number of bytes long, keeping its contents. The new bytes are zero.
+     */
+    void grow(long minimumBytes) {
+        if (minimumBytes <= byteSize)
+            return;
+
+        long chunkBytes = 1L << chunkShift;
+        int chunkCount = (int) ((minimumBytes + chunkMask) >>> chunkShift);
+        int oldCount = chunks.length;
+        chunks = Arrays.copyOf(chunks, chunkCount);
+
+        // A smaller last chunk has to become a whole chunk before more chunks can follow it
+        if (oldCount > 0 && chunks[oldCount - 1].capacity() < chunkBytes) {
+            ByteBuffer old = chunks[oldCount - 1];
+            ByteBuffer chunk = allocate(oldCount == chunkCount ? minimumBytes - ((long) (oldCount - 1) << chunkShift)
+                    : chunkBytes);
+            chunk.put(0, old, 0, old.capacity());
+            chunks[oldCount - 1] = chunk;
+            free(old);
+        }
+        for (int i = oldCount; i < chunkCount; i++)
+            chunks[i] = allocate(i == chunkCount - 1 ? minimumBytes - ((long) i << chunkShift) : chunkBytes);
+        byteSize = minimumBytes;
+    }
+
+    byte getByte(long index) {
+        return chunks[(int) (index >>> chunkShift)].get((int) (index & chunkMask));
+    }
+
+    void setByte(long index, byte value) {
+        chunks[(int) (index >>> chunkShift)].put((int) (index & chunkMask), value);
+    }
+
+    /**
+     * The int at an int index, which is at byte {@code index * 4}.
+     */
+    int getInt(long index) {
+        long at = index << 2;
+        return chunks[(int) (at >>> chunkShift)].getInt((int) (at & chunkMask));
+    }
+
+    void setInt(long index, int value) {
+        long at = index << 2;
+        chunks[(int) (at >>> chunkShift)].putInt((int) (at & chunkMask), value);
+    }
+
+    /**
+     * The long at a long index, which is at byte {@code index * 8}.
+     */
+    long getLong(long index) {
+        long at = index << 3;
+        return chunks[(int) (at >>> chunkShift)].getLong((int) (at & chunkMask));
+    }
+
+    void setLong(long index, long value) {
+        long at = index << 3;
+        chunks[(int) (at >>> chunkShift)].putLong((int) (at & chunkMask), value);
+    }
+
+    /**
+     * Free the memory. Any later access throws an exception instead of reading freed memory, since the chunks are
+     * dropped before they are freed.
+     */
+    void release() {
+        ByteBuffer[] released = chunks;
+        chunks = new ByteBuffer[0];
+        byteSize = 0;
+        for (ByteBuffer chunk : released)
+            free(chunk);
+    }
+
+    private static ByteBuffer allocate(long bytes) {
+        return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+    }
+
+    private static void free(ByteBuffer buffer) {
+        if (INVOKE_CLEANER == null)
+            return;
+        try {
+            INVOKE_CLEANER.invoke(buffer);
+        } catch (Throwable exception) {
+            throw new IllegalStateException("Could not free an off-heap buffer", exception);
+        }
+    }
+
+    private static MethodHandle findCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            MethodHandle cleaner = MethodHandles.lookup().findVirtual(
+                    unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class)
+            );
+            return cleaner.bindTo(field.get(null));
+        } catch (ReflectiveOperationException | RuntimeException exception) {
+            // Without it the buffers are still freed, just later, once they have been garbage collected
+            return null;
+        }
+    }
+}
@@ -0,0 +1,521 @@
+package org.main;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A read-only airport network whose edges and ids are stored outside the Java heap, for networks with hundreds of
+ * millions of edges that would not fit in the heap as an {@link AirportSystem} or {@link CompactGraph}.
+ * <p>
+ * The layout is the same compressed sparse row form as {@link CompactGraph}, but every array lives in an
+ * {@link OffHeapArray} and slots are numbered with longs, so the number of edges is not limited by the size of a Java
+ * array. The ids are stored as UTF-8 bytes with an open addressing hash table over them. Only the per-query state of
+ * a search (one or two ints per vertex) is on the heap, and vertexes are far fewer than edges.
+ * <p>
+ * Build one with a {@link Builder}, which stages edges off-heap as well, or copy an existing graph with
+ * {@link #of(CompactGraph)} or {@link AirportSystem#toOffHeap()}. The query methods are the same as those of
+ * {@link CompactGraph}.
+ * <p>
+ * The memory is released by {@link #close()}, which waits for queries that are running on other threads to finish.
+ * Any query after that throws an {@link IllegalStateException}.
+ */
+public final class OffHeapGraph implements AutoCloseable {
+    private static final ThreadLocal<DijkstraEngine.Search> SCRATCH =
+            ThreadLocal.withInitial(DijkstraEngine.Search::new);
+
+    private final int vertexCount;
+    private final long edgeCount;
+
+    /**
+     * The first slot of each vertex, as longs, with one extra trailing entry.
+     */
+    private final OffHeapArray offsets;
+
+    /**
+     * The int id of the vertex at the other end of each slot, and the distance of the flight in each slot.
+     */
+    private final OffHeapArray targets;
+    private final OffHeapArray weights;
+
+    /**
+     * Where each id starts in {@link #idBytes}, as longs, with one extra trailing entry.
+     */
+    private final OffHeapArray idOffsets;
+    private final OffHeapArray idBytes;
+
+    /**
+     * An open addressing hash table from the hash of an id to its int id plus one, or 0 if the slot is empty.
+     */
+    private final OffHeapArray idTable;
+    private final int idTableMask;
+
+    /**
+     * Queries hold the read lock so that {@link #close()} can not free the memory under them.
+     */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean closed = false;
+
+    private OffHeapGraph(int vertexCount, long edgeCount, OffHeapArray offsets, OffHeapArray targets,
+                         OffHeapArray weights, OffHeapArray idOffsets, OffHeapArray idBytes, OffHeapArray idTable,
+                         int idTableMask) {
+        this.vertexCount = vertexCount;
+        this.edgeCount = edgeCount;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.idOffsets = idOffsets;
+        this.idBytes = idBytes;
+        this.idTable = idTable;
+        this.idTableMask = idTableMask;
+    }
+
+    /**
+     * Copy a compact graph off the heap, keeping its int ids and the order of its neighbours.
+     *
+     * @param graph The graph to copy.
+     * @return The off-heap copy.
+     */
+    public static OffHeapGraph of(CompactGraph graph) {
+        return of(graph, OffHeapArray.DEFAULT_CHUNK_SHIFT);
+    }
+
+    static OffHeapGraph of(CompactGraph graph, int chunkShift) {
+        int vertexCount = graph.size();
+        long slotCount = graph.edgeCount() * 2L;
+        OffHeapArray offsets = new OffHeapArray((vertexCount + 1L) * Long.BYTES, chunkShift);
+        OffHeapArray targets = new OffHeapArray(Math.max(1, slotCount * Integer.BYTES), chunkShift);
+        OffHeapArray weights = new OffHeapArray(Math.max(1, slotCount * Integer.BYTES), chunkShift);
+        for (int v = 0; v < vertexCount; v++)
+            offsets.setLong(v, graph.firstSlot(v));
+        offsets.setLong(vertexCount, slotCount);
+        for (int slot = 0; slot < slotCount; slot++) {
+            targets.setInt(slot, graph.target(slot));
+            weights.setInt(slot, graph.weight(slot));
+        }
+        return withIds(graph.getConnections(), graph.edgeCount(), offsets, targets, weights, chunkShift);
+    }
+
+    /**
+     * Store the ids off-heap along with a hash table over them that is at most half full, and make the graph.
+     */
+    private static OffHeapGraph withIds(List<String> ids, long edgeCount, OffHeapArray offsets, OffHeapArray targets,
+                                        OffHeapArray weights, int chunkShift) {
+        int vertexCount = ids.size();
+        OffHeapArray idOffsets = new OffHeapArray((vertexCount + 1L) * Long.BYTES, chunkShift);
+        OffHeapArray idBytes = new OffHeapArray(1, chunkShift);
+        int tableSize = Integer.highestOneBit(Math.max(2, vertexCount) * 2 - 1) << 1;
+        OffHeapArray idTable = new OffHeapArray((long) tableSize * Integer.BYTES, chunkShift);
+
+        long position = 0;
+        for (int v = 0; v < vertexCount; v++) {
+            byte[] bytes = ids.get(v).getBytes(StandardCharsets.UTF_8);
+            idOffsets.setLong(v, position);
+            if (position + bytes.length > idBytes.byteSize())
+                idBytes.grow(Math.max(position + bytes.length, idBytes.byteSize() * 2));
+            for (byte b : bytes)
+                idBytes.setByte(position++, b);
+
+            int slot = hash(bytes) & (tableSize - 1);
+            while (idTable.getInt(slot) != 0)
+                slot = (slot + 1) & (tableSize - 1);
+            idTable.setInt(slot, v + 1);
+        }
+        idOffsets.setLong(vertexCount, position);
+
+        return new OffHeapGraph(vertexCount, edgeCount, offsets, targets, weights, idOffsets, idBytes, idTable,
+                tableSize - 1);
+    }
+
+    /**
+     * Obtain the number of vertexes in the graph.
+     *
+     * @return Number of vertexes in the graph.
+     */
+    public int size() {
+        return vertexCount;
+    }
+
+    /**
+     * Obtain the number of undirected edges in the graph.
+     *
+     * @return Number of edges in the graph.
+     */
+    public long edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * The number of bytes of memory the graph holds outside the heap.
+     *
+     * @return The off-heap bytes, or 0 once the graph has been closed.
+     */
+    public long offHeapBytes() {
+        return offsets.byteSize() + targets.byteSize() + weights.byteSize() + idOffsets.byteSize()
+                + idBytes.byteSize() + idTable.byteSize();
+    }
+
+    /**
+     * Get the int id of a vertex.
+     *
+     * @param id The string id of the vertex.
+     * @return The int id of the vertex, or -1 if there is no such vertex.
+     */
+    public int indexOf(String id) {
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            return find(id.getBytes(StandardCharsets.UTF_8));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the string id of a vertex.
+     *
+     * @param index The int id of the vertex.
+     * @return The string id of the vertex.
+     */
+    public String idOf(int index) {
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            return id(index);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the shortest distance between city A and city B using Dijkstra's algorithm.
+     *
+     * @param cityA The starting city.
+     * @param cityB The destination city.
+     * @return The shortest distance between the two, or {@link AirportSystem#UNREACHABLE} if there is no route or
+     * either city does not exist.
+     */
+    public int shortestDistance(String cityA, String cityB) {
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            int source = find(cityA.getBytes(StandardCharsets.UTF_8));
+            int target = find(cityB.getBytes(StandardCharsets.UTF_8));
+            if (source == -1 || target == -1)
+                return AirportSystem.UNREACHABLE;
+            return distance(source, target);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Visit every vertex reachable from the start vertex in breadth first order.
+     *
+     * @param start The root vertex to begin from.
+     * @return A list of all the cities from the start using BFS, or an empty list if the start does not exist.
+     */
+    public List<String> breadthFirstSearch(String start) {
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            int root = find(start.getBytes(StandardCharsets.UTF_8));
+            if (root == -1)
+                return new ArrayList<>();
+
+            int[] queue = new int[vertexCount];
+            boolean[] visited = new boolean[vertexCount];
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = root;
+            visited[root] = true;
+            while (head < tail) {
+                int vertex = queue[head++];
+                for (long slot = offsets.getLong(vertex), end = offsets.getLong(vertex + 1); slot < end; slot++) {
+                    int neighbour = targets.getInt(slot);
+                    if (!visited[neighbour]) {
+                        visited[neighbour] = true;
+                        queue[tail++] = neighbour;
+                    }
+                }
+            }
+
+            List<String> visitedIds = new ArrayList<>(tail);
+            for (int i = 0; i < tail; i++)
+                visitedIds.add(id(queue[i]));
+            return visitedIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtain a minimum spanning tree of the component containing the root.
+     *
+     * @implNote Uses Prim's algorithm with an {@link IndexedHeap} keyed by the shortest flight from each vertex to the
+     * tree, so the heap never holds more than one entry per vertex no matter how many edges there are.
+     * @param root The vertex to grow the tree from.
+     * @return Minimum spanning tree of the component containing the root, or an empty list if the root does not
+     * exist.
+     */
+    public List<CompactGraph.Edge> minimumSpanningTree(String root) {
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            List<CompactGraph.Edge> spanningTree = new ArrayList<>();
+            int rootIndex = find(root.getBytes(StandardCharsets.UTF_8));
+            if (rootIndex == -1)
+                return spanningTree;
+
+            boolean[] inTree = new boolean[vertexCount];
+            int[] parents = new int[vertexCount];
+            IndexedHeap heap = new IndexedHeap();
+            heap.ensureCapacity(vertexCount);
+            heap.insertOrDecrease(rootIndex, 0);
+            parents[rootIndex] = -1;
+
+            while (!heap.isEmpty()) {
+                int weight = heap.peekKey();
+                int vertex = heap.poll();
+                inTree[vertex] = true;
+                if (parents[vertex] != -1)
+                    spanningTree.add(new CompactGraph.Edge(id(parents[vertex]), id(vertex), weight));
+
+                for (long slot = offsets.getLong(vertex), end = offsets.getLong(vertex + 1); slot < end; slot++) {
+                    int neighbour = targets.getInt(slot);
+                    int distance = weights.getInt(slot);
+                    if (inTree[neighbour] || (heap.contains(neighbour) && heap.key(neighbour) <= distance))
+                        continue;
+                    heap.insertOrDecrease(neighbour, distance);
+                    parents[neighbour] = vertex;
+                }
+            }
+            return spanningTree;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Free the off-heap memory, waiting for queries running on other threads to finish first. Closing an already
+     * closed graph does nothing.
+     */
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (closed)
+                return;
+            closed = true;
+            offsets.release();
+            targets.release();
+            weights.release();
+            idOffsets.release();
+            idBytes.release();
+            idTable.release();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void checkOpen() {
+        if (closed)
+            throw new IllegalStateException("The graph has been closed");
+    }
+
+    private int distance(int source, int target) {
+        if (source == target)
+            return 0;
+
+        DijkstraEngine.Search search = SCRATCH.get();
+        search.prepare(vertexCount);
+        try {
+            search.start(source);
+            while (!search.heap.isEmpty()) {
+                int vertex = search.pollNext();
+                int distance = search.distance(vertex);
+                if (vertex == target)
+                    return distance;
+                for (long slot = offsets.getLong(vertex), end = offsets.getLong(vertex + 1); slot < end; slot++)
+                    search.reach(targets.getInt(slot), distance + weights.getInt(slot));
+            }
+            return AirportSystem.UNREACHABLE;
+        } finally {
+            search.finish();
+        }
+    }
+
+    private String id(int index) {
+        long start = idOffsets.getLong(index);
+        byte[] bytes = new byte[(int) (idOffsets.getLong(index + 1) - start)];
+        for (int i = 0; i < bytes.length; i++)
+            bytes[i] = idBytes.getByte(start + i);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Look up the int id of an id given as UTF-8 bytes.
+     *
+     * @return The int id, or -1 if there is no such id.
+     */
+    private int find(byte[] id) {
+        for (int slot = hash(id) & idTableMask; ; slot = (slot + 1) & idTableMask) {
+            int entry = idTable.getInt(slot);
+            if (entry == 0)
+                return -1;
+            if (matches(entry - 1, id))
+                return entry - 1;
+        }
+    }
+
+    private boolean matches(int index, byte[] id) {
+        long start = idOffsets.getLong(index);
+        if (idOffsets.getLong(index + 1) - start != id.length)
+            return false;
+        for (int i = 0; i < id.length; i++)
+            if (idBytes.getByte(start + i) != id[i])
+                return false;
+        return true;
+    }
+
+    private static int hash(byte[] id) {
+        int hash = Arrays.hashCode(id);
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Builds an {@link OffHeapGraph} from a stream of edges without holding them on the heap. The only heap memory
+     * used is a map from each id to its int id, which is dropped by {@link #build()}.
+     * <p>
+     * Edges must follow the rules of {@link AirportSystem#addEdge(String, String, int)}. Negative distances and
+     * flights from a city to itself are rejected, but duplicate flights are not looked for, since that would need a
+     * set of every edge on the heap; the caller must not add the same flight twice. Neighbours are stored in the
+     * order their edges are added, just like an airport system that had the same edges added in the same order.
+     */
+    public static final class Builder {
+        private static final int INITIAL_EDGES = 1 << 12;
+
+        private final int chunkShift;
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<String> ids = new ArrayList<>();
+
+        /**
+         * The edges added so far, as source, destination and weight ints one after the other.
+         */
+        private OffHeapArray edges;
+        private long edgeCount = 0;
+        private boolean built = false;
+
+        public Builder() {
+            this(OffHeapArray.DEFAULT_CHUNK_SHIFT);
+        }
+
+        /**
+         * @param chunkShift The base 2 logarithm of the size of each off-heap chunk, so that tests can cross chunk
+         *                   boundaries with small graphs.
+         */
+        Builder(int chunkShift) {
+            this.chunkShift = chunkShift;
+            this.edges = new OffHeapArray(3L * Integer.BYTES * INITIAL_EDGES, chunkShift);
+        }
+
+        /**
+         * Add an edge, creating its cities if they are new.
+         *
+         * @param source The source of the edge.
+         * @param destination The destination of the edge.
+         * @param weight The length of the edge.
+         * @return False if the weight is negative or the source and destination are the same, otherwise true.
+         */
+        public boolean addEdge(String source, String destination, int weight) {
+            if (weight < 0 || source.equals(destination))
+                return false;
+            addEdge(idOf(source), idOf(destination), weight);
+            return true;
+        }
+
+        /**
+         * The number of edges added so far.
+         *
+         * @return The number of edges.
+         */
+        public long edgeCount() {
+            return edgeCount;
+        }
+
+        /**
+         * Get the int id of a city, giving it the next int id if it is new.
+         */
+        private int idOf(String id) {
+            Integer index = indexes.get(id);
+            if (index != null)
+                return index;
+            indexes.put(id, ids.size());
+            ids.add(id);
+            return ids.size() - 1;
+        }
+
+        private void addEdge(int source, int destination, int weight) {
+            if (built)
+                throw new IllegalStateException("The graph has already been built");
+            long at = edgeCount * 3;
+            if ((at + 3) * Integer.BYTES > edges.byteSize())
+                edges.grow(edges.byteSize() * 2);
+            edges.setInt(at, source);
+            edges.setInt(at + 1, destination);
+            edges.setInt(at + 2, weight);
+            edgeCount++;
+        }
+
+        /**
+         * Lay the edges out in compressed sparse row form and release the staging memory. The builder can not be used
+         * afterwards.
+         *
+         * @return The graph.
+         */
+        public OffHeapGraph build() {
+            if (built)
+                throw new IllegalStateException("The graph has already been built");
+            built = true;
+            int vertexCount = ids.size();
+
+            // Count the degree of each vertex into the entry after it, then sum them into the first slot of each
+            OffHeapArray offsets = new OffHeapArray((vertexCount + 1L) * Long.BYTES, chunkShift);
+            for (long i = 0; i < edgeCount; i++) {
+                int source = edges.getInt(i * 3);
+                int destination = edges.getInt(i * 3 + 1);
+                offsets.setLong(source + 1, offsets.getLong(source + 1) + 1);
+                offsets.setLong(destination + 1, offsets.getLong(destination + 1) + 1);
+            }
+            for (int v = 0; v < vertexCount; v++)
+                offsets.setLong(v + 1, offsets.getLong(v + 1) + offsets.getLong(v));
+
+            // Fill each vertex's slots in edge order, using a moving cursor per vertex
+            OffHeapArray cursors = new OffHeapArray(Math.max(1, vertexCount) * (long) Long.BYTES, chunkShift);
+            for (int v = 0; v < vertexCount; v++)
+                cursors.setLong(v, offsets.getLong(v));
+            OffHeapArray targets = new OffHeapArray(Math.max(1, edgeCount * 2 * Integer.BYTES), chunkShift);
+            OffHeapArray weights = new OffHeapArray(Math.max(1, edgeCount * 2 * Integer.BYTES), chunkShift);
+            for (long i = 0; i < edgeCount; i++) {
+                int source = edges.getInt(i * 3);
+                int destination = edges.getInt(i * 3 + 1);
+                int weight = edges.getInt(i * 3 + 2);
+                long slot = cursors.getLong(source);
+                cursors.setLong(source, slot + 1);
+                targets.setInt(slot, destination);
+                weights.setInt(slot, weight);
+                slot = cursors.getLong(destination);
+                cursors.setLong(destination, slot + 1);
+                targets.setInt(slot, source);
+                weights.setInt(slot, weight);
+            }
+            cursors.release();
+            edges.release();
+
+            OffHeapGraph graph = withIds(ids, edgeCount, offsets, targets, weights, chunkShift);
+            indexes.clear();
+            ids.clear();
+            return graph;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.main;
+
+/**
+ * Searches for the shortest distance between one origin and one destination in a {@link CompactGraph} that explore
+ * less of the graph than plain Dijkstra's algorithm.
+ * <p>
+ * Both searches reuse the per-thread state of {@link DijkstraEngine}, so like it they allocate nothing once warmed up.
+ */
+public final class PointToPointEngine {
+    /**
+     * The state of the search from the destination. The search from the origin uses {@link DijkstraEngine}'s state.
+     */
+    private static final ThreadLocal<DijkstraEngine.Search> BACKWARD = ThreadLocal.withInitial(DijkstraEngine.Search::new);
+
+    private final CompactGraph graph;
+
+    public PointToPointEngine(CompactGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Returns the shortest distance between two vertexes by searching outwards from both of them at once.
+     *
+     * @implNote Always advances the search whose closest unsettled vertex is nearer, and keeps track of the shortest
+     * path found where the two searches touch. Once the two closest unsettled distances add up to at least that path,
+     * no shorter path can exist. Since flights are undirected both searches use the same adjacency.
+     * @param source The int id of the starting vertex.
+     * @param target The int id of the destination vertex.
+     * @return The shortest distance between the two, or {@link AirportSystem#UNREACHABLE} if there is no route.
+     */
+    public int bidirectional(int source, int target) {
+        if (source == target)
+            return 0;
+
+        DijkstraEngine.Search forward = graph.dijkstra().search();
+        DijkstraEngine.Search backward = BACKWARD.get();
+        backward.prepare(graph.size());
+        try {
+            forward.start(source);
+            backward.start(target);
+
+            // The shortest path through a vertex reached by both searches, as a long so that sums cannot overflow
+            long best = Long.MAX_VALUE;
+            while (!forward.heap.isEmpty() && !backward.heap.isEmpty()) {
+                if ((long) forward.heap.peekKey() + backward.heap.peekKey() >= best)
+                    break;
+
+                boolean forwards = forward.heap.peekKey() <= backward.heap.peekKey();
+                DijkstraEngine.Search search = forwards ? forward : backward;
+                DijkstraEngine.Search other = forwards ? backward : forward;
+
+                int vertex = search.pollNext();
+                int distance = search.distance(vertex);
+                for (int slot = graph.firstSlot(vertex), end = graph.endSlot(vertex); slot < end; slot++) {
+                    int neighbour = graph.target(slot);
+                    int newDistance = distance + graph.weight(slot);
+                    search.reach(neighbour, newDistance);
+                    if (other.reached(neighbour))
+                        best = Math.min(best, (long) newDistance + other.distance(neighbour));
+                }
+            }
+
+            return best == Long.MAX_VALUE ? AirportSystem.UNREACHABLE : (int) best;
+        } finally {
+            forward.finish();
+            backward.finish();
+            forward.add(backward);
+        }
+    }
+
+    /**
+     * Returns the shortest distance between two vertexes using A* search, which settles vertexes in order of their
+     * distance from the source plus a lower bound on their remaining distance to the target. This makes the search
+     * head towards the target instead of spreading out evenly in every direction.
+     *
+     * @implNote The lower bound is the great-circle distance scaled by {@link CompactGraph#lowerBound(int, int)}, which
+     * is consistent, so a vertex never needs to be settled twice. If the graph does not have locations for every
+     * vertex the bound is always 0 and this is the same as plain Dijkstra.
+     * @param source The int id of the starting vertex.
+     * @param target The int id of the destination vertex.
+     * @return The shortest distance between the two, or {@link AirportSystem#UNREACHABLE} if there is no route.
+     */
+    public int aStar(int source, int target) {
+        if (source == target)
+            return 0;
+        if (!graph.hasLocations())
+            return graph.dijkstra().distance(source, target);
+
+        DijkstraEngine.Search search = graph.dijkstra().search();
+        try {
+            search.reach(source, 0, graph.lowerBound(source, target));
+            while (!search.heap.isEmpty()) {
+                int vertex = search.pollNext();
+                int distance = search.distance(vertex);
+                if (vertex == target)
+                    return distance;
+
+                for (int slot = graph.firstSlot(vertex), end = graph.endSlot(vertex); slot < end; slot++) {
+                    int neighbour = graph.target(slot);
+                    int newDistance = distance + graph.weight(slot);
+
+                    // Only work out the bound for vertexes whose path actually improves, since it needs a square root
+                    if (newDistance < search.distance(neighbour))
+                        search.reach(neighbour, newDistance, graph.lowerBound(neighbour, target));
+                    else
+                        search.relaxedCount++;
+                }
+            }
+            return AirportSystem.UNREACHABLE;
+        } finally {
+            search.finish();
+        }
+    }
+}
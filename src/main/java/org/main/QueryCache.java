@@ -0,0 +1,167 @@
+package org.main;
+
+import java.util.*;
+
+/**
+ * A bounded least-recently-used cache of query results for an {@link AirportSystem}, enabled with
+ * {@link AirportSystem#enableCache(int, int)}.
+ * <p>
+ * Every entry belongs to the graph version it was computed for. As soon as the cache is used with a newer version
+ * (because an edge was added) all the entries are dropped, so a stale result can never be returned. Since flights are
+ * undirected, the distance from A to B and from B to A share one entry.
+ */
+public final class QueryCache {
+    private final int maximumDistances;
+    private final int maximumSpanningTrees;
+
+    /**
+     * Distances keyed by the indexes of both cities, smallest first, packed into a long.
+     */
+    private final Map<Long, Integer> distances;
+
+    /**
+     * Minimum spanning trees keyed by the index of their root.
+     */
+    private final Map<Integer, List<AirportSystem.Edge>> spanningTrees;
+
+    /**
+     * The graph version that the cached entries were computed for.
+     */
+    private int version;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long invalidations = 0;
+
+    QueryCache(int maximumDistances, int maximumSpanningTrees, int version) {
+        if (maximumDistances < 0 || maximumSpanningTrees < 0)
+            throw new IllegalArgumentException("Cache sizes must not be negative");
+
+        this.maximumDistances = maximumDistances;
+        this.maximumSpanningTrees = maximumSpanningTrees;
+        this.version = version;
+
+        // Access ordered linked hash maps keep the least recently used entry first, ready to be evicted
+        this.distances = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest) {
+                return evict(size() > QueryCache.this.maximumDistances);
+            }
+        };
+        this.spanningTrees = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<AirportSystem.Edge>> eldest) {
+                return evict(size() > QueryCache.this.maximumSpanningTrees);
+            }
+        };
+    }
+
+    /**
+     * Look up a cached distance.
+     *
+     * @return The distance, or null if it is not cached for this version of the graph.
+     */
+    synchronized Integer getDistance(int version, int cityA, int cityB) {
+        return count(validate(version) ? distances.get(pairKey(cityA, cityB)) : null);
+    }
+
+    synchronized void putDistance(int version, int cityA, int cityB, int distance) {
+        if (validate(version) && maximumDistances > 0)
+            distances.put(pairKey(cityA, cityB), distance);
+    }
+
+    /**
+     * Look up a cached minimum spanning tree.
+     *
+     * @return The spanning tree, or null if it is not cached for this version of the graph.
+     */
+    synchronized List<AirportSystem.Edge> getSpanningTree(int version, int root) {
+        return count(validate(version) ? spanningTrees.get(root) : null);
+    }
+
+    synchronized void putSpanningTree(int version, int root, List<AirportSystem.Edge> spanningTree) {
+        if (validate(version) && maximumSpanningTrees > 0)
+            spanningTrees.put(root, spanningTree);
+    }
+
+    /**
+     * Drop every entry.
+     */
+    public synchronized void clear() {
+        distances.clear();
+        spanningTrees.clear();
+    }
+
+    /**
+     * The hit, miss and eviction counters of the cache.
+     *
+     * @return A snapshot of the cache statistics.
+     */
+    public synchronized Statistics statistics() {
+        return new Statistics(hits, misses, evictions, invalidations, distances.size(), spanningTrees.size());
+    }
+
+    /**
+     * Make sure that the entries belong to the given version of the graph, dropping them if they are older.
+     *
+     * @return False if the given version is older than the entries, in which case it must not be cached.
+     */
+    private boolean validate(int version) {
+        if (version == this.version)
+            return true;
+        if (version - this.version < 0)
+            return false;
+
+        clear();
+        this.version = version;
+        invalidations++;
+        return true;
+    }
+
+    private <T> T count(T result) {
+        if (result == null)
+            misses++;
+        else
+            hits++;
+        return result;
+    }
+
+    private boolean evict(boolean full) {
+        if (full)
+            evictions++;
+        return full;
+    }
+
+    private static long pairKey(int cityA, int cityB) {
+        return ((long) Math.min(cityA, cityB) << 32) | Math.max(cityA, cityB);
+    }
+
+    /**
+     * The counters of a {@link QueryCache}.
+     *
+     * @param hits The number of lookups that found a result.
+     * @param misses The number of lookups that did not find a result.
+     * @param evictions The number of entries dropped to make room for newer ones.
+     * @param invalidations The number of times every entry was dropped because the graph changed.
+     * @param distances The number of distances currently cached.
+     * @param spanningTrees The number of spanning trees currently cached.
+     */
+    public record Statistics(
+            long hits,
+            long misses,
+            long evictions,
+            long invalidations,
+            int distances,
+            int spanningTrees
+    ) {
+        /**
+         * The fraction of lookups that found a result.
+         *
+         * @return The hit rate between 0 and 1, or 0 if there have been no lookups.
+         */
+        public double hitRate() {
+            return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.main;
+
+/**
+ * Receives the {@link QueryStats} of every measured query of an {@link AirportSystem}, registered with
+ * {@link AirportSystem#setQueryListener(QueryListener)}. {@link MetricsRegistry} is a listener that aggregates them,
+ * and a lambda is enough for something like logging slow queries.
+ * <p>
+ * Listeners are called on the thread that ran the query, right after it finishes, so they should be quick.
+ */
+@FunctionalInterface
+public interface QueryListener {
+    /**
+     * Called after a query has finished.
+     *
+     * @param stats How long the query took and how much work it did.
+     */
+    void queryCompleted(QueryStats stats);
+}
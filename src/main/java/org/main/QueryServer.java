@@ -0,0 +1,288 @@
+package org.main;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A local HTTP server that answers shortest distance queries on a {@link ConcurrentAirportSystem}, so that it can be
+ * queried by other processes without wrapping it in a service of their own.
+ * <p>
+ * {@code GET /distance?from=A&to=B} responds with the distance as plain text, or {@code -1} if there is no route or
+ * either city does not exist, just like {@link ConcurrentAirportSystem#shortestDistance(String, String)}.
+ * <p>
+ * Every request is handled on its own virtual thread, which only parses the request and waits for its answer. The
+ * searches themselves run on a small pool of platform threads, one per core by default, so that each of them keeps
+ * reusing its thread's {@link DijkstraEngine} state instead of every virtual thread allocating its own. While a search
+ * from a city is waiting for a free thread, every other request from that city joins it, and the search runs once for
+ * all of their destinations with {@link DijkstraEngine#distances(int, int[])}. Under light load every search runs
+ * straight away, and the busier the server gets the more requests each search answers.
+ * <p>
+ * At most a fixed number of requests are admitted at once, counting both those waiting for a search and those being
+ * searched. Any request beyond that is turned away straight away with {@code 503 Service Unavailable}, so an
+ * overloaded server sheds load instead of queueing up ever longer delays.
+ */
+public final class QueryServer implements AutoCloseable {
+    private final ConcurrentAirportSystem system;
+    private final HttpServer server;
+    private final ExecutorService requestThreads = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * The platform threads that run searches, or null if searches run on an executor the server does not own.
+     */
+    private final ExecutorService searchThreads;
+    private final Executor searchExecutor;
+
+    private final Semaphore admission;
+
+    /**
+     * The searches that have not started yet, keyed by the city they start from.
+     */
+    private final ConcurrentHashMap<String, Batch> pending = new ConcurrentHashMap<>();
+
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final AtomicLong searchCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    /**
+     * Start a server with one search thread per core.
+     *
+     * @param system The airport system to answer queries on.
+     * @param address The address to listen on, such as {@code new InetSocketAddress("localhost", 0)} for any free
+     *                port.
+     * @param maximumAdmitted The most requests to admit at once.
+     * @throws IOException If the server can not listen on the address.
+     */
+    public QueryServer(ConcurrentAirportSystem system, InetSocketAddress address, int maximumAdmitted)
+            throws IOException {
+        this(system, address, maximumAdmitted, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Start a server.
+     *
+     * @param system The airport system to answer queries on.
+     * @param address The address to listen on.
+     * @param maximumAdmitted The most requests to admit at once.
+     * @param searchThreadCount The number of platform threads to run searches on.
+     * @throws IOException If the server can not listen on the address.
+     */
+    public QueryServer(ConcurrentAirportSystem system, InetSocketAddress address, int maximumAdmitted,
+                       int searchThreadCount) throws IOException {
+        this(system, address, maximumAdmitted, Executors.newFixedThreadPool(searchThreadCount), true);
+    }
+
+    /**
+     * @param searchExecutor Where searches are run.
+     * @param ownsExecutor Whether to shut the executor down when the server is closed.
+     */
+    QueryServer(ConcurrentAirportSystem system, InetSocketAddress address, int maximumAdmitted,
+                Executor searchExecutor, boolean ownsExecutor) throws IOException {
+        if (maximumAdmitted < 0)
+            throw new IllegalArgumentException("The number of admitted requests must not be negative");
+
+        this.system = system;
+        this.admission = new Semaphore(maximumAdmitted);
+        this.searchExecutor = searchExecutor;
+        this.searchThreads = ownsExecutor ? (ExecutorService) searchExecutor : null;
+        this.server = HttpServer.create(address, 0);
+        server.createContext("/distance", this::handleDistance);
+        server.setExecutor(requestThreads);
+        server.start();
+    }
+
+    /**
+     * The port the server is listening on, which is useful when it was started on port 0.
+     *
+     * @return The port.
+     */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Find the shortest distance between two cities, sharing a search with any other waiting query from the same
+     * city. This is what the server does for each request, without the HTTP.
+     *
+     * @param cityA The id of the starting city.
+     * @param cityB The id of the destination city.
+     * @return The distance once it has been found, or {@link AirportSystem#UNREACHABLE} if there is no route or either
+     * city does not exist.
+     */
+    public CompletableFuture<Integer> shortestDistance(String cityA, String cityB) {
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        Batch[] created = new Batch[1];
+
+        // Joining happens inside compute, which is atomic with the batch removing itself when its search starts, so a
+        // request can never join a batch whose search has already read its destinations
+        pending.compute(cityA, (source, batch) -> {
+            if (batch == null)
+                batch = created[0] = new Batch(source);
+            batch.destinations.add(cityB);
+            batch.results.add(result);
+            return batch;
+        });
+
+        if (created[0] != null) {
+            try {
+                searchExecutor.execute(created[0]);
+            } catch (RejectedExecutionException exception) {
+                pending.remove(cityA, created[0]);
+                created[0].fail(exception);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The time from admitting each request to sending its response, in nanoseconds.
+     *
+     * @return The live histogram of request latencies.
+     */
+    public LatencyHistogram latencies() {
+        return latencies;
+    }
+
+    /**
+     * The number of searches run so far. Each search answers every query that joined it, so this is less than the
+     * number of queries when the server is busy.
+     *
+     * @return The number of searches.
+     */
+    public long searchCount() {
+        return searchCount.get();
+    }
+
+    /**
+     * The number of requests turned away because too many were already admitted.
+     *
+     * @return The number of rejected requests.
+     */
+    public long rejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * Stop accepting requests and wait up to a second for those in progress to finish.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        requestThreads.close();
+        if (searchThreads != null)
+            searchThreads.close();
+    }
+
+    private void handleDistance(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                respond(exchange, 405, "Only GET is supported");
+                return;
+            }
+
+            Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+            String from = parameters.get("from");
+            String to = parameters.get("to");
+            if (from == null || to == null) {
+                respond(exchange, 400, "Both from and to are required");
+                return;
+            }
+
+            if (!admission.tryAcquire()) {
+                rejectedCount.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                respond(exchange, 503, "Too many requests");
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                int distance;
+                try {
+                    distance = shortestDistance(from, to).join();
+                } catch (CompletionException exception) {
+                    respond(exchange, 500, String.valueOf(exception.getCause()));
+                    return;
+                }
+                respond(exchange, 200, Integer.toString(distance));
+            } finally {
+                admission.release();
+                latencies.record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null)
+            return parameters;
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals == -1)
+                continue;
+            parameters.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    /**
+     * The queries from one city waiting for a search. Its lists are only changed inside {@link #pending}'s compute,
+     * and only read after the batch has removed itself from {@link #pending}.
+     */
+    private final class Batch implements Runnable {
+        private final String source;
+        private final List<String> destinations = new ArrayList<>();
+        private final List<CompletableFuture<Integer>> results = new ArrayList<>();
+
+        Batch(String source) {
+            this.source = source;
+        }
+
+        @Override
+        public void run() {
+            // From here on no more queries can join
+            pending.remove(source, this);
+            try {
+                CompactGraph graph = system.snapshot();
+                int sourceIndex = graph.indexOf(source);
+                int[] targets = new int[destinations.size()];
+                for (int i = 0; i < targets.length; i++)
+                    targets[i] = graph.indexOf(destinations.get(i));
+
+                int[] distances = new int[targets.length];
+                if (sourceIndex == -1)
+                    Arrays.fill(distances, AirportSystem.UNREACHABLE);
+                else
+                    distances = graph.dijkstra().distances(sourceIndex, targets);
+                searchCount.incrementAndGet();
+
+                for (int i = 0; i < distances.length; i++)
+                    results.get(i).complete(distances[i]);
+            } catch (RuntimeException exception) {
+                fail(exception);
+            }
+        }
+
+        void fail(Throwable throwable) {
+            for (CompletableFuture<Integer> result : results)
+                result.completeExceptionally(throwable);
+        }
+    }
+}
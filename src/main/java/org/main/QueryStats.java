@@ -0,0 +1,60 @@
+package org.main;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * How much work one query of an {@link AirportSystem} did, reported to its {@link QueryListener}.
+ * <p>
+ * What counts as settled and relaxed depends on the operation. A shortest distance query settles vertexes when their
+ * distance is final and relaxes an edge whenever it offers a path to a vertex. A breadth first search settles every
+ * vertex it visits and relaxes every edge it looks at. A minimum spanning tree settles every vertex it adds to the
+ * tree and relaxes every edge it queues. Adding, updating or removing an edge settles the vertexes whose tracked
+ * shortest paths had to be recomputed, and adding also relaxes the edges checked for a duplicate. Queries answered
+ * from the {@link QueryCache} do no work.
+ *
+ * @param operation The kind of query.
+ * @param query The arguments of the query, such as {@code "ORD -> JFK"}.
+ * @param nanos How long the query took in nanoseconds.
+ * @param settled The number of vertexes settled.
+ * @param relaxed The number of edges relaxed.
+ * @param heapPeak The largest number of entries in the query's heap or queue at once.
+ * @param allocatedBytes The number of bytes allocated by the query, or -1 if the JVM can not measure it.
+ */
+public record QueryStats(Operation operation, String query, long nanos, int settled, long relaxed, int heapPeak,
+                         long allocatedBytes) {
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+    /**
+     * The measured operations of {@link AirportSystem}.
+     */
+    public enum Operation {
+        SHORTEST_DISTANCE,
+        BREADTH_FIRST_SEARCH,
+        MINIMUM_SPANNING_TREE,
+        ADD_EDGE,
+        UPDATE_EDGE,
+        REMOVE_EDGE
+    }
+
+    @Override
+    public String toString() {
+        return operation + " " + query + " took " + nanos + "ns (settled " + settled + ", relaxed " + relaxed
+                + ", heap peak " + heapPeak + ", allocated " + allocatedBytes + " bytes)";
+    }
+
+    /**
+     * The total number of bytes allocated by the calling thread so far, or -1 if the JVM can not measure it.
+     */
+    static long threadAllocatedBytes() {
+        return THREADS == null ? -1 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads))
+            return null;
+        if (!threads.isThreadAllocatedMemorySupported())
+            return null;
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+}
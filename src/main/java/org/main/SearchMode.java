@@ -0,0 +1,24 @@
+package org.main;
+
+/**
+ * The strategies that {@link AirportSystem#shortestDistance(String, String, SearchMode)} can use to find the shortest
+ * distance between two cities.
+ */
+public enum SearchMode {
+    /**
+     * Plain Dijkstra's algorithm from the starting city, see {@link DijkstraEngine}.
+     */
+    DIJKSTRA,
+
+    /**
+     * Dijkstra's algorithm from both cities at once, stopping when the two searches meet, see
+     * {@link PointToPointEngine#bidirectional(int, int)}.
+     */
+    BIDIRECTIONAL,
+
+    /**
+     * A* search guided by the great-circle distance to the destination, see
+     * {@link PointToPointEngine#aStar(int, int)}. Falls back to plain Dijkstra for airports without a location.
+     */
+    A_STAR
+}
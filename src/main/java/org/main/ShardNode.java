@@ -0,0 +1,224 @@
+package org.main;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One part of a network split by {@link GraphPartitioner}, holding only the cities in its part and the flights
+ * between them. It answers requests from a {@link ShardedAirportSystem} sent over a {@link ShardTransport}, as it
+ * would if it ran on a machine of its own.
+ * <p>
+ * A boundary city is one with a flight to another shard. When it is created a shard finds the distance between every
+ * pair of its boundary cities without leaving the shard, so that a search never has to cross a shard it only passes
+ * through.
+ * <p>
+ * Cities are named in requests and responses by their int id in the whole network. There are two requests:
+ * <ul>
+ *     <li>{@link #BOUNDARY_TABLE}: the response is the number of boundary cities, their ids, the table of distances
+ *     between them row by row, the number of flights to other shards, and the source, destination and distance of
+ *     each of those flights.</li>
+ *     <li>{@link #SEARCH}, followed by a city in this shard and a target city (-1 for none): the response is the
+ *     distance to the target without leaving the shard, the number of boundary cities and the distance to each of
+ *     them without leaving the shard.</li>
+ * </ul>
+ * Every number is an int, with {@link AirportSystem#UNREACHABLE} for no route.
+ */
+public final class ShardNode {
+    static final byte BOUNDARY_TABLE = 1;
+    static final byte SEARCH = 2;
+
+    private final int shard;
+
+    /**
+     * The cities in this shard and the flights between them, with the cities' ids in the whole network.
+     */
+    private final CompactGraph graph;
+
+    /**
+     * The int id in the whole network of each city, indexed by its int id in {@link #graph}.
+     */
+    private final int[] globalIds;
+
+    /**
+     * The int id in {@link #graph} of each city, keyed by its int id in the whole network.
+     */
+    private final IntIntMap localIds;
+
+    /**
+     * The int ids in {@link #graph} of the boundary cities.
+     */
+    private final int[] boundary;
+
+    /**
+     * The distance from each boundary city to each other one within the shard, row by row.
+     */
+    private final int[] boundaryTable;
+
+    /**
+     * The global source, global destination and distance of each flight to another shard, one after the other.
+     */
+    private final int[] cutEdges;
+
+    private ShardNode(int shard, CompactGraph graph, int[] globalIds, int[] boundary, int[] cutEdges) {
+        this.shard = shard;
+        this.graph = graph;
+        this.globalIds = globalIds;
+        this.boundary = boundary;
+        this.cutEdges = cutEdges;
+        this.localIds = new IntIntMap(globalIds.length);
+        for (int i = 0; i < globalIds.length; i++)
+            localIds.put(globalIds[i], i);
+
+        this.boundaryTable = new int[boundary.length * boundary.length];
+        for (int i = 0; i < boundary.length; i++)
+            System.arraycopy(graph.dijkstra().distances(boundary[i], boundary), 0, boundaryTable,
+                    i * boundary.length, boundary.length);
+    }
+
+    /**
+     * Split a graph into one shard per part.
+     *
+     * @param graph The whole network.
+     * @param partition Which part each city of the network is in.
+     * @return The shards, indexed by part.
+     */
+    public static ShardNode[] split(CompactGraph graph, GraphPartition partition) {
+        int[] localOf = new int[graph.size()];
+        ShardNode[] shards = new ShardNode[partition.partCount()];
+        for (int part = 0; part < shards.length; part++) {
+            int[] members = partition.vertexes(part);
+            for (int i = 0; i < members.length; i++)
+                localOf[members[i]] = i;
+
+            int internalCount = 0;
+            int cutCount = 0;
+            int boundaryCount = 0;
+            for (int v : members) {
+                int before = cutCount;
+                for (int slot = graph.firstSlot(v); slot < graph.endSlot(v); slot++) {
+                    if (partition.partOf(graph.target(slot)) != part)
+                        cutCount++;
+                    else if (v < graph.target(slot))
+                        internalCount++;
+                }
+                if (cutCount > before)
+                    boundaryCount++;
+            }
+
+            String[] ids = new String[members.length];
+            int[] sources = new int[internalCount];
+            int[] destinations = new int[internalCount];
+            int[] weights = new int[internalCount];
+            int[] cutEdges = new int[cutCount * 3];
+            int[] boundary = new int[boundaryCount];
+            internalCount = cutCount = boundaryCount = 0;
+            for (int i = 0; i < members.length; i++) {
+                int v = members[i];
+                ids[i] = graph.idOf(v);
+                int before = cutCount;
+                for (int slot = graph.firstSlot(v); slot < graph.endSlot(v); slot++) {
+                    int u = graph.target(slot);
+                    if (partition.partOf(u) != part) {
+                        cutEdges[cutCount * 3] = v;
+                        cutEdges[cutCount * 3 + 1] = u;
+                        cutEdges[cutCount++ * 3 + 2] = graph.weight(slot);
+                    } else if (v < u) {
+                        sources[internalCount] = i;
+                        destinations[internalCount] = localOf[u];
+                        weights[internalCount++] = graph.weight(slot);
+                    }
+                }
+                if (cutCount > before)
+                    boundary[boundaryCount++] = i;
+            }
+
+            CompactGraph shardGraph = CompactGraph.fromEdges(ids, sources, destinations, weights, internalCount);
+            shards[part] = new ShardNode(part, shardGraph, members, boundary, cutEdges);
+        }
+        return shards;
+    }
+
+    /**
+     * @return Which part of the network this shard holds.
+     */
+    public int shard() {
+        return shard;
+    }
+
+    /**
+     * @return The number of cities in this shard.
+     */
+    public int size() {
+        return graph.size();
+    }
+
+    /**
+     * @return The number of cities in this shard with a flight to another shard.
+     */
+    public int boundarySize() {
+        return boundary.length;
+    }
+
+    /**
+     * Answer a request. Requests may be handled by several threads at once.
+     *
+     * @param request The request, read from its position to its limit.
+     * @return The response, ready to be read.
+     * @throws IllegalArgumentException If the request is malformed or names a city that is not in this shard.
+     */
+    public ByteBuffer handle(ByteBuffer request) {
+        byte type = request.get();
+        if (type == BOUNDARY_TABLE)
+            return boundaryTable();
+        if (type == SEARCH)
+            return search(request.getInt(), request.getInt());
+        throw new IllegalArgumentException("Unknown request type: " + type);
+    }
+
+    private ByteBuffer boundaryTable() {
+        ByteBuffer response = ByteBuffer.allocate(4 * (2 + boundary.length + boundaryTable.length + cutEdges.length));
+        response.putInt(boundary.length);
+        for (int b : boundary)
+            response.putInt(globalIds[b]);
+        for (int distance : boundaryTable)
+            response.putInt(distance);
+        response.putInt(cutEdges.length / 3);
+        for (int value : cutEdges)
+            response.putInt(value);
+        return response.flip();
+    }
+
+    private ByteBuffer search(int globalSource, int globalTarget) {
+        int source = localIds.get(globalSource, -1);
+        if (source == -1)
+            throw new IllegalArgumentException("City " + globalSource + " is not in shard " + shard);
+
+        // The target goes last, after the boundary, so a single search finds them all
+        int[] targets = new int[boundary.length + 1];
+        System.arraycopy(boundary, 0, targets, 0, boundary.length);
+        targets[boundary.length] = globalTarget == -1 ? -1 : localIds.get(globalTarget, -1);
+        int[] distances = graph.dijkstra().distances(source, targets);
+
+        ByteBuffer response = ByteBuffer.allocate(4 * (2 + boundary.length));
+        response.putInt(distances[boundary.length]);
+        response.putInt(boundary.length);
+        for (int i = 0; i < boundary.length; i++)
+            response.putInt(distances[i]);
+        return response.flip();
+    }
+
+    /**
+     * @return A request for a shard's boundary cities, the distances between them and its flights to other shards.
+     */
+    static ByteBuffer boundaryTableRequest() {
+        return ByteBuffer.allocate(1).put(BOUNDARY_TABLE).flip();
+    }
+
+    /**
+     * @param globalSource The city to search from, which must be in the shard.
+     * @param globalTarget A city to find the distance to, or -1 for none.
+     * @return A request for the distances from a city to its shard's boundary and to the target.
+     */
+    static ByteBuffer searchRequest(int globalSource, int globalTarget) {
+        return ByteBuffer.allocate(9).put(SEARCH).putInt(globalSource).putInt(globalTarget).flip();
+    }
+}
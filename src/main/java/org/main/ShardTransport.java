@@ -0,0 +1,30 @@
+package org.main;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * How a {@link ShardedAirportSystem} sends requests to its {@link ShardNode}s. Requests and responses are plain bytes,
+ * so an implementation can carry them over a network as well as within one process.
+ */
+public interface ShardTransport extends AutoCloseable {
+    /**
+     * @return The number of shards that can be reached.
+     */
+    int shardCount();
+
+    /**
+     * Send a request to a shard. The transport takes over the buffer.
+     *
+     * @param shard The shard to send to.
+     * @param request The request, from its position to its limit.
+     * @return The shard's response once it arrives, or an exceptional result if the shard failed to answer.
+     */
+    CompletableFuture<ByteBuffer> send(int shard, ByteBuffer request);
+
+    /**
+     * Stop sending requests and release any threads or connections.
+     */
+    @Override
+    void close();
+}
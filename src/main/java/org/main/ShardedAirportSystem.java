@@ -0,0 +1,235 @@
+package org.main;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Answers shortest distance queries on a network split into {@link ShardNode}s, which it only talks to through a
+ * {@link ShardTransport}. It keeps no flights itself, only which shard each city is in and a small overlay graph.
+ * <p>
+ * The overlay holds every boundary city, which is a city with a flight to another shard. Two boundary cities in the
+ * same shard are joined by the distance between them within that shard, from the shard's boundary table, and the
+ * flights between shards are copied as they are. A route between any two cities can be cut into stretches within one
+ * shard, so its distance is the smallest of:
+ * <ul>
+ *     <li>the distance within the shard, if both cities are in the same one, and</li>
+ *     <li>for some boundary cities {@code x} in the first city's shard and {@code y} in the second's, the distance to
+ *     {@code x} within the shard, plus the distance from {@code x} to {@code y} in the overlay, plus the distance
+ *     from {@code y} within its shard.</li>
+ * </ul>
+ * Each query asks the two shards in parallel for the distances to their boundary cities and then searches the overlay
+ * from every boundary city of the first shard at once, stopping once nothing closer can be found. The distances are
+ * the same as those of the whole network.
+ */
+public final class ShardedAirportSystem implements AutoCloseable {
+    private final Map<String, Integer> globalIds;
+    private final GraphPartition partition;
+    private final ShardTransport transport;
+
+    /**
+     * The boundary cities of every shard, with their ids in the whole network.
+     */
+    private final CompactGraph overlay;
+
+    /**
+     * The int id in {@link #overlay} of each shard's boundary cities, in the order the shard lists them.
+     */
+    private final int[][] shardBoundaries;
+
+    /**
+     * The shard of each vertex of {@link #overlay}.
+     */
+    private final int[] overlayShard;
+
+    /**
+     * The position of each vertex of {@link #overlay} in its shard's boundary.
+     */
+    private final int[] overlayBoundaryIndex;
+
+    /**
+     * Build the overlay from the boundary tables of shards that are already running.
+     *
+     * @param ids The id of every city in the network, indexed by int id.
+     * @param partition Which shard each city is in.
+     * @param transport How to reach the shards.
+     * @throws CompletionException If a shard fails to answer.
+     */
+    public ShardedAirportSystem(List<String> ids, GraphPartition partition, ShardTransport transport) {
+        if (transport.shardCount() != partition.partCount())
+            throw new IllegalArgumentException("There are " + partition.partCount() + " parts but "
+                    + transport.shardCount() + " shards");
+
+        this.partition = partition;
+        this.transport = transport;
+        this.globalIds = new HashMap<>(ids.size() * 4 / 3 + 1);
+        for (int i = 0; i < ids.size(); i++)
+            globalIds.put(ids.get(i), i);
+
+        List<CompletableFuture<ByteBuffer>> replies = new ArrayList<>();
+        for (int shard = 0; shard < partition.partCount(); shard++)
+            replies.add(transport.send(shard, ShardNode.boundaryTableRequest()));
+
+        ByteBuffer[] tables = new ByteBuffer[replies.size()];
+        int overlaySize = 0;
+        // Each flight between shards is reported by both of its shards and only kept once, so this is an upper bound
+        int overlayEdgeCount = 0;
+        for (int shard = 0; shard < tables.length; shard++) {
+            tables[shard] = replies.get(shard).join();
+            int boundarySize = tables[shard].getInt(0);
+            overlaySize += boundarySize;
+            overlayEdgeCount += boundarySize * (boundarySize - 1) / 2;
+            overlayEdgeCount += tables[shard].getInt(4 * (1 + boundarySize + boundarySize * boundarySize));
+        }
+
+        String[] overlayIds = new String[overlaySize];
+        IntIntMap overlayIndexes = new IntIntMap(overlaySize);
+        this.shardBoundaries = new int[tables.length][];
+        this.overlayShard = new int[overlaySize];
+        this.overlayBoundaryIndex = new int[overlaySize];
+        int[] sources = new int[overlayEdgeCount];
+        int[] destinations = new int[overlayEdgeCount];
+        int[] weights = new int[overlayEdgeCount];
+        int edgeCount = 0;
+        int next = 0;
+        for (int shard = 0; shard < tables.length; shard++) {
+            ByteBuffer table = tables[shard];
+            int[] globals = new int[table.getInt()];
+            shardBoundaries[shard] = new int[globals.length];
+            for (int i = 0; i < globals.length; i++) {
+                globals[i] = table.getInt();
+                overlayIds[next] = ids.get(globals[i]);
+                overlayIndexes.put(globals[i], next);
+                overlayShard[next] = shard;
+                overlayBoundaryIndex[next] = i;
+                shardBoundaries[shard][i] = next++;
+            }
+            for (int i = 0; i < globals.length; i++) {
+                for (int j = 0; j < globals.length; j++) {
+                    int distance = table.getInt();
+                    if (i < j && distance != AirportSystem.UNREACHABLE) {
+                        sources[edgeCount] = shardBoundaries[shard][i];
+                        destinations[edgeCount] = shardBoundaries[shard][j];
+                        weights[edgeCount++] = distance;
+                    }
+                }
+            }
+        }
+        for (ByteBuffer table : tables) {
+            int cutCount = table.getInt();
+            for (int i = 0; i < cutCount; i++) {
+                int source = table.getInt();
+                int destination = table.getInt();
+                int distance = table.getInt();
+                if (source < destination) {
+                    sources[edgeCount] = overlayIndexes.get(source, -1);
+                    destinations[edgeCount] = overlayIndexes.get(destination, -1);
+                    weights[edgeCount++] = distance;
+                }
+            }
+        }
+        this.overlay = CompactGraph.fromEdges(overlayIds, sources, destinations, weights, edgeCount);
+    }
+
+    /**
+     * Split a graph into shards running in this process, each on a thread of its own.
+     *
+     * @param graph The network to split.
+     * @param shardCount The number of shards.
+     * @return The sharded network, which must be closed to stop the shards' threads.
+     */
+    public static ShardedAirportSystem of(CompactGraph graph, int shardCount) {
+        GraphPartition partition = GraphPartitioner.partition(graph, shardCount);
+        LocalShardTransport transport = new LocalShardTransport(ShardNode.split(graph, partition));
+        try {
+            return new ShardedAirportSystem(graph.getConnections(), partition, transport);
+        } catch (RuntimeException exception) {
+            transport.close();
+            throw exception;
+        }
+    }
+
+    /**
+     * Find the shortest distance between two cities, asking only the shards they are in.
+     *
+     * @param cityA The id of the starting city.
+     * @param cityB The id of the destination city.
+     * @return The shortest distance between the two, or {@link AirportSystem#UNREACHABLE} if there is no route or
+     * either city does not exist.
+     * @throws CompletionException If a shard fails to answer.
+     */
+    public int shortestDistance(String cityA, String cityB) {
+        Integer source = globalIds.get(cityA);
+        Integer target = globalIds.get(cityB);
+        if (source == null || target == null)
+            return AirportSystem.UNREACHABLE;
+        if (source.equals(target))
+            return 0;
+
+        int sourceShard = partition.partOf(source);
+        int targetShard = partition.partOf(target);
+        CompletableFuture<ByteBuffer> fromSource = transport.send(sourceShard,
+                ShardNode.searchRequest(source, sourceShard == targetShard ? target : -1));
+        CompletableFuture<ByteBuffer> fromTarget = transport.send(targetShard, ShardNode.searchRequest(target, -1));
+        ByteBuffer sourceReply = fromSource.join();
+        ByteBuffer targetReply = fromTarget.join();
+
+        int direct = sourceReply.getInt();
+        long best = direct == AirportSystem.UNREACHABLE ? Long.MAX_VALUE : direct;
+        int[] toSourceBoundary = readDistances(sourceReply);
+        // The target's shard was not asked for a direct distance
+        targetReply.getInt();
+        int[] toTargetBoundary = readDistances(targetReply);
+
+        DijkstraEngine.Search search = overlay.dijkstra().search();
+        try {
+            for (int i = 0; i < toSourceBoundary.length; i++)
+                if (toSourceBoundary[i] != AirportSystem.UNREACHABLE)
+                    search.reach(shardBoundaries[sourceShard][i], toSourceBoundary[i]);
+            while (!search.heap.isEmpty() && search.heap.peekKey() < best) {
+                int vertex = search.settleNext(overlay);
+                if (overlayShard[vertex] != targetShard)
+                    continue;
+                int rest = toTargetBoundary[overlayBoundaryIndex[vertex]];
+                if (rest != AirportSystem.UNREACHABLE)
+                    best = Math.min(best, (long) search.distance(vertex) + rest);
+            }
+        } finally {
+            search.finish();
+        }
+        return best == Long.MAX_VALUE ? AirportSystem.UNREACHABLE : (int) best;
+    }
+
+    private static int[] readDistances(ByteBuffer reply) {
+        int[] distances = new int[reply.getInt()];
+        for (int i = 0; i < distances.length; i++)
+            distances[i] = reply.getInt();
+        return distances;
+    }
+
+    /**
+     * @return Which shard each city is in.
+     */
+    public GraphPartition partition() {
+        return partition;
+    }
+
+    /**
+     * @return The overlay graph of boundary cities that cross-shard searches run on.
+     */
+    public CompactGraph overlay() {
+        return overlay;
+    }
+
+    /**
+     * Close the transport, which stops the shards if they run in this process.
+     */
+    @Override
+    public void close() {
+        transport.close();
+    }
+}
@@ -0,0 +1,108 @@
+package org.main;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A minimum spanning forest of a {@link CompactGraph}: one minimum spanning tree per connected component. The edges
+ * are stored as parallel int arrays and only turned into {@link CompactGraph.Edge} objects by {@link #edges()}.
+ */
+public final class SpanningForest {
+    private final CompactGraph graph;
+    private final int[] sources;
+    private final int[] targets;
+    private final int[] weights;
+    private final int edgeCount;
+    private final long totalWeight;
+
+    SpanningForest(CompactGraph graph, int[] sources, int[] targets, int[] weights, int edgeCount) {
+        this.graph = graph;
+        this.sources = sources;
+        this.targets = targets;
+        this.weights = weights;
+        this.edgeCount = edgeCount;
+
+        long total = 0;
+        for (int i = 0; i < edgeCount; i++)
+            total += weights[i];
+        this.totalWeight = total;
+    }
+
+    /**
+     * The number of edges in the forest, which is the number of vertexes minus the number of components.
+     *
+     * @return The number of edges.
+     */
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * The sum of the distances of every edge in the forest.
+     *
+     * @return The total weight of the forest.
+     */
+    public long totalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * The number of trees in the forest, one per connected component of the graph.
+     *
+     * @return The number of connected components.
+     */
+    public int componentCount() {
+        return graph.size() - edgeCount;
+    }
+
+    /**
+     * Whether the forest is a single tree, meaning that every airport can reach every other airport.
+     *
+     * @return True if the graph is connected.
+     */
+    public boolean isSpanningTree() {
+        return componentCount() <= 1;
+    }
+
+    /**
+     * The int id of the vertex at the start of an edge.
+     *
+     * @param edge The position of the edge in the forest.
+     * @return The int id of the edge's source.
+     */
+    public int source(int edge) {
+        return sources[edge];
+    }
+
+    /**
+     * The int id of the vertex at the end of an edge.
+     *
+     * @param edge The position of the edge in the forest.
+     * @return The int id of the edge's destination.
+     */
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    /**
+     * The distance of an edge.
+     *
+     * @param edge The position of the edge in the forest.
+     * @return The distance between the edge's source and destination.
+     */
+    public int weight(int edge) {
+        return weights[edge];
+    }
+
+    /**
+     * Every edge of the forest with the string ids of its endpoints.
+     *
+     * @return A new list of the edges.
+     */
+    public List<CompactGraph.Edge> edges() {
+        List<CompactGraph.Edge> edges = new ArrayList<>(edgeCount);
+        for (int i = 0; i < edgeCount; i++)
+            edges.add(new CompactGraph.Edge(graph.idOf(sources[i]), graph.idOf(targets[i]), weights[i]));
+        return edges;
+    }
+}
@@ -0,0 +1,23 @@
+package org.main;
+
+/**
+ * The algorithms that {@link CompactGraph#minimumSpanningForest(SpanningTreeAlgorithm)} can use. They all return a
+ * forest with the same total weight, but may pick different edges when several edges have the same distance.
+ */
+public enum SpanningTreeAlgorithm {
+    /**
+     * Prim's algorithm grown from every vertex not yet in the forest, see {@link SpanningTreeEngine#prim()}.
+     */
+    PRIM,
+
+    /**
+     * Kruskal's algorithm over the edges sorted by distance, see {@link SpanningTreeEngine#kruskal()}.
+     */
+    KRUSKAL,
+
+    /**
+     * Borůvka's algorithm with each round's edge scan split over the common fork-join pool, see
+     * {@link SpanningTreeEngine#boruvka(java.util.concurrent.ForkJoinPool)}.
+     */
+    BORUVKA
+}
@@ -0,0 +1,321 @@
+package org.main;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Computes {@link SpanningForest minimum spanning forests} of a {@link CompactGraph}. If the graph is not connected the
+ * result has one tree per connected component instead of failing.
+ * <p>
+ * Every algorithm works on primitive arrays only. Edges are compared by a packed long of their distance in the high
+ * half and their position in the edge list in the low half, which sorts without objects and breaks ties between equal
+ * distances the same way everywhere. Borůvka's algorithm relies on that to never pick a cycle.
+ */
+public final class SpanningTreeEngine {
+    /**
+     * The number of edges below which a Borůvka edge scan is not split any further.
+     */
+    private static final int SEQUENTIAL_EDGES = 1 << 14;
+
+    private static final long NO_EDGE = Long.MAX_VALUE;
+
+    private final CompactGraph graph;
+
+    public SpanningTreeEngine(CompactGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Obtain a minimum spanning forest using Prim's algorithm, growing a tree from the lowest vertex that is not in
+     * the forest yet until every vertex is.
+     *
+     * @implNote Uses an eager Prim with an {@link IndexedHeap}, which holds each vertex at most once keyed by its
+     * cheapest edge to the tree, instead of queueing every edge.
+     * @return A minimum spanning forest of the graph.
+     */
+    public SpanningForest prim() {
+        int vertexCount = graph.size();
+        Builder forest = new Builder(vertexCount);
+        boolean[] inForest = new boolean[vertexCount];
+
+        // The slot of the cheapest known edge from the tree to each queued vertex
+        int[] cheapestSlot = new int[vertexCount];
+        int[] cheapestSource = new int[vertexCount];
+        IndexedHeap heap = new IndexedHeap();
+        heap.ensureCapacity(vertexCount);
+
+        for (int root = 0; root < vertexCount; root++) {
+            if (inForest[root])
+                continue;
+
+            heap.insertOrDecrease(root, 0);
+            cheapestSlot[root] = -1;
+            while (!heap.isEmpty()) {
+                int vertex = heap.poll();
+                inForest[vertex] = true;
+                if (cheapestSlot[vertex] != -1)
+                    forest.add(cheapestSource[vertex], vertex, graph.weight(cheapestSlot[vertex]));
+
+                for (int slot = graph.firstSlot(vertex), end = graph.endSlot(vertex); slot < end; slot++) {
+                    int neighbour = graph.target(slot);
+                    if (inForest[neighbour])
+                        continue;
+                    if (!heap.contains(neighbour) || graph.weight(slot) < heap.key(neighbour)) {
+                        cheapestSlot[neighbour] = slot;
+                        cheapestSource[neighbour] = vertex;
+                        heap.insertOrDecrease(neighbour, graph.weight(slot));
+                    }
+                }
+            }
+        }
+
+        return forest.build();
+    }
+
+    /**
+     * Obtain a minimum spanning forest using Kruskal's algorithm: take the edges from shortest to longest, keeping each
+     * one that joins two different trees.
+     *
+     * @implNote The edges are sorted as packed longs and the trees are tracked with {@link DisjointSets}. The scan
+     * stops as soon as the forest has one edge fewer than the graph has vertexes.
+     * @return A minimum spanning forest of the graph.
+     */
+    public SpanningForest kruskal() {
+        EdgeList edges = new EdgeList(graph);
+        long[] order = new long[edges.count];
+        for (int edge = 0; edge < edges.count; edge++)
+            order[edge] = edges.key(edge);
+        Arrays.sort(order);
+
+        int vertexCount = graph.size();
+        Builder forest = new Builder(vertexCount);
+        DisjointSets sets = new DisjointSets(vertexCount);
+        for (int i = 0; i < order.length && forest.count < vertexCount - 1; i++) {
+            int edge = (int) order[i];
+            if (sets.union(edges.sources[edge], edges.targets[edge]))
+                forest.add(edges.sources[edge], edges.targets[edge], edges.weights[edge]);
+        }
+
+        return forest.build();
+    }
+
+    /**
+     * Obtain a minimum spanning forest using Borůvka's algorithm on the common fork-join pool.
+     *
+     * @return A minimum spanning forest of the graph.
+     */
+    public SpanningForest boruvka() {
+        return boruvka(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Obtain a minimum spanning forest using Borůvka's algorithm. Each round every tree picks the cheapest edge leaving
+     * it, and all of those edges are added at once, which at least halves the number of trees per round.
+     *
+     * @implNote The scan for the cheapest edges, which is where nearly all the time goes, is split over the pool and
+     * each tree's cheapest edge is kept with an atomic compare and set. Joining the trees is sequential, since there
+     * are at most as many joins as trees.
+     * @param pool The pool to scan the edges on.
+     * @return A minimum spanning forest of the graph.
+     */
+    public SpanningForest boruvka(ForkJoinPool pool) {
+        EdgeList edges = new EdgeList(graph);
+        int vertexCount = graph.size();
+        Builder forest = new Builder(vertexCount);
+        DisjointSets sets = new DisjointSets(vertexCount);
+
+        // The tree of each vertex, as the root of its set, refreshed at the start of every round
+        int[] components = new int[vertexCount];
+        AtomicLongArray cheapest = new AtomicLongArray(vertexCount);
+        for (int v = 0; v < vertexCount; v++)
+            cheapest.set(v, NO_EDGE);
+
+        boolean joined = true;
+        while (joined && forest.count < vertexCount - 1) {
+            for (int v = 0; v < vertexCount; v++)
+                components[v] = sets.find(v);
+            pool.invoke(new CheapestEdges(edges, components, cheapest, 0, edges.count));
+
+            joined = false;
+            for (int v = 0; v < vertexCount; v++) {
+                if (components[v] != v || cheapest.get(v) == NO_EDGE)
+                    continue;
+
+                int edge = (int) cheapest.get(v);
+                cheapest.set(v, NO_EDGE);
+                if (sets.union(edges.sources[edge], edges.targets[edge])) {
+                    forest.add(edges.sources[edge], edges.targets[edge], edges.weights[edge]);
+                    joined = true;
+                }
+            }
+        }
+
+        return forest.build();
+    }
+
+    /**
+     * Finds the cheapest edge leaving each tree for a range of the edge list, splitting the range in half until it is
+     * small enough.
+     */
+    @SuppressWarnings("serial") // Fork-join tasks are never serialized
+    private static final class CheapestEdges extends RecursiveAction {
+        private final EdgeList edges;
+        private final int[] components;
+        private final AtomicLongArray cheapest;
+        private final int start;
+        private final int end;
+
+        CheapestEdges(EdgeList edges, int[] components, AtomicLongArray cheapest, int start, int end) {
+            this.edges = edges;
+            this.components = components;
+            this.cheapest = cheapest;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > SEQUENTIAL_EDGES) {
+                int middle = (start + end) >>> 1;
+                invokeAll(new CheapestEdges(edges, components, cheapest, start, middle),
+                        new CheapestEdges(edges, components, cheapest, middle, end));
+                return;
+            }
+
+            for (int edge = start; edge < end; edge++) {
+                int sourceComponent = components[edges.sources[edge]];
+                int targetComponent = components[edges.targets[edge]];
+                if (sourceComponent == targetComponent)
+                    continue;
+
+                long key = edges.key(edge);
+                offer(sourceComponent, key);
+                offer(targetComponent, key);
+            }
+        }
+
+        private void offer(int component, long key) {
+            long current;
+            while (key < (current = cheapest.get(component)))
+                if (cheapest.compareAndSet(component, current, key))
+                    return;
+        }
+    }
+
+    /**
+     * Every undirected edge of a graph once, as parallel arrays. The graph stores each edge in both directions, so
+     * only the direction from the lower int id is kept.
+     */
+    private static final class EdgeList {
+        final int[] sources;
+        final int[] targets;
+        final int[] weights;
+        final int count;
+
+        EdgeList(CompactGraph graph) {
+            int edgeCount = graph.edgeCount();
+            sources = new int[edgeCount];
+            targets = new int[edgeCount];
+            weights = new int[edgeCount];
+
+            int edge = 0;
+            for (int v = 0; v < graph.size(); v++) {
+                for (int slot = graph.firstSlot(v), end = graph.endSlot(v); slot < end; slot++) {
+                    if (v < graph.target(slot)) {
+                        sources[edge] = v;
+                        targets[edge] = graph.target(slot);
+                        weights[edge] = graph.weight(slot);
+                        edge++;
+                    }
+                }
+            }
+            count = edge;
+        }
+
+        /**
+         * The edge's distance and position packed so that comparing keys compares distances first.
+         */
+        long key(int edge) {
+            return ((long) weights[edge] << 32) | edge;
+        }
+    }
+
+    /**
+     * Collects the edges of a forest, which never has more than one edge fewer than the graph has vertexes.
+     */
+    private final class Builder {
+        final int[] sources;
+        final int[] targets;
+        final int[] weights;
+        int count = 0;
+
+        Builder(int vertexCount) {
+            int capacity = Math.max(0, vertexCount - 1);
+            sources = new int[capacity];
+            targets = new int[capacity];
+            weights = new int[capacity];
+        }
+
+        void add(int source, int target, int weight) {
+            sources[count] = source;
+            targets[count] = target;
+            weights[count] = weight;
+            count++;
+        }
+
+        SpanningForest build() {
+            return new SpanningForest(graph, sources, targets, weights, count);
+        }
+    }
+
+    /**
+     * A union-find structure over int ids, with union by size and path halving so that both operations take nearly
+     * constant time.
+     */
+    static final class DisjointSets {
+        private final int[] parents;
+        private final int[] sizes;
+
+        DisjointSets(int count) {
+            parents = new int[count];
+            sizes = new int[count];
+            for (int i = 0; i < count; i++) {
+                parents[i] = i;
+                sizes[i] = 1;
+            }
+        }
+
+        /**
+         * The representative of the set containing an element.
+         */
+        int find(int element) {
+            while (parents[element] != element) {
+                parents[element] = parents[parents[element]];
+                element = parents[element];
+            }
+            return element;
+        }
+
+        /**
+         * Merge the sets containing two elements.
+         *
+         * @return False if they were already in the same set.
+         */
+        boolean union(int a, int b) {
+            a = find(a);
+            b = find(b);
+            if (a == b)
+                return false;
+            if (sizes[a] < sizes[b]) {
+                int swap = a;
+                a = b;
+                b = swap;
+            }
+            parents[b] = a;
+            sizes[a] += sizes[b];
+            return true;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package org.main;
+
+/**
+ * A vertex produced by a traversal iterator, along with how far it is from where the traversal started.
+ *
+ * @param vertex The int id of the vertex.
+ * @param id The id of the city.
+ * @param distance The number of connections from the start for a {@link BreadthFirstIterator}, or the shortest
+ *                 flight distance from the start for a {@link ClosestFirstIterator}.
+ */
+public record Visit(int vertex, String id, int distance) {
+    @Override
+    public String toString() {
+        return id + " (" + distance + ")";
+    }
+}
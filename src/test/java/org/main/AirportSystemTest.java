@@ -2,52 +2,20 @@ package org.main;
 
 import org.junit.jupiter.api.Test;
 
-import java.util.List;
+import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class AirportSystemTest {
-    AirportSystem makeTestSystemA() {
-        AirportSystem system = new AirportSystem();
-        assertTrue(system.addEdge("Chicago", "Detroit", 281));
-        assertTrue(system.addEdge("Chicago", "Toledo", 244));
-        assertTrue(system.addEdge("Chicago", "Indianapolis", 181));
-        assertTrue(system.addEdge("Detroit", "Toledo", 60));
-        assertTrue(system.addEdge("Indianapolis", "Cincinnati", 110));
-        assertTrue(system.addEdge("Cincinnati", "Toledo", 198));
-        assertTrue(system.addEdge("Cincinnati", "Columbus", 101));
-        assertTrue(system.addEdge("Columbus", "Cleveland", 143));
-        assertTrue(system.addEdge("Toledo", "Cleveland", 117));
-        assertTrue(system.addEdge("Columbus", "Pittsburgh", 185));
-        assertTrue(system.addEdge("Cleveland", "Buffalo", 191));
-        assertTrue(system.addEdge("Pittsburgh", "Buffalo", 216));
-        assertTrue(system.addEdge("Pittsburgh", "Cleveland", 135));
-        return system;
-    }
-
-    AirportSystem makeTestSystemB () {
-        AirportSystem system = new AirportSystem();
-        system.addEdge("1", "5", 4);
-        system.addEdge("1", "2", 2);
-        system.addEdge("1", "4", 1);
-        system.addEdge("5", "4", 9);
-        system.addEdge("4", "3", 5);
-        system.addEdge("2", "6", 7);
-        system.addEdge("6", "3", 8);
-        system.addEdge("2", "4", 3);
-        system.addEdge("2", "3", 3);
-        return system;
-    }
-
     @Test
     void makeSystem() {
-        AirportSystem system = makeTestSystemA();
+        AirportSystem system = TestNetworks.makeTestSystemA();
         system.printGraph();
     }
 
     @Test
     void shortestDistance() {
-        AirportSystem system = makeTestSystemA();
+        AirportSystem system = TestNetworks.makeTestSystemA();
         assertEquals(60, system.shortestDistance("Detroit", "Toledo"));
         assertEquals(60, system.shortestDistance("Toledo", "Detroit"));
         assertEquals(181, system.shortestDistance("Indianapolis", "Chicago"));
@@ -55,13 +23,129 @@ class AirportSystemTest {
         assertEquals(334, system.shortestDistance("Columbus", "Buffalo"));
         assertEquals(368, system.shortestDistance("Detroit", "Indianapolis"));
 
-        system = makeTestSystemB();
+        system = TestNetworks.makeTestSystemB();
         assertEquals(13, system.shortestDistance("6", "5"));
+
+        // Unreachable and unknown cities have a documented result rather than a magic number
+        system.addEdge("7", "8", 1);
+        assertEquals(AirportSystem.UNREACHABLE, system.shortestDistance("1", "8"));
+        assertEquals(AirportSystem.UNREACHABLE, system.shortestDistance("1", "Nowhere"));
+
+        // The cached compact graph must notice new edges
+        system.addEdge("1", "7", 2);
+        assertEquals(3, system.shortestDistance("1", "8"));
+    }
+
+    @Test
+    void shortestDistanceRandom() {
+        for (long seed = 0; seed < 5; seed++) {
+            AirportSystem system = TestNetworks.makeRandomSystem(seed, 150, 400);
+            for (int i = 0; i < 30; i++) {
+                String from = system.getVertex(i).getId();
+                String to = system.getVertex(system.size() - 1 - i).getId();
+                assertEquals(TestNetworks.referenceDistance(system, from, to), system.shortestDistance(from, to));
+            }
+        }
+    }
+
+    @Test
+    void updateAndRemoveEdges() {
+        AirportSystem system = TestNetworks.makeTestSystemA();
+        assertEquals(361, system.shortestDistance("Chicago", "Cleveland"));
+
+        assertTrue(system.updateEdge("Toledo", "Chicago", 300));
+        assertEquals(300, system.shortestDistance("Chicago", "Toledo"));
+        assertEquals(417, system.shortestDistance("Chicago", "Cleveland"));
+        assertFalse(system.updateEdge("Chicago", "Cleveland", 10));
+        assertFalse(system.updateEdge("Chicago", "Nowhere", 10));
+        assertFalse(system.updateEdge("Chicago", "Toledo", -1));
+
+        int edges = system.edgeCount();
+        assertTrue(system.removeEdge("Chicago", "Toledo"));
+        assertFalse(system.removeEdge("Toledo", "Chicago"));
+        assertEquals(edges - 1, system.edgeCount());
+        assertEquals(edges - 1, system.compact().edgeCount());
+        assertEquals(458, system.shortestDistance("Chicago", "Cleveland"));
+        assertFalse(system.getConnection("Toledo").getEdges().stream()
+                .anyMatch(edge -> edge.getDestination().getId().equals("Chicago")));
+
+        // A removed edge can be added again
+        assertTrue(system.addEdge("Chicago", "Toledo", 244));
+        assertEquals(361, system.shortestDistance("Chicago", "Cleveland"));
+    }
+
+    @Test
+    void shortestDistanceAfterChanges() {
+        AirportSystem system = TestNetworks.makeRandomSystem(11, 200, 600);
+        Random random = new Random(11);
+        for (int change = 0; change < 50; change++) {
+            AirportSystem.Vertex vertex = system.getVertex(random.nextInt(system.size()));
+            if (vertex.getEdges().isEmpty())
+                continue;
+            String destination = vertex.getEdges().get(0).getDestination().getId();
+            assertTrue(system.updateEdge(vertex.getId(), destination, random.nextInt(1000)));
+
+            // Enough queries per change that some are answered from the edge lists and some from a rebuilt graph
+            CompactGraph expected = CompactGraph.of(system);
+            for (int query = 0; query < 10; query++) {
+                int from = random.nextInt(system.size());
+                int to = random.nextInt(system.size());
+                assertEquals(expected.shortestDistance(from, to, SearchMode.DIJKSTRA),
+                        system.shortestDistance(system.getVertex(from).getId(), system.getVertex(to).getId()));
+            }
+        }
+    }
+
+    @Test
+    void edgeLookup() {
+        AirportSystem system = TestNetworks.makeTestSystemA();
+        assertEquals(9, system.size());
+        assertTrue(system.hasEdge("Chicago", "Detroit"));
+        assertTrue(system.hasEdge("Detroit", "Chicago"));
+        assertFalse(system.hasEdge("Chicago", "Buffalo"));
+        assertFalse(system.hasEdge("Chicago", "Nowhere"));
+        assertEquals(281, system.getDistance("Detroit", "Chicago"));
+        assertEquals(AirportSystem.UNREACHABLE, system.getDistance("Chicago", "Buffalo"));
+        assertThrows(UnsupportedOperationException.class, () -> system.getConnections().clear());
+        assertThrows(UnsupportedOperationException.class,
+                () -> system.getConnection("Chicago").getEdges().clear());
+    }
+
+    @Test
+    void hubEdgeLookup() {
+        // Well past the degree at which the hub indexes its edges, with removals that leave gaps in probe runs
+        AirportSystem system = new AirportSystem();
+        for (int i = 0; i < 500; i++)
+            assertTrue(system.addEdge("Hub", "S" + i, i));
+        assertEquals(501, system.size());
+        assertEquals(500, system.edgeCount());
+        for (int i = 0; i < 500; i++)
+            assertFalse(system.addEdge("S" + i, "Hub", 1));
+
+        for (int i = 0; i < 500; i += 3)
+            assertTrue(system.removeEdge("S" + i, "Hub"));
+        for (int i = 1; i < 500; i += 3)
+            assertTrue(system.updateEdge("Hub", "S" + i, i + 1000));
+        for (int i = 0; i < 500; i++) {
+            int expected = i % 3 == 0 ? AirportSystem.UNREACHABLE : i % 3 == 1 ? i + 1000 : i;
+            assertEquals(expected, system.getDistance("Hub", "S" + i));
+            assertEquals(expected, system.getDistance("S" + i, "Hub"));
+        }
+        // Removals keep the remaining flights in order, and updates keep their places
+        List<AirportSystem.Edge> hubEdges = system.getConnection("Hub").getEdges();
+        assertEquals(333, hubEdges.size());
+        for (int i = 0; i < hubEdges.size(); i++)
+            assertEquals("S" + (i / 2 * 3 + 1 + i % 2), hubEdges.get(i).getDestination().getId());
+
+        for (int i = 0; i < 500; i += 3)
+            assertTrue(system.addEdge("Hub", "S" + i, 7));
+        assertEquals(7, system.getDistance("Hub", "S3"));
+        assertEquals(500, system.edgeCount());
     }
 
     @Test
     void breadthFirstSearch() {
-        AirportSystem system = makeTestSystemA();
+        AirportSystem system = TestNetworks.makeTestSystemA();
         List<String> searchListOrder = system.breadthFirstSearch("Buffalo");
 
         // Hand drawn graph with dijkstra's shows that this is a valid result, so this result is expected when we start
@@ -76,7 +160,7 @@ class AirportSystemTest {
         assertEquals("Detroit", searchListOrder.get(7));
         assertEquals("Indianapolis", searchListOrder.get(8));
 
-        system = makeTestSystemB();
+        system = TestNetworks.makeTestSystemB();
         searchListOrder = system.breadthFirstSearch("1");
 
         // Assert all the possible combinations of ordering for the BFS
@@ -120,7 +204,7 @@ class AirportSystemTest {
 
     @Test
     void minimumSpanningTree() {
-        AirportSystem system = makeTestSystemA();
+        AirportSystem system = TestNetworks.makeTestSystemA();
         List<AirportSystem.Edge> minimumSpanningTree;
 
         // A minimum spanning tree has the minimal total edge length, so that is the factor that we will use for the
@@ -135,7 +219,7 @@ class AirportSystemTest {
         minimumSpanningTree.forEach(System.out::println);
         assertEquals(1038, getTotalDistance(minimumSpanningTree));
 
-        system = makeTestSystemB();
+        system = TestNetworks.makeTestSystemB();
         minimumSpanningTree = system.minimumSpanningTree("5");
         minimumSpanningTree.forEach(System.out::println);
         assertEquals(17, getTotalDistance(minimumSpanningTree));
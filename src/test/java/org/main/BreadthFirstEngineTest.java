@@ -0,0 +1,98 @@
+package org.main;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BreadthFirstEngineTest {
+    @Test
+    void hopLevels() {
+        AirportSystem system = TestNetworks.makeTestSystemA();
+        BreadthFirstResult result = system.hopLevels("Chicago");
+        assertEquals(system.size(), result.reachedCount());
+        assertEquals(0, result.level("Chicago"));
+        assertEquals(1, result.level("Detroit"));
+        assertEquals(2, result.level("Cleveland"));
+        assertEquals(AirportSystem.UNREACHABLE, result.level("Nowhere"));
+        assertEquals(List.of("Chicago"), result.atLevel(0));
+        assertEquals(Set.of("Detroit", "Toledo", "Indianapolis"), new HashSet<>(result.atLevel(1)));
+        assertEquals(4, result.countWithinHops(1));
+        assertEquals(result.visitOrder().subList(0, 4), result.withinHops(1));
+        assertEquals(new HashSet<>(system.breadthFirstSearch("Chicago")), new HashSet<>(result.visitOrder()));
+
+        BreadthFirstResult limited = system.hopLevels("Chicago", 1);
+        assertEquals(4, limited.reachedCount());
+        assertEquals(2, limited.levelCount());
+        assertEquals(AirportSystem.UNREACHABLE, limited.level("Cleveland"));
+        assertEquals(1, system.hopLevels("Chicago", 0).reachedCount());
+
+        assertThrows(IllegalArgumentException.class, () -> system.hopLevels("Nowhere"));
+    }
+
+    @Test
+    void matchesSequentialSearch() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (long seed = 0; seed < 4; seed++) {
+                int vertexCount = 30_000;
+                AirportSystem system = TestNetworks.makeRandomSystem(seed, vertexCount,
+                        45_000 + (int) seed * 30_000);
+
+                // A few hubs with thousands of flights each make the search switch to bottom-up
+                Random random = new Random(seed);
+                for (int hub = 0; hub < 3; hub++)
+                    for (int i = 0; i < 8_000; i++)
+                        system.addEdge("V" + hub, "V" + random.nextInt(vertexCount), 1 + random.nextInt(50));
+
+                CompactGraph graph = system.compact();
+                for (int source : new int[] {0, 5, graph.size() - 1}) {
+                    assertSameLevels(graph, graph.breadthFirst().search(source, Integer.MAX_VALUE, pool), source);
+                    assertSameLevels(graph, graph.breadthFirst().search(source), source);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void assertSameLevels(CompactGraph graph, BreadthFirstResult result, int source) {
+        int[] expected = referenceLevels(graph, source);
+        int reached = 0;
+        for (int v = 0; v < graph.size(); v++) {
+            assertEquals(expected[v], result.level(v));
+            if (expected[v] != AirportSystem.UNREACHABLE)
+                reached++;
+        }
+        assertEquals(reached, result.reachedCount());
+
+        // Every vertex is visited once, level by level
+        int[] order = result.order();
+        assertEquals(reached, new HashSet<>(Arrays.stream(order).boxed().toList()).size());
+        for (int i = 1; i < order.length; i++)
+            assertTrue(result.level(order[i - 1]) <= result.level(order[i]));
+        for (int level = 0; level < result.levelCount(); level++)
+            for (String id : result.atLevel(level))
+                assertEquals(level, result.level(id));
+    }
+
+    private int[] referenceLevels(CompactGraph graph, int source) {
+        int[] levels = new int[graph.size()];
+        Arrays.fill(levels, AirportSystem.UNREACHABLE);
+        Deque<Integer> queue = new ArrayDeque<>();
+        levels[source] = 0;
+        queue.add(source);
+        while (!queue.isEmpty()) {
+            int vertex = queue.poll();
+            for (int slot = graph.firstSlot(vertex); slot < graph.endSlot(vertex); slot++) {
+                if (levels[graph.target(slot)] == AirportSystem.UNREACHABLE) {
+                    levels[graph.target(slot)] = levels[vertex] + 1;
+                    queue.add(graph.target(slot));
+                }
+            }
+        }
+        return levels;
+    }
+}
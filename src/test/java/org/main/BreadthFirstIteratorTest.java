@@ -0,0 +1,44 @@
+package org.main;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BreadthFirstIteratorTest {
+    @Test
+    void breadthFirstStream() {
+        AirportSystem system = TestNetworks.makeTestSystemA();
+        List<Visit> visits = system.breadthFirstStream("Chicago").toList();
+        assertEquals(system.breadthFirstSearch("Chicago"), visits.stream().map(Visit::id).toList());
+        assertEquals(0, visits.get(0).distance());
+        assertEquals(3, visits.stream().filter(visit -> visit.distance() == 1).count());
+        assertEquals(List.of("Chicago", "Detroit"), system.breadthFirstStream("Chicago").limit(2).map(Visit::id)
+                .toList());
+        assertThrows(IllegalArgumentException.class, () -> system.breadthFirstStream("Nowhere"));
+    }
+
+    @Test
+    void matchesHopLevels() {
+        for (long seed = 0; seed < 5; seed++) {
+            CompactGraph graph = TestNetworks.makeRandomSystem(seed, 5_000, 8_000).compact();
+            BreadthFirstResult levels = graph.breadthFirst().search(0);
+
+            BreadthFirstIterator iterator = graph.breadthFirstIterator(0);
+            HashSet<Integer> seen = new HashSet<>();
+            int previous = 0;
+            while (iterator.hasNext()) {
+                Visit visit = iterator.next();
+                assertTrue(seen.add(visit.vertex()));
+                assertEquals(levels.level(visit.vertex()), visit.distance());
+                assertTrue(previous <= visit.distance());
+                previous = visit.distance();
+            }
+            assertEquals(levels.reachedCount(), seen.size());
+            assertThrows(NoSuchElementException.class, iterator::next);
+        }
+    }
+}
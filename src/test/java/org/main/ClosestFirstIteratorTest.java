@@ -0,0 +1,60 @@
+package org.main;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClosestFirstIteratorTest {
+    @Test
+    void closestFirst() {
+        AirportSystem system = TestNetworks.makeTestSystemA();
+        List<Visit> visits = system.closestFirst("Chicago").toList();
+        assertEquals(system.size(), visits.size());
+        assertEquals(new Visit(system.getConnection("Chicago").getIndex(), "Chicago", 0), visits.get(0));
+        for (int i = 0; i < visits.size(); i++) {
+            assertEquals(system.shortestDistance("Chicago", visits.get(i).id()), visits.get(i).distance());
+            if (i > 0)
+                assertTrue(visits.get(i - 1).distance() <= visits.get(i).distance());
+        }
+
+        assertEquals(List.of("Chicago", "Indianapolis", "Toledo"),
+                system.closestFirst("Chicago").limit(3).map(Visit::id).toList());
+        assertEquals(4, system.closestFirst("Chicago").takeWhile(visit -> visit.distance() <= 281).count());
+
+        // A stream keeps working on the graph it was created from
+        Iterator<Visit> iterator = system.closestFirst("Chicago").iterator();
+        iterator.next();
+        assertTrue(system.addEdge("Chicago", "Milwaukee", 1));
+        assertEquals("Indianapolis", iterator.next().id());
+        assertEquals("Milwaukee", system.closestFirst("Chicago").skip(1).findFirst().orElseThrow().id());
+
+        assertThrows(IllegalArgumentException.class, () -> system.closestFirst("Nowhere"));
+    }
+
+    @Test
+    void matchesDijkstra() {
+        for (long seed = 0; seed < 5; seed++) {
+            CompactGraph graph = TestNetworks.makeRandomSystem(seed, 3_000, 6_000).compact();
+            int source = (int) seed;
+            int[] expected = graph.dijkstra().distancesFrom(source);
+
+            ClosestFirstIterator iterator = graph.closestFirstIterator(source);
+            int visited = 0;
+            int previous = 0;
+            while (iterator.hasNext()) {
+                Visit visit = iterator.next();
+                assertEquals(expected[visit.vertex()], visit.distance());
+                assertTrue(previous <= visit.distance());
+                previous = visit.distance();
+                visited++;
+            }
+            assertEquals(Arrays.stream(expected).filter(d -> d != AirportSystem.UNREACHABLE).count(), visited);
+            assertThrows(NoSuchElementException.class, iterator::next);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.main;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactGraphTest {
+    @Test
+    void compact() {
+        AirportSystem system = TestNetworks.makeTestSystemA();
+        CompactGraph graph = system.compact();
+        assertEquals(system.size(), graph.size());
+        assertEquals(13, graph.edgeCount());
+        for (AirportSystem.Vertex vertex : system.getConnections())
+            assertEquals(vertex.getId(), graph.idOf(graph.indexOf(vertex.getId())));
+        assertEquals(-1, graph.indexOf("Nowhere"));
+
+        // Three ints per slot at most, plus the offsets
+        assertTrue(graph.bytesPerEdge() > 0 && graph.bytesPerEdge() < 32);
+        System.out.println("Bytes per edge: " + graph.bytesPerEdge() + ", total: " + graph.estimatedBytes());
+    }
+
+    @Test
+    void shortestDistance() {
+        CompactGraph graph = TestNetworks.makeTestSystemA().compact();
+        assertEquals(60, graph.shortestDistance("Detroit", "Toledo"));
+        assertEquals(181, graph.shortestDistance("Indianapolis", "Chicago"));
+        assertEquals(0, graph.shortestDistance("Chicago", "Chicago"));
+        assertEquals(334, graph.shortestDistance("Columbus", "Buffalo"));
+        assertEquals(368, graph.shortestDistance("Detroit", "Indianapolis"));
+
+        graph = TestNetworks.makeTestSystemB().compact();
+        assertEquals(13, graph.shortestDistance("6", "5"));
+    }
+
+    @Test
+    void breadthFirstSearch() {
+        AirportSystem system = TestNetworks.makeTestSystemA();
+        CompactGraph graph = system.compact();
+        for (AirportSystem.Vertex vertex : system.getConnections())
+            assertEquals(system.breadthFirstSearch(vertex.getId()), graph.breadthFirstSearch(vertex.getId()));
+        assertThrows(IllegalArgumentException.class, () -> graph.breadthFirstSearch("Nowhere"));
+    }
+
+    @Test
+    void minimumSpanningTree() {
+        CompactGraph graph = TestNetworks.makeTestSystemA().compact();
+        assertEquals(1038, getTotalDistance(graph.minimumSpanningTree("Buffalo")));
+        assertEquals(1038, getTotalDistance(graph.minimumSpanningTree("Detroit")));
+        assertEquals(graph.size() - 1, graph.minimumSpanningTree("Detroit").size());
+        CompactGraph fixture = graph;
+        assertThrows(IllegalArgumentException.class, () -> fixture.minimumSpanningTree("Nowhere"));
+
+        graph = TestNetworks.makeTestSystemB().compact();
+        assertEquals(17, getTotalDistance(graph.minimumSpanningTree("5")));
+        assertEquals(5, graph.minimumSpanningTree().size());
+    }
+
+    @Test
+    void matchesAirportSystem() {
+        for (long seed = 0; seed < 5; seed++) {
+            AirportSystem system = TestNetworks.makeRandomSystem(seed, 200, 600);
+            CompactGraph graph = system.compact();
+            for (int i = 0; i < 20; i++) {
+                String from = system.getVertex(i).getId();
+                String to = system.getVertex(system.size() - 1 - i).getId();
+                assertEquals(TestNetworks.referenceDistance(system, from, to), graph.shortestDistance(from, to));
+                assertEquals(system.breadthFirstSearch(from), graph.breadthFirstSearch(from));
+            }
+        }
+    }
+
+    private int getTotalDistance(List<CompactGraph.Edge> edges) {
+        int totalPathLength = 0;
+        for (CompactGraph.Edge edge : edges)
+            totalPathLength += edge.distance();
+        return totalPathLength;
+    }
+}
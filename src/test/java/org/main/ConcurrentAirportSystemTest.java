@@ -0,0 +1,113 @@
+package org.main;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentAirportSystemTest {
+    @Test
+    void behavesLikeAirportSystem() {
+        ConcurrentAirportSystem system = new ConcurrentAirportSystem();
+        assertTrue(system.addEdge("1", "5", 4));
+        assertEquals(4, system.addEdges(List.of(
+                new ConcurrentAirportSystem.Route("1", "2", 2),
+                new ConcurrentAirportSystem.Route("1", "4", 1),
+                new ConcurrentAirportSystem.Route("5", "4", 9),
+                new ConcurrentAirportSystem.Route("1", "2", 2),
+                new ConcurrentAirportSystem.Route("4", "3", 5)
+        )));
+        assertTrue(system.addEdge("2", "6", 7));
+        assertTrue(system.addEdge("6", "3", 8));
+        assertTrue(system.addEdge("2", "4", 3));
+        assertTrue(system.addEdge("2", "3", 3));
+        assertFalse(system.addEdge("2", "3", 3));
+        assertFalse(system.addEdge("2", "2", 3));
+        assertFalse(system.addEdge("2", "7", -3));
+
+        assertEquals(6, system.size());
+        assertEquals(9, system.edgeCount());
+        assertEquals(13, system.shortestDistance("6", "5"));
+        assertEquals(13, system.shortestDistance("6", "5", SearchMode.BIDIRECTIONAL));
+        assertEquals(6, system.breadthFirstSearch("1").size());
+        assertEquals(17, system.minimumSpanningTree("5").stream().mapToInt(CompactGraph.Edge::distance).sum());
+        assertTrue(system.getConnections().containsAll(List.of("1", "2", "3", "4", "5", "6")));
+
+        // A snapshot keeps answering for its own version
+        CompactGraph before = system.snapshot();
+        int version = system.version();
+        assertTrue(system.addEdge("6", "5", 1));
+        assertEquals(13, before.shortestDistance("6", "5"));
+        assertEquals(1, system.shortestDistance("6", "5"));
+        assertTrue(system.version() > version);
+        assertEquals(10, system.edgeCount());
+    }
+
+    @Test
+    void stress() throws Exception {
+        int writers = 4;
+        int readers = 8;
+        int edgesPerWriter = 400;
+        ConcurrentAirportSystem system = new ConcurrentAirportSystem();
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers + readers);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            // Each writer builds its own chain W-0, W-1, ... with flights of length 1, plus flights to a shared hub
+            CountDownLatch writersDone = new CountDownLatch(writers);
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                futures.add(executor.submit(() -> {
+                    try {
+                        for (int k = 1; k <= edgesPerWriter; k++) {
+                            assertTrue(system.addEdge(writer + "-" + (k - 1), writer + "-" + k, 1));
+                            assertFalse(system.addEdge(writer + "-" + k, writer + "-" + (k - 1), 1));
+                        }
+                        assertTrue(system.addEdge(writer + "-0", "hub", 1000));
+                    } finally {
+                        writersDone.countDown();
+                    }
+                    return null;
+                }));
+            }
+
+            // Readers check that every snapshot is a whole version: a chain never has gaps, and its distances are
+            // exactly its length
+            for (int r = 0; r < readers; r++) {
+                futures.add(executor.submit(() -> {
+                    int lastEdgeCount = 0;
+                    while (writing.get()) {
+                        CompactGraph snapshot = system.snapshot();
+                        assertTrue(snapshot.edgeCount() >= lastEdgeCount);
+                        lastEdgeCount = snapshot.edgeCount();
+                        for (int writer = 0; writer < writers; writer++) {
+                            int length = 0;
+                            while (snapshot.indexOf(writer + "-" + (length + 1)) != -1)
+                                length++;
+                            if (length > 0)
+                                assertEquals(length, snapshot.shortestDistance(writer + "-0", writer + "-" + length));
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            assertTrue(writersDone.await(60, TimeUnit.SECONDS));
+            writing.set(false);
+            for (Future<?> future : futures)
+                future.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // No edge was lost
+        assertEquals(writers * (edgesPerWriter + 1), system.edgeCount());
+        assertEquals(writers * (edgesPerWriter + 1) + 1, system.size());
+        assertEquals(2000 + 2 * edgesPerWriter, system.shortestDistance("0-" + edgesPerWriter, "1-" + edgesPerWriter));
+    }
+}
@@ -0,0 +1,63 @@
+package org.main;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractionHierarchyTest {
+    @Test
+    void fixtures() {
+        AirportSystem[] systems = {TestNetworks.makeTestSystemA(), TestNetworks.makeTestSystemB()};
+        for (AirportSystem system : systems) {
+            ContractionHierarchy hierarchy = system.contractionHierarchy();
+            for (AirportSystem.Vertex a : system.getConnections())
+                for (AirportSystem.Vertex b : system.getConnections())
+                    assertEquals(system.shortestDistance(a, b), hierarchy.shortestDistance(a.getId(), b.getId()));
+            assertEquals(AirportSystem.UNREACHABLE, hierarchy.shortestDistance("Nowhere", a(system)));
+        }
+    }
+
+    @Test
+    void randomGraphs() {
+        for (long seed = 0; seed < 5; seed++) {
+            // Sparse enough that some pairs are unreachable
+            AirportSystem system = TestNetworks.makeRandomSystem(seed, 400, 700);
+            ContractionHierarchy hierarchy = system.contractionHierarchy();
+            Random random = new Random(seed);
+            for (int i = 0; i < 200; i++) {
+                String from = system.getVertex(random.nextInt(system.size())).getId();
+                String to = system.getVertex(random.nextInt(system.size())).getId();
+                assertEquals(system.shortestDistance(from, to), hierarchy.shortestDistance(from, to));
+            }
+            System.out.println(hierarchy.statistics());
+        }
+    }
+
+    @Test
+    void statistics() {
+        ContractionHierarchy hierarchy = TestNetworks.makeTestSystemA().contractionHierarchy();
+        hierarchy.shortestDistance("Detroit", "Indianapolis");
+        hierarchy.shortestDistance("Columbus", "Buffalo");
+        assertEquals(0, hierarchy.shortestDistance("Toledo", "Toledo"));
+
+        ContractionHierarchy.Statistics statistics = hierarchy.statistics();
+        assertEquals(9, statistics.vertexCount());
+        assertEquals(13, statistics.edgeCount());
+        assertEquals(hierarchy.shortcutCount(), statistics.shortcutCount());
+        assertEquals(3, statistics.queryCount());
+        assertTrue(statistics.averageQueryMicros() > 0);
+
+        // Every vertex gets a distinct rank
+        boolean[] seen = new boolean[9];
+        for (int v = 0; v < 9; v++)
+            seen[hierarchy.rank(v)] = true;
+        for (boolean rank : seen)
+            assertTrue(rank);
+    }
+
+    private String a(AirportSystem system) {
+        return system.getVertex(0).getId();
+    }
+}
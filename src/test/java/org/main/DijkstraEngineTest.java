@@ -0,0 +1,63 @@
+package org.main;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DijkstraEngineTest {
+    @Test
+    void heapOrdersByKey() {
+        IndexedHeap heap = new IndexedHeap();
+        heap.ensureCapacity(100);
+        Random random = new Random(1);
+        int[] keys = new int[100];
+        for (int v = 0; v < 100; v++) {
+            keys[v] = random.nextInt(1000);
+            heap.insertOrDecrease(v, keys[v]);
+        }
+
+        // Decreasing a key moves the vertex up, and increasing it is ignored
+        heap.insertOrDecrease(42, -5);
+        heap.insertOrDecrease(7, 5000);
+        keys[42] = -5;
+
+        int last = Integer.MIN_VALUE;
+        int count = 0;
+        while (!heap.isEmpty()) {
+            int key = heap.peekKey();
+            int vertex = heap.poll();
+            assertEquals(keys[vertex], key);
+            assertTrue(key >= last);
+            assertFalse(heap.contains(vertex));
+            last = key;
+            count++;
+        }
+        assertEquals(100, count);
+    }
+
+    @Test
+    void distancesFrom() {
+        AirportSystem system = TestNetworks.makeTestSystemA();
+        CompactGraph graph = system.compact();
+        int[] distances = graph.dijkstra().distancesFrom(graph.indexOf("Columbus"));
+        for (int v = 0; v < graph.size(); v++)
+            assertEquals(graph.shortestDistance("Columbus", graph.idOf(v)), distances[v]);
+        assertEquals(334, distances[graph.indexOf("Buffalo")]);
+    }
+
+    @Test
+    void reusedBetweenGraphsOfDifferentSizes() {
+        // The per-thread state must grow and be reset correctly between graphs
+        for (long seed = 0; seed < 6; seed++) {
+            AirportSystem system = TestNetworks.makeRandomSystem(seed, 50 + (int) (seed % 3) * 100, 300);
+            CompactGraph graph = system.compact();
+            for (int i = 0; i < 15; i++) {
+                String from = graph.idOf(i);
+                String to = graph.idOf(graph.size() - 1 - i);
+                assertEquals(TestNetworks.referenceDistance(system, from, to), graph.shortestDistance(from, to));
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.main;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DynamicShortestPathTreeTest {
+    @Test
+    void fixture() {
+        AirportSystem system = TestNetworks.makeTestSystemA();
+        DynamicShortestPathTree tree = system.trackShortestPaths("Chicago");
+        assertEquals("Chicago", tree.source());
+        assertEquals(361, tree.distanceTo("Cleveland"));
+        assertEquals(List.of("Chicago", "Toledo", "Cleveland"), tree.routeTo("Cleveland"));
+
+        // Detroit - Toledo is not on any shortest route from Chicago, so removing it changes nothing
+        assertTrue(system.removeEdge("Detroit", "Toledo"));
+        assertEquals(0, tree.lastUpdateSize());
+        assertEquals(281, tree.distanceTo("Detroit"));
+
+        assertTrue(system.updateEdge("Chicago", "Toledo", 500));
+        assertEquals(489, tree.distanceTo("Toledo"));
+        assertEquals(List.of("Chicago", "Indianapolis", "Cincinnati", "Toledo"), tree.routeTo("Toledo"));
+
+        assertTrue(system.addEdge("Chicago", "Cleveland", 100));
+        assertEquals(100, tree.distanceTo("Cleveland"));
+        assertEquals(217, tree.distanceTo("Toledo"));
+
+        assertTrue(system.addEdge("Boston", "Portland", 10));
+        assertEquals(AirportSystem.UNREACHABLE, tree.distanceTo("Boston"));
+        assertTrue(tree.routeTo("Boston").isEmpty());
+        assertTrue(system.addEdge("Boston", "Buffalo", 10));
+        assertEquals(tree.distanceTo("Buffalo") + 20, tree.distanceTo("Portland"));
+
+        assertNull(system.trackShortestPaths("Nowhere"));
+        system.untrackShortestPaths(tree);
+        assertTrue(system.removeEdge("Chicago", "Cleveland"));
+        assertEquals(100, tree.distanceTo("Cleveland"));
+    }
+
+    @Test
+    void matchesRecomputation() {
+        for (long seed = 0; seed < 4; seed++) {
+            int vertexCount = 400;
+            AirportSystem system = TestNetworks.makeRandomSystem(seed, vertexCount, 900);
+            DynamicShortestPathTree[] trees = {
+                    system.trackShortestPaths("V0"),
+                    system.trackShortestPaths("V1"),
+                    system.trackShortestPaths("V2")
+            };
+
+            Random random = new Random(seed);
+            for (int step = 0; step < 400; step++) {
+                String a = "V" + random.nextInt(vertexCount + 10);
+                String b = "V" + random.nextInt(vertexCount + 10);
+                switch (random.nextInt(4)) {
+                    case 0 -> system.addEdge(a, b, random.nextInt(100));
+                    case 1 -> system.removeEdge(a, b);
+                    default -> {
+                        // Change an existing edge of a random city, so that most updates hit a real edge
+                        AirportSystem.Vertex vertex = system.getConnection(a);
+                        if (vertex != null && !vertex.getEdges().isEmpty()) {
+                            AirportSystem.Edge edge = vertex.getEdges().get(0);
+                            system.updateEdge(a, edge.getDestination().getId(), random.nextInt(100));
+                        }
+                    }
+                }
+
+                CompactGraph graph = system.compact();
+                for (DynamicShortestPathTree tree : trees) {
+                    int[] expected = graph.dijkstra().distancesFrom(graph.indexOf(tree.source()));
+                    for (int v = 0; v < graph.size(); v++)
+                        assertEquals(expected[v], tree.distanceTo(v));
+                }
+            }
+
+            // Every route in the tree is a real route of the right length
+            CompactGraph graph = system.compact();
+            for (int v = 0; v < graph.size(); v++) {
+                List<String> route = trees[0].routeTo(graph.idOf(v));
+                int distance = 0;
+                for (int i = 1; i < route.size(); i++)
+                    distance += edgeWeight(system, route.get(i - 1), route.get(i));
+                if (!route.isEmpty())
+                    assertEquals(trees[0].distanceTo(v), distance);
+            }
+        }
+    }
+
+    private int edgeWeight(AirportSystem system, String from, String to) {
+        return system.getConnection(from).getEdges().stream()
+                .filter(edge -> edge.getDestination().getId().equals(to))
+                .findFirst().orElseThrow().getDistance();
+    }
+}
@@ -0,0 +1,142 @@
+package org.main;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EdgeListLoaderTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void rejectionRules() throws IOException {
+        Path file = write("""
+                Chicago,Detroit,281
+                Chicago , Toledo , 244\r
+                
+                Detroit,Toledo,-60
+                Toledo,Toledo,5
+                Toledo,Chicago,12
+                Chicago,Detroit
+                Chicago,Detroit,abc
+                Chicago,Detroit,99999999999
+                Zürich,Chicago,4000""");
+
+        EdgeListLoader.Result result = new EdgeListLoader().load(file);
+        assertEquals(3, result.edgeCount());
+        assertEquals(6, result.rejectedCount());
+
+        List<EdgeListLoader.RejectedLine> rejected = result.rejectedLines();
+        assertEquals(new EdgeListLoader.RejectedLine(4, EdgeListLoader.Reason.NEGATIVE_WEIGHT, "Detroit,Toledo,-60"),
+                rejected.get(0));
+        assertEquals(EdgeListLoader.Reason.SELF_LOOP, rejected.get(1).reason());
+        assertEquals(EdgeListLoader.Reason.DUPLICATE, rejected.get(2).reason());
+        assertEquals(6, rejected.get(2).lineNumber());
+        assertEquals(EdgeListLoader.Reason.MALFORMED, rejected.get(3).reason());
+        assertEquals(EdgeListLoader.Reason.MALFORMED, rejected.get(4).reason());
+        assertEquals(EdgeListLoader.Reason.MALFORMED, rejected.get(5).reason());
+
+        CompactGraph graph = result.graph();
+        assertEquals(4, graph.size());
+        assertEquals(244, graph.shortestDistance("Toledo", "Chicago"));
+        assertEquals(4281, graph.shortestDistance("Zürich", "Detroit"));
+
+        // Rejected vertexes are never created, like with addEdge
+        assertEquals(-1, graph.indexOf("Nowhere"));
+        AirportSystem system = result.toAirportSystem();
+        assertEquals(4, system.size());
+        assertEquals(3, system.edgeCount());
+
+        EdgeListLoader.Result limited = new EdgeListLoader(EdgeListLoader.DEFAULT_CHUNK_SIZE, 2).load(file);
+        assertEquals(6, limited.rejectedCount());
+        assertEquals(2, limited.rejectedLines().size());
+    }
+
+    @Test
+    void quotedIds() throws IOException {
+        Path file = write(String.join("\n",
+                "\"Washington, D.C.\",Chicago,2",
+                "Chicago,\"Say \"\"Cheese\"\"\",1",
+                " \" Padded \" , \"Chicago\" ,3",
+                "\"Chicago\",Chicago,4",
+                "\"Say \"\"Cheese\"\"\",\"Washington, D.C.\",5",
+                "\"Unterminated,Chicago,6",
+                "\"Chicago\"x,Detroit,7",
+                "\"\",Chicago,8"));
+
+        EdgeListLoader.Result result = new EdgeListLoader().load(file);
+        assertEquals(4, result.edgeCount());
+        List<EdgeListLoader.RejectedLine> rejected = result.rejectedLines();
+        assertEquals(new EdgeListLoader.RejectedLine(4, EdgeListLoader.Reason.SELF_LOOP, "\"Chicago\",Chicago,4"),
+                rejected.get(0));
+        assertEquals(EdgeListLoader.Reason.MALFORMED, rejected.get(1).reason());
+        assertEquals(EdgeListLoader.Reason.MALFORMED, rejected.get(2).reason());
+        assertEquals(EdgeListLoader.Reason.MALFORMED, rejected.get(3).reason());
+
+        AirportSystem system = result.toAirportSystem();
+        assertEquals(2, system.getDistance("Washington, D.C.", "Chicago"));
+        assertEquals(1, system.getDistance("Chicago", "Say \"Cheese\""));
+        assertEquals(3, system.getDistance(" Padded ", "Chicago"));
+        assertEquals(5, system.getDistance("Say \"Cheese\"", "Washington, D.C."));
+        assertEquals(4, system.size());
+    }
+
+    @Test
+    void matchesAddEdge() throws IOException {
+        Random random = new Random(9);
+        StringBuilder text = new StringBuilder();
+        AirportSystem expected = new AirportSystem();
+        int accepted = 0;
+        for (int line = 0; line < 5000; line++) {
+            String source = "V" + random.nextInt(800);
+            String destination = "V" + random.nextInt(800);
+            int weight = random.nextInt(1000) - 20;
+            text.append(source).append(',').append(destination).append(',').append(weight).append('\n');
+            if (expected.addEdge(source, destination, weight))
+                accepted++;
+        }
+        Path file = write(text.toString());
+
+        // Tiny chunks so that lines are split across many chunk boundaries
+        EdgeListLoader loader = new EdgeListLoader(100, Integer.MAX_VALUE);
+        for (EdgeListLoader.Result result : new EdgeListLoader.Result[] {
+                loader.load(file), loader.load(file, ForkJoinPool.commonPool()), new EdgeListLoader().load(file)
+        }) {
+            assertEquals(accepted, result.edgeCount());
+            assertEquals(5000 - accepted, result.rejectedCount());
+
+            CompactGraph graph = result.graph();
+            CompactGraph expectedGraph = expected.compact();
+            assertEquals(expectedGraph.getConnections(), graph.getConnections());
+            for (int i = 0; i < 20; i++) {
+                String from = expectedGraph.idOf(i);
+                assertEquals(expected.breadthFirstSearch(from), graph.breadthFirstSearch(from));
+                assertEquals(expected.breadthFirstSearch(from), result.toAirportSystem().breadthFirstSearch(from));
+                String to = expectedGraph.idOf(expectedGraph.size() - 1 - i);
+                assertEquals(expected.shortestDistance(from, to), graph.shortestDistance(from, to));
+            }
+        }
+    }
+
+    @Test
+    void emptyFile() throws IOException {
+        EdgeListLoader.Result result = new EdgeListLoader().load(write(""));
+        assertEquals(0, result.edgeCount());
+        assertEquals(0, result.graph().size());
+    }
+
+    private Path write(String text) throws IOException {
+        Path file = directory.resolve("edges.csv");
+        Files.writeString(file, text, StandardCharsets.UTF_8);
+        return file;
+    }
+}
@@ -0,0 +1,77 @@
+package org.main;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphPartitionerTest {
+    /**
+     * A square grid of cities with flights between horizontal and vertical neighbours.
+     */
+    static AirportSystem makeGrid(int side) {
+        AirportSystem system = new AirportSystem();
+        for (int row = 0; row < side; row++) {
+            for (int column = 0; column < side; column++) {
+                if (column + 1 < side)
+                    system.addEdge(row + "," + column, row + "," + (column + 1), 1 + (row * column) % 7);
+                if (row + 1 < side)
+                    system.addEdge(row + "," + column, (row + 1) + "," + column, 1 + (row + column) % 5);
+            }
+        }
+        return system;
+    }
+
+    @Test
+    void gridIsCutCheaply() {
+        CompactGraph graph = makeGrid(40).compact();
+        GraphPartition partition = GraphPartitioner.partition(graph, 4);
+        assertEquals(4, partition.partCount());
+
+        int total = 0;
+        for (int part = 0; part < 4; part++) {
+            assertEquals(partition.partSize(part), partition.vertexes(part).length);
+            assertTrue(partition.partSize(part) <= 1600 / 4 * 1.05 + 1, "part " + part + " is too big");
+            total += partition.partSize(part);
+        }
+        assertEquals(1600, total);
+
+        // Cutting the grid into quarters cuts 80 of its 3120 flights, while a random split would cut about 2340
+        assertTrue(partition.cutEdgeCount() < 200, "cut " + partition.cutEdgeCount() + " flights");
+
+        int cut = 0;
+        for (int v = 0; v < graph.size(); v++)
+            for (int slot = graph.firstSlot(v); slot < graph.endSlot(v); slot++)
+                if (partition.partOf(v) != partition.partOf(graph.target(slot)))
+                    cut++;
+        assertEquals(partition.cutEdgeCount(), cut / 2);
+    }
+
+    @Test
+    void disconnectedAndSmallGraphs() {
+        CompactGraph graph = TestNetworks.makeRandomSystem(3, 500, 300).compact();
+        GraphPartition partition = GraphPartitioner.partition(graph, 3);
+        for (int part = 0; part < 3; part++)
+            assertTrue(partition.partSize(part) <= graph.size() / 3 * 1.05 + 2);
+
+        assertEquals(0, GraphPartitioner.partition(graph, 1).cutEdgeCount());
+
+        // More parts than cities leaves some parts empty
+        CompactGraph small = TestNetworks.makeTestSystemB().compact();
+        partition = GraphPartitioner.partition(small, 10);
+        int total = 0;
+        for (int part = 0; part < 10; part++)
+            total += partition.partSize(part);
+        assertEquals(small.size(), total);
+
+        assertThrows(IllegalArgumentException.class, () -> GraphPartitioner.partition(small, 0));
+    }
+
+    @Test
+    void deterministic() {
+        CompactGraph graph = TestNetworks.makeRandomSystem(5, 400, 1200).compact();
+        GraphPartition first = GraphPartitioner.partition(graph, 5);
+        GraphPartition second = GraphPartitioner.partition(graph, 5);
+        for (int v = 0; v < graph.size(); v++)
+            assertEquals(first.partOf(v), second.partOf(v));
+    }
+}
@@ -0,0 +1,98 @@
+package org.main;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphSnapshotTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripFixtures() throws IOException {
+        AirportSystem[] systems = {TestNetworks.makeTestSystemA(), TestNetworks.makeTestSystemB()};
+        for (AirportSystem system : systems) {
+            Path file = directory.resolve("fixture.graph");
+            GraphSnapshot.write(system.compact(), file);
+            assertEquals(system.compact(), GraphSnapshot.read(file));
+
+            system.saveSnapshot(file);
+            AirportSystem loaded = AirportSystem.loadSnapshot(file);
+            assertEquals(system.compact(), loaded.compact());
+            assertEquals(system.toString(), loaded.toString());
+            assertEquals(system.size(), loaded.size());
+            assertEquals(system.edgeCount(), loaded.edgeCount());
+            assertEquals(system.shortestDistance("Chicago", "Cleveland"),
+                    loaded.shortestDistance("Chicago", "Cleveland"));
+        }
+    }
+
+    @Test
+    void roundTripLocations() throws IOException {
+        AirportSystem system = TestNetworks.makeTestSystemA();
+        Random random = new Random(3);
+        for (AirportSystem.Vertex vertex : system.getConnections())
+            system.setLocation(vertex.getId(), random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180);
+
+        Path file = directory.resolve("located.graph");
+        system.saveSnapshot(file);
+        CompactGraph graph = GraphSnapshot.read(file);
+        assertTrue(graph.hasLocations());
+        assertEquals(system.compact(), graph);
+        assertEquals(system.compact(), AirportSystem.loadSnapshot(file).compact());
+    }
+
+    @Test
+    void roundTripLargeRandom() throws IOException {
+        AirportSystem system = TestNetworks.makeRandomSystem(21, 20_000, 50_000);
+        Path file = directory.resolve("random.graph");
+        system.saveSnapshot(file);
+
+        CompactGraph graph = GraphSnapshot.read(file);
+        assertEquals(system.compact(), graph);
+        assertEquals(system.compact(), AirportSystem.loadSnapshot(file).compact());
+
+        // The loaded graph is used for queries as it is, until the airport system changes
+        AirportSystem loaded = AirportSystem.fromCompact(graph);
+        assertSame(graph, loaded.compact());
+        assertTrue(loaded.addEdge("V0", "Somewhere new", 1));
+        assertNotSame(graph, loaded.compact());
+        assertEquals(system.shortestDistance("V0", "V1"), graph.shortestDistance("V0", "V1", SearchMode.DIJKSTRA));
+    }
+
+    @Test
+    void rejectsCorruptFiles() throws IOException {
+        Path file = directory.resolve("corrupt.graph");
+        TestNetworks.makeTestSystemA().saveSnapshot(file);
+        byte[] bytes = Files.readAllBytes(file);
+
+        // Flip one byte of a weight, which only the checksum can notice
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+        IOException error = assertThrows(IOException.class, () -> GraphSnapshot.read(file));
+        assertTrue(error.getMessage().contains("checksum"));
+
+        // A file of another kind is reported as such even though its checksum does not match either
+        Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23,
+                24, 25, 26, 27, 28});
+        error = assertThrows(IOException.class, () -> GraphSnapshot.read(file));
+        assertTrue(error.getMessage().contains("not a graph snapshot"));
+        assertThrows(IOException.class, () -> GraphSnapshot.read(file, false));
+
+        TestNetworks.makeTestSystemA().saveSnapshot(file);
+        bytes = Files.readAllBytes(file);
+        bytes[Integer.BYTES]++;
+        Files.write(file, bytes);
+        error = assertThrows(IOException.class, () -> GraphSnapshot.read(file));
+        assertTrue(error.getMessage().contains("unsupported snapshot version"));
+
+        Files.write(file, new byte[3]);
+        assertThrows(IOException.class, () -> GraphSnapshot.read(file));
+    }
+}
@@ -0,0 +1,153 @@
+package org.main;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphWriterTest {
+    @TempDir
+    Path directory;
+
+    static String write(AirportSystem system, GraphWriter writer) throws IOException {
+        StringWriter out = new StringWriter();
+        writer.write(system, out);
+        return out.toString();
+    }
+
+    @Test
+    void adjacencyList() throws IOException {
+        AirportSystem system = TestNetworks.makeTestSystemB();
+        String expected = """
+                V: 1 | E: [1, 5][1, 2][1, 4]
+                V: 5 | E: [5, 1][5, 4]
+                V: 2 | E: [2, 1][2, 6][2, 4][2, 3]
+                V: 4 | E: [4, 1][4, 5][4, 3][4, 2]
+                V: 3 | E: [3, 4][3, 6][3, 2]
+                V: 6 | E: [6, 2][6, 3]
+                """;
+        assertEquals(expected, write(system, new GraphWriter(GraphFormat.ADJACENCY_LIST)));
+        assertEquals(expected, system.toString());
+    }
+
+    @Test
+    void dotAndCsv() throws IOException {
+        AirportSystem system = TestNetworks.makeTestSystemA();
+        system.addEdge("Say \"Cheese\"", "Chicago", 1);
+        system.addEdge("Washington, D.C.", "Chicago", 2);
+
+        String dot = write(system, new GraphWriter(GraphFormat.DOT));
+        assertTrue(dot.startsWith("graph airports {\n  \"Chicago\";\n  \"Chicago\" -- \"Detroit\" [label=281];\n"));
+        assertTrue(dot.endsWith("}\n"));
+        // Each flight is written from the city that was added first
+        assertTrue(dot.contains("  \"Chicago\" -- \"Say \\\"Cheese\\\"\" [label=1];\n"));
+        assertEquals(system.edgeCount(), dot.split(" -- ", -1).length - 1);
+        assertEquals(system.size(), dot.lines().filter(line -> line.endsWith("\";")).count());
+
+        String csv = write(system, new GraphWriter(GraphFormat.CSV));
+        assertTrue(csv.startsWith("Chicago,Detroit,281\nChicago,Toledo,244\n"));
+        assertTrue(csv.contains("Chicago,\"Say \"\"Cheese\"\"\",1\n"));
+        assertTrue(csv.contains("Chicago,\"Washington, D.C.\",2\n"));
+        assertEquals(system.edgeCount(), csv.lines().count());
+
+        // A backslash at the end of an id must not escape the closing quote
+        system.addEdge("C:\\", "Chicago", 3);
+        dot = write(system, new GraphWriter(GraphFormat.DOT));
+        assertTrue(dot.contains("  \"Chicago\" -- \"C:\\\\\" [label=3];\n"));
+    }
+
+    @Test
+    void csvLoadsBack() throws IOException {
+        AirportSystem system = TestNetworks.makeRandomSystem(4, 2000, 6000);
+        Path file = directory.resolve("edges.csv");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            new GraphWriter(GraphFormat.CSV).write(system, channel);
+        }
+
+        EdgeListLoader.Result result = new EdgeListLoader().load(file);
+        assertEquals(0, result.rejectedCount());
+        AirportSystem loaded = result.toAirportSystem();
+        assertEquals(system.size(), loaded.size());
+        assertEquals(system.edgeCount(), loaded.edgeCount());
+        for (AirportSystem.Vertex vertex : system.getConnections())
+            for (AirportSystem.Edge edge : vertex.getEdges())
+                assertEquals(edge.getDistance(), loaded.getDistance(vertex.getId(), edge.getDestination().getId()));
+    }
+
+    @Test
+    void csvQuotedIdsLoadBack() throws IOException {
+        AirportSystem system = TestNetworks.makeTestSystemA();
+        system.addEdge("Say \"Cheese\"", "Chicago", 1);
+        system.addEdge("Washington, D.C.", "Say \"Cheese\"", 2);
+        system.addEdge(" Padded ", "Washington, D.C.", 3);
+        system.addEdge("\"", "Detroit", 4);
+        Path file = directory.resolve("quoted.csv");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            new GraphWriter(GraphFormat.CSV).write(system, channel);
+        }
+
+        EdgeListLoader.Result result = new EdgeListLoader().load(file);
+        assertEquals(0, result.rejectedCount());
+        AirportSystem loaded = result.toAirportSystem();
+        assertEquals(system.size(), loaded.size());
+        assertEquals(system.edgeCount(), loaded.edgeCount());
+        for (AirportSystem.Vertex vertex : system.getConnections())
+            for (AirportSystem.Edge edge : vertex.getEdges())
+                assertEquals(edge.getDistance(), loaded.getDistance(vertex.getId(), edge.getDestination().getId()));
+
+        // A line break can not be loaded back, so nothing is written at all
+        system.addEdge("Two\nLines", "Chicago", 5);
+        StringWriter out = new StringWriter();
+        assertThrows(IllegalArgumentException.class, () -> new GraphWriter(GraphFormat.CSV).write(system, out));
+        assertEquals("", out.toString());
+        assertFalse(write(system, new GraphWriter(GraphFormat.CSV, city -> !city.contains("\n"))).isEmpty());
+    }
+
+    @Test
+    void channelMatchesWriter() throws IOException {
+        // Enough text to fill the buffer many times, with ids of two, three and four UTF-8 bytes
+        Random random = new Random(1);
+        String[] names = {"Zürich", "東京", "🛫", "Chicago"};
+        AirportSystem system = new AirportSystem();
+        for (int i = 0; i < 20000; i++)
+            system.addEdge(names[random.nextInt(4)] + random.nextInt(3000), names[random.nextInt(4)]
+                    + random.nextInt(3000), random.nextInt(1000));
+
+        for (GraphFormat format : GraphFormat.values()) {
+            GraphWriter writer = new GraphWriter(format);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            writer.write(system, Channels.newChannel(bytes));
+            assertEquals(write(system, writer), bytes.toString(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void subgraph() throws IOException {
+        AirportSystem system = TestNetworks.makeTestSystemA();
+        BreadthFirstResult nearby = system.hopLevels("Buffalo", 1);
+        GraphWriter writer = new GraphWriter(GraphFormat.ADJACENCY_LIST,
+                city -> nearby.level(city) != AirportSystem.UNREACHABLE);
+        assertEquals("""
+                V: Cleveland | E: [Cleveland, Buffalo][Cleveland, Pittsburgh]
+                V: Pittsburgh | E: [Pittsburgh, Buffalo][Pittsburgh, Cleveland]
+                V: Buffalo | E: [Buffalo, Cleveland][Buffalo, Pittsburgh]
+                """, write(system, writer));
+
+        // Chicago has no flights to the other cities starting with C, but is still written in formats with nodes
+        GraphWriter startsWithC = new GraphWriter(GraphFormat.CSV, city -> city.startsWith("C"));
+        assertEquals("Cincinnati,Columbus,101\nColumbus,Cleveland,143\n", write(system, startsWithC));
+        String dot = write(system, new GraphWriter(GraphFormat.DOT, city -> city.startsWith("C")));
+        assertTrue(dot.contains("  \"Chicago\";\n"));
+        assertFalse(dot.contains("Detroit"));
+    }
+}
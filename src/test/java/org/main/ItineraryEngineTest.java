@@ -0,0 +1,122 @@
+package org.main;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItineraryEngineTest {
+    @Test
+    void shortestItinerary() {
+        AirportSystem system = TestNetworks.makeTestSystemA();
+        Itinerary itinerary = system.shortestItinerary("Chicago", "Cleveland");
+        assertEquals(List.of("Chicago", "Toledo", "Cleveland"), itinerary.airports());
+        assertEquals(361, itinerary.distance());
+        assertEquals(2, itinerary.flights());
+        assertEquals(244, itinerary.distanceTo(1));
+        assertEquals("Chicago -> Toledo -> Cleveland (361)", itinerary.toString());
+
+        assertEquals(List.of("Chicago"), system.shortestItinerary("Chicago", "Chicago").airports());
+        assertNull(system.shortestItinerary("Chicago", "Nowhere"));
+        assertTrue(system.addEdge("Boston", "Portland", 100));
+        assertNull(system.shortestItinerary("Chicago", "Boston"));
+        assertTrue(system.alternativeItineraries("Chicago", "Boston", 3, 2).isEmpty());
+
+        for (int seed = 0; seed < 3; seed++) {
+            AirportSystem random = TestNetworks.makeRandomSystem(seed, 500, 1_200);
+            for (int i = 0; i < 30; i++) {
+                String a = "V" + (i * 7 % 500);
+                String b = "V" + (i * 31 % 500);
+                Itinerary route = random.shortestItinerary(a, b);
+                int distance = random.shortestDistance(a, b);
+                assertEquals(distance, route == null ? AirportSystem.UNREACHABLE : route.distance());
+                if (route != null)
+                    assertValid(random.compact(), route);
+            }
+        }
+    }
+
+    @Test
+    void alternativeItineraries() {
+        AirportSystem system = TestNetworks.makeTestSystemA();
+        List<Itinerary> itineraries = system.alternativeItineraries("Chicago", "Cleveland", 4,
+                Double.POSITIVE_INFINITY);
+        assertEquals(4, itineraries.size());
+        assertEquals(system.shortestItinerary("Chicago", "Cleveland"), itineraries.get(0));
+        assertEquals(new HashSet<>(itineraries).size(), itineraries.size());
+        for (int i = 1; i < itineraries.size(); i++)
+            assertTrue(itineraries.get(i - 1).distance() <= itineraries.get(i).distance());
+
+        // The next shortest, Chicago -> Detroit -> Toledo -> Cleveland, is 458 which is more than 25% longer than 361
+        assertEquals(List.of(itineraries.get(0)), system.alternativeItineraries("Chicago", "Cleveland", 10, 1.25));
+        assertEquals(458, itineraries.get(1).distance());
+        assertTrue(system.alternativeItineraries("Chicago", "Cleveland", 0, 2).isEmpty());
+        assertThrows(IllegalArgumentException.class,
+                () -> system.alternativeItineraries("Chicago", "Cleveland", 2, 0.5));
+    }
+
+    @Test
+    void matchesBruteForce() {
+        for (long seed = 0; seed < 20; seed++) {
+            CompactGraph graph = TestNetworks.makeRandomSystem(seed, 10, 18).compact();
+            for (double detour : new double[] {Double.POSITIVE_INFINITY, 1.3}) {
+                int source = 0;
+                int target = graph.size() - 1;
+                List<Integer> expected = allSimplePathDistances(graph, source, target);
+                if (!expected.isEmpty()) {
+                    long limit = (long) Math.min(Integer.MAX_VALUE, Math.floor(expected.get(0) * detour));
+                    expected.removeIf(distance -> distance > limit);
+                }
+
+                List<Itinerary> itineraries = graph.itineraries().kShortest(source, target, 8, detour);
+                List<Integer> distances = itineraries.stream().map(Itinerary::distance).toList();
+                assertEquals(expected.subList(0, Math.min(8, expected.size())), distances);
+                for (Itinerary itinerary : itineraries)
+                    assertValid(graph, itinerary);
+            }
+        }
+    }
+
+    /**
+     * Check that an itinerary never visits an airport twice, only takes real flights and adds up its distances.
+     */
+    private void assertValid(CompactGraph graph, Itinerary itinerary) {
+        Set<Integer> visited = new HashSet<>();
+        assertEquals(0, itinerary.distanceTo(0));
+        for (int i = 0; i < itinerary.size(); i++) {
+            assertTrue(visited.add(itinerary.vertex(i)));
+            if (i > 0) {
+                int weight = weight(graph, itinerary.vertex(i - 1), itinerary.vertex(i));
+                assertEquals(itinerary.distanceTo(i - 1) + weight, itinerary.distanceTo(i));
+            }
+        }
+    }
+
+    private int weight(CompactGraph graph, int from, int to) {
+        for (int slot = graph.firstSlot(from); slot < graph.endSlot(from); slot++)
+            if (graph.target(slot) == to)
+                return graph.weight(slot);
+        return fail("No flight from " + from + " to " + to);
+    }
+
+    private List<Integer> allSimplePathDistances(CompactGraph graph, int source, int target) {
+        List<Integer> distances = new ArrayList<>();
+        depthFirst(graph, source, target, new boolean[graph.size()], 0, distances);
+        Collections.sort(distances);
+        return distances;
+    }
+
+    private void depthFirst(CompactGraph graph, int vertex, int target, boolean[] onPath, int distance,
+                            List<Integer> distances) {
+        if (vertex == target) {
+            distances.add(distance);
+            return;
+        }
+        onPath[vertex] = true;
+        for (int slot = graph.firstSlot(vertex); slot < graph.endSlot(vertex); slot++)
+            if (!onPath[graph.target(slot)])
+                depthFirst(graph, graph.target(slot), target, onPath, distance + graph.weight(slot), distances);
+        onPath[vertex] = false;
+    }
+}
@@ -0,0 +1,56 @@
+package org.main;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+    @Test
+    void bucketsCoverEveryValue() {
+        Random random = new Random(3);
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextLong() >>> (1 + random.nextInt(63));
+            int bucket = LatencyHistogram.bucketOf(value);
+            long lowest = LatencyHistogram.lowestValueIn(bucket);
+            long highest = LatencyHistogram.highestValueIn(bucket);
+            assertTrue(lowest <= value && value <= highest, value + " not in [" + lowest + ", " + highest + "]");
+            assertTrue(highest - lowest <= Math.max(0, lowest / 64), "Bucket too wide for " + value);
+        }
+
+        assertEquals(0, LatencyHistogram.bucketOf(0));
+        assertEquals(127, LatencyHistogram.bucketOf(127));
+        assertEquals(LatencyHistogram.bucketOf(Long.MAX_VALUE), LatencyHistogram.bucketOf(Long.MAX_VALUE - 1));
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValueIn(LatencyHistogram.bucketOf(Long.MAX_VALUE)));
+
+        // Neighbouring buckets meet without gaps
+        for (int bucket = 0; bucket < LatencyHistogram.bucketOf(Long.MAX_VALUE); bucket++)
+            assertEquals(LatencyHistogram.highestValueIn(bucket) + 1, LatencyHistogram.lowestValueIn(bucket + 1));
+    }
+
+    @Test
+    void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.valueAtPercentile(99));
+        assertEquals(0, histogram.mean());
+
+        for (long value = 1; value <= 100_000; value++)
+            histogram.record(value);
+        assertEquals(100_000, histogram.count());
+        assertEquals(100_000, histogram.max());
+        assertEquals(50_000.5, histogram.mean());
+
+        for (double percentile : new double[] {1, 50, 90, 99, 99.9}) {
+            long expected = (long) (percentile * 1_000);
+            long actual = histogram.valueAtPercentile(percentile);
+            assertTrue(actual >= expected && actual <= expected + expected / 64,
+                    percentile + "th percentile was " + actual);
+        }
+        assertEquals(100_000, histogram.valueAtPercentile(100));
+        assertEquals(1, histogram.valueAtPercentile(0));
+
+        assertThrows(IllegalArgumentException.class, () -> histogram.record(-1));
+        assertThrows(IllegalArgumentException.class, () -> histogram.valueAtPercentile(101));
+    }
+}
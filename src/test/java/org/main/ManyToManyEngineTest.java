@@ -0,0 +1,78 @@
+package org.main;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ManyToManyEngineTest {
+    @Test
+    void matchesPairwise() {
+        AirportSystem system = TestNetworks.makeRandomSystem(3, 300, 700);
+        List<String> sources = new ArrayList<>();
+        List<String> targets = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            sources.add(system.getVertex(i).getId());
+            targets.add(system.getVertex(system.size() - 1 - i * 2).getId());
+        }
+        sources.add("Nowhere");
+        targets.add(sources.get(0));
+
+        DistanceMatrix matrix = system.distanceMatrix(sources, targets);
+        assertEquals(sources.size(), matrix.rows());
+        assertEquals(targets.size(), matrix.columns());
+        int[][] array = matrix.toArray();
+        for (int row = 0; row < sources.size(); row++) {
+            for (int column = 0; column < targets.size(); column++) {
+                int expected = system.shortestDistance(sources.get(row), targets.get(column));
+                assertEquals(expected, matrix.get(row, column));
+                assertEquals(expected, array[row][column]);
+            }
+        }
+    }
+
+    @Test
+    void callerSuppliedExecutor() throws Exception {
+        AirportSystem system = TestNetworks.makeTestSystemA();
+        List<String> cities = system.getConnections().stream().map(AirportSystem.Vertex::getId).toList();
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            DistanceMatrix matrix = system.distanceMatrix(cities, cities, executor, 3).get(10, TimeUnit.SECONDS);
+            for (int i = 0; i < cities.size(); i++) {
+                assertEquals(0, matrix.get(i, i));
+                for (int j = 0; j < cities.size(); j++)
+                    assertEquals(matrix.get(i, j), matrix.get(j, i));
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(0, system.distanceMatrix(List.of(), cities).rows());
+    }
+
+    @Test
+    void cancellation() throws Exception {
+        AirportSystem system = TestNetworks.makeRandomSystem(5, 20_000, 60_000);
+        List<String> cities = system.getConnections().stream().map(AirportSystem.Vertex::getId).toList();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // Every source has to search its whole component, so this takes far longer than the test waits
+            CompletableFuture<DistanceMatrix> future = system.distanceMatrix(
+                    cities, List.of(cities.get(0), "Nowhere"), executor, 2
+            );
+            assertTrue(future.cancel(true));
+            assertThrows(CancellationException.class, future::join);
+
+            // The workers notice the cancellation and stop, leaving the executor free for other work
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package org.main;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsRegistryTest {
+    @Test
+    void offByDefault() {
+        AirportSystem system = TestNetworks.makeTestSystemA();
+        assertNull(system.getQueryListener());
+        assertEquals(361, system.shortestDistance("Chicago", "Cleveland"));
+        assertNull(system.lastQueryStats());
+    }
+
+    @Test
+    void measuresEveryOperation() {
+        AirportSystem system = TestNetworks.makeTestSystemA();
+        MetricsRegistry registry = new MetricsRegistry();
+        system.setQueryListener(registry);
+
+        assertEquals(361, system.shortestDistance("Chicago", "Cleveland"));
+        QueryStats stats = system.lastQueryStats();
+        assertEquals(QueryStats.Operation.SHORTEST_DISTANCE, stats.operation());
+        assertEquals("Chicago -> Cleveland", stats.query());
+        assertTrue(stats.settled() > 1 && stats.settled() <= 9);
+        assertTrue(stats.relaxed() >= stats.settled());
+        assertTrue(stats.heapPeak() >= 1);
+        assertTrue(stats.nanos() >= 0);
+
+        // Every city is visited and both ends of every flight are looked at
+        assertEquals(9, system.breadthFirstSearch("Chicago").size());
+        stats = system.lastQueryStats();
+        assertEquals(QueryStats.Operation.BREADTH_FIRST_SEARCH, stats.operation());
+        assertEquals(9, stats.settled());
+        assertEquals(26, stats.relaxed());
+
+        assertEquals(8, system.minimumSpanningTree("Chicago").size());
+        stats = system.lastQueryStats();
+        assertEquals(QueryStats.Operation.MINIMUM_SPANNING_TREE, stats.operation());
+        assertEquals(9, stats.settled());
+        assertTrue(stats.relaxed() >= 8);
+
+        // The duplicate is Chicago's first flight
+        assertFalse(system.addEdge("Chicago", "Detroit", 10));
+        stats = system.lastQueryStats();
+        assertEquals(QueryStats.Operation.ADD_EDGE, stats.operation());
+        assertEquals(1, stats.relaxed());
+        assertTrue(system.addEdge("Boston", "Portland", 100));
+
+        assertEquals(1, registry.totals(QueryStats.Operation.SHORTEST_DISTANCE).queries());
+        assertEquals(26, registry.totals(QueryStats.Operation.BREADTH_FIRST_SEARCH).relaxed());
+        assertEquals(2, registry.latencies(QueryStats.Operation.ADD_EDGE).count());
+        assertTrue(registry.toString().contains("ADD_EDGE"));
+
+        system.setQueryListener(null);
+        system.shortestDistance("Chicago", "Buffalo");
+        assertEquals(1, registry.totals(QueryStats.Operation.SHORTEST_DISTANCE).queries());
+    }
+
+    @Test
+    void cachedAndTrackedWork() {
+        AirportSystem system = TestNetworks.makeTestSystemA();
+        system.setQueryListener(new MetricsRegistry());
+        system.enableCache(10, 1);
+
+        system.shortestDistance("Chicago", "Cleveland");
+        assertTrue(system.lastQueryStats().settled() > 0);
+        system.shortestDistance("Cleveland", "Chicago");
+        assertEquals(0, system.lastQueryStats().settled());
+        assertEquals(0, system.lastQueryStats().relaxed());
+
+        // A shortcut to Cleveland makes Cleveland, Buffalo and Pittsburgh closer to Chicago
+        DynamicShortestPathTree tree = system.trackShortestPaths("Chicago");
+        assertTrue(system.addEdge("Chicago", "Cleveland", 300));
+        assertEquals(3, system.lastQueryStats().settled());
+
+        // Lengthening and then cancelling the shortcut recomputes the cities below it
+        assertTrue(system.updateEdge("Chicago", "Cleveland", 350));
+        assertEquals(QueryStats.Operation.UPDATE_EDGE, system.lastQueryStats().operation());
+        assertTrue(tree.lastUpdateSize() > 0);
+        assertEquals(tree.lastUpdateSize(), system.lastQueryStats().settled());
+        assertTrue(system.removeEdge("Chicago", "Cleveland"));
+        assertEquals(QueryStats.Operation.REMOVE_EDGE, system.lastQueryStats().operation());
+        assertTrue(tree.lastUpdateSize() > 0);
+        assertEquals(tree.lastUpdateSize(), system.lastQueryStats().settled());
+    }
+
+    @Test
+    void slowQueries() {
+        AirportSystem system = TestNetworks.makeTestSystemA();
+        List<QueryStats> slow = new ArrayList<>();
+        system.setQueryListener(new MetricsRegistry(0, slow::add));
+        system.shortestDistance("Detroit", "Buffalo");
+        system.breadthFirstSearch("Detroit");
+        assertEquals(2, slow.size());
+        assertEquals("Detroit", slow.get(1).query());
+
+        slow.clear();
+        system.setQueryListener(new MetricsRegistry(Long.MAX_VALUE, slow::add));
+        system.shortestDistance("Detroit", "Buffalo");
+        assertTrue(slow.isEmpty());
+    }
+}
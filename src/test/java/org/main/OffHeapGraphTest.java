@@ -0,0 +1,100 @@
+package org.main;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapGraphTest {
+    @Test
+    void sameQueries() {
+        AirportSystem system = TestNetworks.makeTestSystemA();
+        try (OffHeapGraph graph = system.toOffHeap()) {
+            assertEquals(9, graph.size());
+            assertEquals(13, graph.edgeCount());
+            assertEquals(361, graph.shortestDistance("Chicago", "Cleveland"));
+            assertEquals(AirportSystem.UNREACHABLE, graph.shortestDistance("Chicago", "Nowhere"));
+            assertEquals(system.compact().breadthFirstSearch("Toledo"), graph.breadthFirstSearch("Toledo"));
+            assertEquals(getTotalDistance(system.minimumSpanningTree("Chicago")),
+                    graph.minimumSpanningTree("Chicago").stream().mapToInt(CompactGraph.Edge::distance).sum());
+            assertEquals(system.getConnection("Buffalo").getIndex(), graph.indexOf("Buffalo"));
+            assertEquals("Buffalo", graph.idOf(graph.indexOf("Buffalo")));
+            assertEquals(-1, graph.indexOf("Boston"));
+            assertTrue(graph.offHeapBytes() > 0);
+        }
+    }
+
+    @Test
+    void matchesCompactGraphAcrossChunks() {
+        for (long seed = 0; seed < 3; seed++) {
+            AirportSystem system = TestNetworks.makeRandomSystem(seed, 300, 900);
+            CompactGraph compact = system.compact();
+
+            // Tiny chunks make almost every array span many chunks, and ids straddle chunk boundaries
+            OffHeapGraph copied = OffHeapGraph.of(compact, 6);
+            OffHeapGraph.Builder builder = new OffHeapGraph.Builder(5);
+            for (int v = 0; v < compact.size(); v++)
+                for (AirportSystem.Edge edge : system.getVertex(v).getEdges())
+                    if (edge.getDestination().getIndex() > v)
+                        builder.addEdge(edge.getSource().getId(), edge.getDestination().getId(), edge.getDistance());
+            OffHeapGraph built = builder.build();
+
+            for (OffHeapGraph graph : List.of(copied, built)) {
+                assertEquals(compact.size(), graph.size());
+                assertEquals(compact.edgeCount(), graph.edgeCount());
+                for (int i = 0; i < 40; i++) {
+                    String a = compact.idOf(i * 7 % compact.size());
+                    String b = compact.idOf(i * 13 % compact.size());
+                    assertEquals(compact.shortestDistance(a, b), graph.shortestDistance(a, b));
+                    assertEquals(a, graph.idOf(graph.indexOf(a)));
+                }
+                String root = compact.idOf(0);
+                assertEquals(compact.breadthFirstSearch(root).size(), graph.breadthFirstSearch(root).size());
+                assertEquals(totalDistance(compact.minimumSpanningTree(root)),
+                        totalDistance(graph.minimumSpanningTree(root)));
+                graph.close();
+            }
+            assertEquals(compact.breadthFirstSearch(compact.idOf(0)), OffHeapGraph.of(compact).breadthFirstSearch(
+                    compact.idOf(0)));
+        }
+    }
+
+    @Test
+    void builderRules() {
+        OffHeapGraph.Builder builder = new OffHeapGraph.Builder();
+        assertTrue(builder.addEdge("A", "B", 3));
+        assertFalse(builder.addEdge("A", "A", 3));
+        assertFalse(builder.addEdge("A", "C", -1));
+        assertTrue(builder.addEdge("B", "C", 4));
+        assertEquals(2, builder.edgeCount());
+
+        try (OffHeapGraph graph = builder.build()) {
+            assertEquals(3, graph.size());
+            assertEquals(7, graph.shortestDistance("A", "C"));
+            assertEquals(List.of("B", "A", "C"), graph.breadthFirstSearch("B"));
+        }
+        assertThrows(IllegalStateException.class, builder::build);
+        assertThrows(IllegalStateException.class, () -> builder.addEdge("C", "D", 1));
+    }
+
+    @Test
+    void closeReleasesMemory() {
+        OffHeapGraph graph = TestNetworks.makeTestSystemB().toOffHeap();
+        graph.close();
+        graph.close();
+        assertEquals(0, graph.offHeapBytes());
+        assertThrows(IllegalStateException.class, () -> graph.shortestDistance("1", "6"));
+        assertThrows(IllegalStateException.class, () -> graph.breadthFirstSearch("1"));
+        assertThrows(IllegalStateException.class, () -> graph.minimumSpanningTree("1"));
+        assertThrows(IllegalStateException.class, () -> graph.indexOf("1"));
+    }
+
+    private static int totalDistance(List<CompactGraph.Edge> edges) {
+        return edges.stream().mapToInt(CompactGraph.Edge::distance).sum();
+    }
+
+    private static int getTotalDistance(List<AirportSystem.Edge> edges) {
+        return edges.stream().mapToInt(AirportSystem.Edge::getDistance).sum();
+    }
+}
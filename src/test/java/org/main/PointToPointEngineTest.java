@@ -0,0 +1,95 @@
+package org.main;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PointToPointEngineTest {
+    private AirportSystem makeLocatedTestSystemA() {
+        AirportSystem system = TestNetworks.makeTestSystemA();
+        assertTrue(system.setLocation("Chicago", 41.88, -87.63));
+        assertTrue(system.setLocation("Detroit", 42.33, -83.05));
+        assertTrue(system.setLocation("Toledo", 41.65, -83.54));
+        assertTrue(system.setLocation("Indianapolis", 39.77, -86.16));
+        assertTrue(system.setLocation("Cincinnati", 39.10, -84.51));
+        assertTrue(system.setLocation("Columbus", 39.96, -83.00));
+        assertTrue(system.setLocation("Cleveland", 41.50, -81.69));
+        assertTrue(system.setLocation("Pittsburgh", 40.44, -79.99));
+        assertTrue(system.setLocation("Buffalo", 42.89, -78.88));
+        assertFalse(system.setLocation("Nowhere", 0, 0));
+        assertFalse(system.setLocation("Chicago", 91, 0));
+        return system;
+    }
+
+    @Test
+    void fixtures() {
+        for (AirportSystem system : new AirportSystem[] {
+                TestNetworks.makeTestSystemA(), makeLocatedTestSystemA(), TestNetworks.makeTestSystemB()
+        }) {
+            for (AirportSystem.Vertex a : system.getConnections())
+                for (AirportSystem.Vertex b : system.getConnections())
+                    assertAllModesEqual(system, a.getId(), b.getId());
+        }
+        assertTrue(makeLocatedTestSystemA().compact().hasLocations());
+        assertFalse(TestNetworks.makeTestSystemA().compact().hasLocations());
+    }
+
+    @Test
+    void randomGraphs() {
+        for (long seed = 0; seed < 5; seed++) {
+            AirportSystem system = TestNetworks.makeRandomSystem(seed, 300, 900);
+            Random random = new Random(seed);
+            for (AirportSystem.Vertex vertex : system.getConnections())
+                system.setLocation(vertex.getId(), random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180);
+
+            for (int i = 0; i < 40; i++) {
+                String from = system.getVertex(random.nextInt(system.size())).getId();
+                String to = system.getVertex(random.nextInt(system.size())).getId();
+                assertEquals(TestNetworks.referenceDistance(system, from, to),
+                        system.shortestDistance(from, to, SearchMode.BIDIRECTIONAL));
+                assertAllModesEqual(system, from, to);
+            }
+        }
+    }
+
+    @Test
+    void settlesFewerVertexes() {
+        // A grid of airports one degree apart, where each flight is the great-circle distance rounded up
+        int width = 60;
+        AirportSystem system = new AirportSystem();
+        for (int row = 0; row < width; row++) {
+            for (int column = 0; column < width; column++) {
+                if (column + 1 < width)
+                    system.addEdge(row + "," + column, row + "," + (column + 1), 70);
+                if (row + 1 < width)
+                    system.addEdge(row + "," + column, (row + 1) + "," + column, 70);
+            }
+        }
+        for (int row = 0; row < width; row++)
+            for (int column = 0; column < width; column++)
+                system.setLocation(row + "," + column, row * 0.5, column * 0.5);
+
+        // Corner to corner would have every vertex on some shortest path, so go across the middle instead
+        String from = (width / 2) + ",0";
+        String to = (width / 2) + "," + (width - 1);
+        int expected = system.shortestDistance(from, to, SearchMode.DIJKSTRA);
+        int dijkstraSettled = DijkstraEngine.lastSettledCount();
+        assertEquals(expected, system.shortestDistance(from, to, SearchMode.BIDIRECTIONAL));
+        int bidirectionalSettled = DijkstraEngine.lastSettledCount();
+        assertEquals(expected, system.shortestDistance(from, to, SearchMode.A_STAR));
+        int aStarSettled = DijkstraEngine.lastSettledCount();
+
+        System.out.println("Settled: dijkstra " + dijkstraSettled + ", bidirectional " + bidirectionalSettled
+                + ", a* " + aStarSettled);
+        assertTrue(bidirectionalSettled <= dijkstraSettled);
+        assertTrue(aStarSettled < dijkstraSettled);
+    }
+
+    private void assertAllModesEqual(AirportSystem system, String from, String to) {
+        int expected = system.shortestDistance(from, to, SearchMode.DIJKSTRA);
+        assertEquals(expected, system.shortestDistance(from, to, SearchMode.BIDIRECTIONAL));
+        assertEquals(expected, system.shortestDistance(from, to, SearchMode.A_STAR));
+    }
+}
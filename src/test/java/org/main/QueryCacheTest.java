@@ -0,0 +1,79 @@
+package org.main;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryCacheTest {
+    @Test
+    void symmetricPairsShareEntries() {
+        AirportSystem system = TestNetworks.makeTestSystemA();
+        system.enableCache(100, 10);
+
+        assertEquals(334, system.shortestDistance("Columbus", "Buffalo"));
+        assertEquals(334, system.shortestDistance("Buffalo", "Columbus"));
+        assertEquals(334, system.shortestDistance("Buffalo", "Columbus", SearchMode.A_STAR));
+
+        QueryCache.Statistics statistics = system.getCache().statistics();
+        assertEquals(1, statistics.misses());
+        assertEquals(2, statistics.hits());
+        assertEquals(1, statistics.distances());
+    }
+
+    @Test
+    void invalidatedByAddEdge() {
+        AirportSystem system = TestNetworks.makeTestSystemB();
+        system.enableCache(100, 10);
+        assertEquals(13, system.shortestDistance("6", "5"));
+        assertEquals(17, getTotalDistance(system.minimumSpanningTree("1")));
+
+        // A direct flight makes both results out of date
+        assertTrue(system.addEdge("6", "5", 1));
+        assertEquals(1, system.shortestDistance("6", "5"));
+        assertEquals(11, getTotalDistance(system.minimumSpanningTree("1")));
+        assertEquals(1, system.getCache().statistics().invalidations());
+
+        // A rejected edge does not change the graph, so results stay cached
+        assertFalse(system.addEdge("6", "5", 1));
+        assertEquals(1, system.shortestDistance("5", "6"));
+        assertEquals(1, system.getCache().statistics().hits());
+    }
+
+    @Test
+    void boundedSize() {
+        AirportSystem system = TestNetworks.makeTestSystemA();
+        system.enableCache(2, 1);
+        system.shortestDistance("Detroit", "Toledo");
+        system.shortestDistance("Detroit", "Buffalo");
+        system.shortestDistance("Detroit", "Toledo");
+        system.shortestDistance("Detroit", "Chicago");
+
+        // Detroit to Buffalo was least recently used, so it was evicted
+        QueryCache.Statistics statistics = system.getCache().statistics();
+        assertEquals(2, statistics.distances());
+        assertEquals(1, statistics.evictions());
+        system.shortestDistance("Detroit", "Toledo");
+        assertEquals(2, system.getCache().statistics().hits());
+        system.shortestDistance("Buffalo", "Detroit");
+        assertEquals(2, system.getCache().statistics().hits());
+
+        // Callers can modify the returned trees without corrupting the cache
+        system.minimumSpanningTree("Buffalo").clear();
+        assertEquals(1038, getTotalDistance(system.minimumSpanningTree("Buffalo")));
+        system.minimumSpanningTree("Detroit");
+        assertEquals(1, system.getCache().statistics().spanningTrees());
+
+        system.disableCache();
+        assertNull(system.getCache());
+        assertEquals(60, system.shortestDistance("Detroit", "Toledo"));
+    }
+
+    private int getTotalDistance(List<AirportSystem.Edge> edges) {
+        int totalPathLength = 0;
+        for (AirportSystem.Edge edge : edges)
+            totalPathLength += edge.getDistance();
+        return totalPathLength;
+    }
+}
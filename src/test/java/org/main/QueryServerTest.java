@@ -0,0 +1,116 @@
+package org.main;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryServerTest {
+    @Test
+    void answersOverHttp() throws IOException, InterruptedException {
+        ConcurrentAirportSystem system = makeTestSystemA();
+        try (QueryServer server = new QueryServer(system, new InetSocketAddress("localhost", 0), 16, 2);
+             HttpClient client = HttpClient.newHttpClient()) {
+            assertEquals("361", get(client, server, "/distance?from=Chicago&to=Cleveland").body());
+            assertEquals("0", get(client, server, "/distance?from=Chicago&to=Chicago").body());
+            assertEquals("-1", get(client, server, "/distance?from=Chicago&to=New%20York").body());
+            assertEquals(400, get(client, server, "/distance?from=Chicago").statusCode());
+            assertEquals(3, server.latencies().count());
+        }
+    }
+
+    @Test
+    void shedsLoad() throws IOException, InterruptedException {
+        ConcurrentAirportSystem system = makeTestSystemA();
+        try (QueryServer server = new QueryServer(system, new InetSocketAddress("localhost", 0), 0, 1);
+             HttpClient client = HttpClient.newHttpClient()) {
+            HttpResponse<String> response = get(client, server, "/distance?from=Chicago&to=Cleveland");
+            assertEquals(503, response.statusCode());
+            assertEquals("1", response.headers().firstValue("Retry-After").orElseThrow());
+            assertEquals(1, server.rejectedCount());
+        }
+    }
+
+    @Test
+    void batchesQueriesFromTheSameCity() throws IOException {
+        ConcurrentAirportSystem system = makeTestSystemA();
+
+        // Searches only run when the test says so, so that the queries pile up behind them
+        List<Runnable> searches = new ArrayList<>();
+        try (QueryServer server = new QueryServer(system, new InetSocketAddress("localhost", 0), 16, searches::add,
+                false)) {
+            CompletableFuture<Integer> cleveland = server.shortestDistance("Chicago", "Cleveland");
+            CompletableFuture<Integer> buffalo = server.shortestDistance("Chicago", "Buffalo");
+            CompletableFuture<Integer> again = server.shortestDistance("Chicago", "Cleveland");
+            CompletableFuture<Integer> nowhere = server.shortestDistance("Chicago", "Nowhere");
+            CompletableFuture<Integer> other = server.shortestDistance("Detroit", "Toledo");
+            assertEquals(2, searches.size());
+            assertFalse(cleveland.isDone());
+
+            searches.get(0).run();
+            assertEquals(361, cleveland.join());
+            assertEquals(361, again.join());
+            assertEquals(552, buffalo.join());
+            assertEquals(AirportSystem.UNREACHABLE, nowhere.join());
+            assertFalse(other.isDone());
+
+            // Once a search has started, queries from the same city start a new one
+            CompletableFuture<Integer> late = server.shortestDistance("Chicago", "Toledo");
+            assertEquals(3, searches.size());
+            searches.get(1).run();
+            searches.get(2).run();
+            assertEquals(60, other.join());
+            assertEquals(244, late.join());
+            assertEquals(3, server.searchCount());
+        }
+    }
+
+    @Test
+    void oneToManyMatchesPointQueries() {
+        CompactGraph graph = TestNetworks.makeRandomSystem(5, 400, 1_000).compact();
+        int[] targets = new int[60];
+        for (int i = 0; i < targets.length; i++)
+            targets[i] = i % 7 == 0 ? -1 : i * 37 % graph.size();
+
+        for (int source = 0; source < 20; source++) {
+            int[] distances = graph.dijkstra().distances(source, targets);
+            for (int i = 0; i < targets.length; i++) {
+                int expected = targets[i] == -1
+                        ? AirportSystem.UNREACHABLE
+                        : graph.dijkstra().distance(source, targets[i]);
+                assertEquals(expected, distances[i]);
+            }
+        }
+    }
+
+    /**
+     * The same flights as {@link TestNetworks#makeTestSystemA()}, in a concurrent airport system.
+     */
+    private ConcurrentAirportSystem makeTestSystemA() {
+        List<ConcurrentAirportSystem.Route> routes = new ArrayList<>();
+        for (AirportSystem.Vertex vertex : TestNetworks.makeTestSystemA().getConnections())
+            for (AirportSystem.Edge edge : vertex.getEdges())
+                if (edge.getDestination().getIndex() > vertex.getIndex())
+                    routes.add(new ConcurrentAirportSystem.Route(vertex.getId(), edge.getDestination().getId(),
+                            edge.getDistance()));
+
+        ConcurrentAirportSystem system = new ConcurrentAirportSystem();
+        assertEquals(13, system.addEdges(routes));
+        return system;
+    }
+
+    private static HttpResponse<String> get(HttpClient client, QueryServer server, String path)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.port() + path)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,81 @@
+package org.main;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedAirportSystemTest {
+    @Test
+    void everyPairMatches() {
+        AirportSystem system = TestNetworks.makeTestSystemA();
+        try (ShardedAirportSystem sharded = system.partition(3)) {
+            for (String a : system.compact().getConnections())
+                for (String b : system.compact().getConnections())
+                    assertEquals(system.shortestDistance(a, b), sharded.shortestDistance(a, b), a + " to " + b);
+            assertEquals(AirportSystem.UNREACHABLE, sharded.shortestDistance("Chicago", "Nowhere"));
+        }
+    }
+
+    @Test
+    void randomNetworksMatch() {
+        for (long seed = 0; seed < 4; seed++) {
+            // Sparse enough to leave some cities unreachable from others
+            AirportSystem system = TestNetworks.makeRandomSystem(seed, 400, seed % 2 == 0 ? 450 : 1200);
+            CompactGraph graph = system.compact();
+            for (int shards : new int[] {2, 3, 7}) {
+                try (ShardedAirportSystem sharded = ShardedAirportSystem.of(graph, shards)) {
+                    assertTrue(sharded.overlay().size() <= graph.size());
+                    for (int i = 0; i < 60; i++) {
+                        String a = graph.idOf(i * 7 % graph.size());
+                        String b = graph.idOf((i * 31 + 5) % graph.size());
+                        assertEquals(graph.shortestDistance(a, b), sharded.shortestDistance(a, b), a + " to " + b);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void routesThatLeaveAndReenterAShard() {
+        // The uneven grid distances make many shortest routes between two cities of a shard go through another one
+        CompactGraph graph = GraphPartitionerTest.makeGrid(12).compact();
+        GraphPartition partition = GraphPartitioner.partition(graph, 4);
+        ShardNode[] shards = ShardNode.split(graph, partition);
+        try (LocalShardTransport transport = new LocalShardTransport(shards);
+             ShardedAirportSystem sharded = new ShardedAirportSystem(graph.getConnections(), partition, transport)) {
+            for (int a = 0; a < graph.size(); a += 5)
+                for (int b = 0; b < graph.size(); b += 3)
+                    assertEquals(graph.shortestDistance(graph.idOf(a), graph.idOf(b)),
+                            sharded.shortestDistance(graph.idOf(a), graph.idOf(b)));
+
+            // Each query sends one request to each of two shards and gets two responses
+            long before = transport.messageCount();
+            sharded.shortestDistance(graph.idOf(0), graph.idOf(graph.size() - 1));
+            assertEquals(before + 4, transport.messageCount());
+        }
+
+        int total = 0;
+        for (ShardNode shard : shards)
+            total += shard.size();
+        assertEquals(graph.size(), total);
+    }
+
+    @Test
+    void malformedRequests() {
+        CompactGraph graph = TestNetworks.makeTestSystemA().compact();
+        GraphPartition partition = GraphPartitioner.partition(graph, 2);
+        ShardNode[] shards = ShardNode.split(graph, partition);
+        int outsider = partition.vertexes(1)[0];
+        assertThrows(IllegalArgumentException.class, () -> shards[0].handle(ShardNode.searchRequest(outsider, -1)));
+        assertThrows(IllegalArgumentException.class, () -> shards[0].handle(ByteBuffer.wrap(new byte[] {9})));
+
+        try (LocalShardTransport transport = new LocalShardTransport(shards)) {
+            CompletionException exception = assertThrows(CompletionException.class,
+                    () -> transport.send(0, ShardNode.searchRequest(outsider, -1)).join());
+            assertInstanceOf(IllegalArgumentException.class, exception.getCause());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.main;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpanningTreeEngineTest {
+    @Test
+    void fixtures() {
+        for (SpanningTreeAlgorithm algorithm : SpanningTreeAlgorithm.values()) {
+            SpanningForest forest = TestNetworks.makeTestSystemA().minimumSpanningForest(algorithm);
+            assertEquals(1038, forest.totalWeight());
+            assertEquals(8, forest.edgeCount());
+            assertTrue(forest.isSpanningTree());
+            assertEquals(1038, forest.edges().stream().mapToInt(CompactGraph.Edge::distance).sum());
+
+            forest = TestNetworks.makeTestSystemB().minimumSpanningForest(algorithm);
+            assertEquals(17, forest.totalWeight());
+            assertEquals(1, forest.componentCount());
+        }
+
+        assertEquals(0, new AirportSystem().minimumSpanningForest().edgeCount());
+    }
+
+    @Test
+    void disconnected() {
+        AirportSystem system = TestNetworks.makeTestSystemA();
+        assertTrue(system.addEdge("Boston", "Portland", 100));
+        assertTrue(system.addEdge("Portland", "Bangor", 120));
+        assertTrue(system.addEdge("Bangor", "Boston", 200));
+
+        // The single tree from a root only covers the root's component, but no longer fails
+        assertEquals(220, system.minimumSpanningTree("Boston").stream()
+                .mapToInt(AirportSystem.Edge::getDistance).sum());
+        assertEquals(1038, system.minimumSpanningTree("Chicago").stream()
+                .mapToInt(AirportSystem.Edge::getDistance).sum());
+
+        for (SpanningTreeAlgorithm algorithm : SpanningTreeAlgorithm.values()) {
+            SpanningForest forest = system.minimumSpanningForest(algorithm);
+            assertEquals(1258, forest.totalWeight());
+            assertEquals(2, forest.componentCount());
+            assertFalse(forest.isSpanningTree());
+        }
+    }
+
+    @Test
+    void algorithmsAgreeOnRandomGraphs() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (long seed = 0; seed < 6; seed++) {
+                // Few edges per vertex so that some graphs fall apart into several components
+                AirportSystem system = TestNetworks.makeRandomSystem(seed, 2_000 + (int) seed * 5_000,
+                        3_000 + (int) seed * 12_000);
+                CompactGraph graph = system.compact();
+                SpanningTreeEngine engine = new SpanningTreeEngine(graph);
+
+                SpanningForest kruskal = engine.kruskal();
+                assertIsForest(graph, kruskal);
+                assertEquals(componentCount(system), kruskal.componentCount());
+
+                for (SpanningForest other : List.of(engine.prim(), engine.boruvka(pool), engine.boruvka())) {
+                    assertIsForest(graph, other);
+                    assertEquals(kruskal.totalWeight(), other.totalWeight());
+                    assertEquals(kruskal.edgeCount(), other.edgeCount());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void disjointSets() {
+        SpanningTreeEngine.DisjointSets sets = new SpanningTreeEngine.DisjointSets(6);
+        assertTrue(sets.union(0, 1));
+        assertTrue(sets.union(2, 3));
+        assertTrue(sets.union(1, 3));
+        assertFalse(sets.union(0, 2));
+        assertEquals(sets.find(0), sets.find(3));
+        assertNotEquals(sets.find(0), sets.find(4));
+    }
+
+    /**
+     * Check that every edge of the forest is an edge of the graph and that the edges never form a cycle.
+     */
+    private void assertIsForest(CompactGraph graph, SpanningForest forest) {
+        SpanningTreeEngine.DisjointSets sets = new SpanningTreeEngine.DisjointSets(graph.size());
+        for (int edge = 0; edge < forest.edgeCount(); edge++) {
+            int source = forest.source(edge);
+            boolean found = false;
+            for (int slot = graph.firstSlot(source); slot < graph.endSlot(source); slot++)
+                found |= graph.target(slot) == forest.target(edge) && graph.weight(slot) == forest.weight(edge);
+            assertTrue(found);
+            assertTrue(sets.union(source, forest.target(edge)));
+        }
+    }
+
+    private int componentCount(AirportSystem system) {
+        Set<String> seen = new HashSet<>();
+        int components = 0;
+        for (AirportSystem.Vertex vertex : system.getConnections()) {
+            if (!seen.contains(vertex.getId())) {
+                seen.addAll(system.breadthFirstSearch(vertex.getId()));
+                components++;
+            }
+        }
+        return components;
+    }
+}
@@ -0,0 +1,91 @@
+package org.main;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The airport systems shared by the test suites, and a reference shortest distance to check searches against.
+ */
+final class TestNetworks {
+    private TestNetworks() {}
+
+    static AirportSystem makeTestSystemA() {
+        AirportSystem system = new AirportSystem();
+        assertTrue(system.addEdge("Chicago", "Detroit", 281));
+        assertTrue(system.addEdge("Chicago", "Toledo", 244));
+        assertTrue(system.addEdge("Chicago", "Indianapolis", 181));
+        assertTrue(system.addEdge("Detroit", "Toledo", 60));
+        assertTrue(system.addEdge("Indianapolis", "Cincinnati", 110));
+        assertTrue(system.addEdge("Cincinnati", "Toledo", 198));
+        assertTrue(system.addEdge("Cincinnati", "Columbus", 101));
+        assertTrue(system.addEdge("Columbus", "Cleveland", 143));
+        assertTrue(system.addEdge("Toledo", "Cleveland", 117));
+        assertTrue(system.addEdge("Columbus", "Pittsburgh", 185));
+        assertTrue(system.addEdge("Cleveland", "Buffalo", 191));
+        assertTrue(system.addEdge("Pittsburgh", "Buffalo", 216));
+        assertTrue(system.addEdge("Pittsburgh", "Cleveland", 135));
+        return system;
+    }
+
+    static AirportSystem makeTestSystemB() {
+        AirportSystem system = new AirportSystem();
+        system.addEdge("1", "5", 4);
+        system.addEdge("1", "2", 2);
+        system.addEdge("1", "4", 1);
+        system.addEdge("5", "4", 9);
+        system.addEdge("4", "3", 5);
+        system.addEdge("2", "6", 7);
+        system.addEdge("6", "3", 8);
+        system.addEdge("2", "4", 3);
+        system.addEdge("2", "3", 3);
+        return system;
+    }
+
+    /**
+     * Build a random airport system. Not every vertex is guaranteed to be connected to every other vertex.
+     *
+     * @param seed The seed for the random number generator, so that failures are reproducible.
+     * @param vertexCount The number of possible vertexes.
+     * @param edgeCount The number of edges to attempt to add.
+     * @return The random airport system.
+     */
+    static AirportSystem makeRandomSystem(long seed, int vertexCount, int edgeCount) {
+        Random random = new Random(seed);
+        AirportSystem system = new AirportSystem();
+        for (int i = 0; i < edgeCount; i++)
+            system.addEdge(
+                    "V" + random.nextInt(vertexCount),
+                    "V" + random.nextInt(vertexCount),
+                    random.nextInt(1000)
+            );
+        return system;
+    }
+
+    /**
+     * A deliberately simple quadratic Dijkstra over the object graph, used as the expected result for the optimized
+     * searches.
+     */
+    static int referenceDistance(AirportSystem system, String cityA, String cityB) {
+        Map<AirportSystem.Vertex, Integer> distances = new HashMap<>();
+        Set<AirportSystem.Vertex> settled = new HashSet<>();
+        AirportSystem.Vertex target = system.getConnection(cityB);
+        distances.put(system.getConnection(cityA), 0);
+
+        while (true) {
+            AirportSystem.Vertex closest = null;
+            for (Map.Entry<AirportSystem.Vertex, Integer> entry : distances.entrySet())
+                if (!settled.contains(entry.getKey())
+                        && (closest == null || entry.getValue() < distances.get(closest)))
+                    closest = entry.getKey();
+            if (closest == null)
+                return AirportSystem.UNREACHABLE;
+            if (closest == target)
+                return distances.get(closest);
+
+            settled.add(closest);
+            for (AirportSystem.Edge edge : closest.getEdges())
+                distances.merge(edge.getDestination(), distances.get(closest) + edge.getDistance(), Math::min);
+        }
+    }
+}